@@ -0,0 +1,714 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.DatatypeConverter;
+
+import antlr.CommonHiddenStreamToken;
+import antlr.RecognitionException;
+import antlr.TokenStreamException;
+import com.google.common.io.ByteStreams;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.grammars.CommentListener;
+import com.puppycrawl.tools.checkstyle.grammars.GeneratedJavaLexer;
+import com.puppycrawl.tools.checkstyle.grammars.GeneratedJavaRecognizer;
+
+/**
+ * Persistent(on file-system) cache of ASTs, which are produced by
+ * {@link TreeWalker#parse}. Each AST is stored in a separate binary file, which
+ * name is a hash of the file contents and of the grammar, so a lookup reads
+ * only one small file, and changes of the grammar invalidate all entries.
+ * An entry contains the nodes of the AST, their hidden comment tokens and the
+ * comments reported by the lexer to {@link FileContents}.
+ *
+ * <p>Entries are written to temporary files and moved to their place, so
+ * concurrent audits can share the cache. The cache is only an optimization:
+ * an entry, which can not be read, is replaced, and an entry, which can not be
+ * written, is skipped.
+ *
+ * <p>The modification time of an entry is updated when it is read, so it is
+ * the time of the last use of the entry. Entries, which were not used for some
+ * days, and the least recently used entries above a maximum number are
+ * removed by {@link #evict}.
+ *
+ * @author the original author or authors.
+ */
+final class AstCache {
+    /** The version of the format of entries. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The extension of entry files. */
+    private static final String ENTRY_EXTENSION = ".ast";
+
+    /** The index of an absent string or token. */
+    private static final int NO_INDEX = -1;
+
+    /** The flag of a node, which has children. */
+    private static final int HAS_FIRST_CHILD = 1;
+
+    /** The flag of a node, which has a next sibling. */
+    private static final int HAS_NEXT_SIBLING = 2;
+
+    /** The size of entries, starting from which they are mapped instead of read. */
+    private static final int MAP_THRESHOLD = 1024 * 1024;
+
+    /** The algorithm of hashes. */
+    private static final String HASH_ALGORITHM = "SHA-1";
+
+    /** The hash of the lexer and parser classes. */
+    private static final byte[] GRAMMAR_HASH = getGrammarHash();
+
+    /** The directory of entries. */
+    private final Path directory;
+
+    /**
+     * Creates a new cache.
+     * @param directory the directory of entries, which is created on demand
+     */
+    AstCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Parses Java source file, or reads its AST from the cache. Comments are
+     * reported to the file contents in both cases.
+     * @param contents the contents of the file
+     * @return the root of the AST
+     * @throws RecognitionException if parsing failed
+     * @throws TokenStreamException if lexing failed
+     */
+    public DetailAST parse(FileContents contents)
+            throws RecognitionException, TokenStreamException {
+        final String fullText = contents.getText().getFullText().toString();
+        final Path entry = directory.resolve(getKey(fullText) + ENTRY_EXTENSION);
+
+        CachedAst cachedAst = read(entry);
+        if (cachedAst == null) {
+            final CommentRecorder recorder = new CommentRecorder();
+            final DetailAST root = TreeWalker.parse(contents, recorder);
+            cachedAst = new CachedAst(root, recorder.comments);
+            write(entry, cachedAst);
+        }
+        for (ReportedComment comment : cachedAst.comments) {
+            comment.reportTo(contents);
+        }
+        return cachedAst.root;
+    }
+
+    /**
+     * Removes entries, which were not used for some days, and the least
+     * recently used entries above the maximum number of entries.
+     * @param maxAge the number of days, which unused entries are kept for
+     * @param maxSize the maximum number of entries, or zero for no limit
+     * @return the number of removed entries
+     */
+    public int evict(int maxAge, int maxSize) {
+        int evicted = 0;
+        try (DirectoryStream<Path> files =
+                Files.newDirectoryStream(directory, "*" + ENTRY_EXTENSION)) {
+            final List<Path> entries = new ArrayList<>();
+            final Map<Path, Long> usedTimes = new HashMap<>();
+            for (Path entry : files) {
+                entries.add(entry);
+                usedTimes.put(entry, Files.getLastModifiedTime(entry).toMillis());
+            }
+            // the most recently used entries first
+            entries.sort((first, second) -> Long.compare(usedTimes.get(second),
+                    usedTimes.get(first)));
+            final long oldestKept = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAge);
+            for (int i = 0; i < entries.size(); i++) {
+                final Path entry = entries.get(i);
+                if ((maxSize > 0 && i >= maxSize || usedTimes.get(entry) < oldestKept)
+                        && Files.deleteIfExists(entry)) {
+                    evicted++;
+                }
+            }
+        }
+        catch (IOException ignored) {
+            // the directory is absent or unreadable, the entries are evicted next time
+        }
+        return evicted;
+    }
+
+    /**
+     * Reads an entry of the cache. Small entries are read to memory, and large
+     * ones are mapped.
+     * @param entry the entry file
+     * @return the AST, or {@code null} if the entry is absent or unreadable
+     */
+    private static CachedAst read(Path entry) {
+        CachedAst result = null;
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer buffer;
+            if (size >= MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            else {
+                buffer = ByteBuffer.allocate((int) size);
+                int read = 0;
+                while (read >= 0 && buffer.hasRemaining()) {
+                    read = channel.read(buffer);
+                }
+                buffer.flip();
+            }
+            if (buffer.getInt() == FORMAT_VERSION) {
+                result = new EntryReader(buffer).read();
+            }
+        }
+        catch (NoSuchFileException ignored) {
+            // the file was not cached yet
+        }
+        // -@cs[IllegalCatch] A broken entry can fail decoding in many ways
+        catch (IOException | RuntimeException ignored) {
+            // the entry is broken, it is replaced by a new one
+        }
+        if (result != null) {
+            markUsed(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the modification time of an entry to the current time, which is
+     * the time of its last use.
+     * @param entry the entry file
+     */
+    private static void markUsed(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        catch (IOException ignored) {
+            // the entry is used, but it can be evicted earlier
+        }
+    }
+
+    /**
+     * Writes an entry of the cache.
+     * @param entry the entry file
+     * @param cachedAst the AST to write
+     */
+    private void write(Path entry, CachedAst cachedAst) {
+        try {
+            final byte[] bytes = new EntryWriter().write(cachedAst);
+            Files.createDirectories(directory);
+            final Path temporaryFile = Files.createTempFile(directory, null, null);
+            try {
+                Files.write(temporaryFile, bytes);
+                Files.move(temporaryFile, entry, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+        catch (IOException ignored) {
+            // the audit does not depend on the cache, the AST is parsed next time
+        }
+    }
+
+    /**
+     * Calculates the key of an entry.
+     * @param fullText the full text of a file
+     * @return the key of the entry
+     */
+    private static String getKey(String fullText) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            digest.update((byte) FORMAT_VERSION);
+            digest.update(GRAMMAR_HASH);
+            digest.update(fullText.getBytes(StandardCharsets.UTF_8));
+            return DatatypeConverter.printHexBinary(digest.digest());
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unable to calculate hashcode.", ex);
+        }
+    }
+
+    /**
+     * Calculates the hash of the lexer and parser classes, which represents
+     * the version of the grammar.
+     * @return the hash of the grammar
+     */
+    private static byte[] getGrammarHash() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            for (Class<?> grammarClass : new Class<?>[] {
+                GeneratedJavaLexer.class, GeneratedJavaRecognizer.class, }) {
+                try (InputStream stream = grammarClass.getResourceAsStream(
+                        grammarClass.getSimpleName() + ".class")) {
+                    digest.update(ByteStreams.toByteArray(stream));
+                }
+            }
+            return digest.digest();
+        }
+        catch (IOException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unable to calculate hashcode of grammar.", ex);
+        }
+    }
+
+    /** The AST of a file and comments reported by the lexer. */
+    private static final class CachedAst {
+        /** The root of the AST. */
+        private final DetailAST root;
+
+        /** The comments reported by the lexer. */
+        private final List<ReportedComment> comments;
+
+        /**
+         * Creates a new cached AST.
+         * @param root the root of the AST
+         * @param comments the comments reported by the lexer
+         */
+        CachedAst(DetailAST root, List<ReportedComment> comments) {
+            this.root = root;
+            this.comments = comments;
+        }
+    }
+
+    /** A comment reported by the lexer. */
+    private static final class ReportedComment {
+        /** The type of the comment. */
+        private final String type;
+
+        /** Whether the comment is a block comment. */
+        private final boolean block;
+
+        /** The starting line number. */
+        private final int startLineNo;
+
+        /** The starting column number. */
+        private final int startColNo;
+
+        /** The ending line number of a block comment. */
+        private final int endLineNo;
+
+        /** The ending column number of a block comment. */
+        private final int endColNo;
+
+        /**
+         * Creates a new comment.
+         * @param type the type of the comment
+         * @param block whether the comment is a block comment
+         * @param startLineNo the starting line number
+         * @param startColNo the starting column number
+         * @param endLineNo the ending line number of a block comment
+         * @param endColNo the ending column number of a block comment
+         */
+        ReportedComment(String type, boolean block, int startLineNo, int startColNo,
+                int endLineNo, int endColNo) {
+            this.type = type;
+            this.block = block;
+            this.startLineNo = startLineNo;
+            this.startColNo = startColNo;
+            this.endLineNo = endLineNo;
+            this.endColNo = endColNo;
+        }
+
+        /**
+         * Reports the comment to a listener.
+         * @param listener the listener
+         */
+        public void reportTo(CommentListener listener) {
+            if (block) {
+                listener.reportBlockComment(type, startLineNo, startColNo, endLineNo, endColNo);
+            }
+            else {
+                listener.reportSingleLineComment(type, startLineNo, startColNo);
+            }
+        }
+    }
+
+    /** Records comments reported by the lexer. */
+    private static final class CommentRecorder implements CommentListener {
+        /** The recorded comments. */
+        private final List<ReportedComment> comments = new ArrayList<>();
+
+        @Override
+        public void reportSingleLineComment(String type, int startLineNo, int startColNo) {
+            comments.add(new ReportedComment(type, false, startLineNo, startColNo,
+                    NO_INDEX, NO_INDEX));
+        }
+
+        @Override
+        public void reportBlockComment(String type, int startLineNo, int startColNo,
+                int endLineNo, int endColNo) {
+            comments.add(new ReportedComment(type, true,
+                    startLineNo, startColNo, endLineNo, endColNo));
+        }
+    }
+
+    /** A hidden token, which links to other hidden tokens after its creation. */
+    private static final class LinkedHiddenToken extends CommonHiddenStreamToken {
+        /**
+         * Creates a new token.
+         * @param type the type of the token
+         * @param text the text of the token
+         */
+        LinkedHiddenToken(int type, String text) {
+            super(type, text);
+        }
+
+        /**
+         * Sets the neighbour hidden tokens.
+         * @param before the hidden token before this token
+         * @param after the hidden token after this token
+         */
+        public void link(CommonHiddenStreamToken before, CommonHiddenStreamToken after) {
+            setHiddenBefore(before);
+            setHiddenAfter(after);
+        }
+    }
+
+    /**
+     * Encodes an AST into an entry. Strings and hidden tokens are written once
+     * into tables and are referenced by their indexes. Nodes are written in
+     * pre-order with flags, which tell where the next node is attached.
+     */
+    private static final class EntryWriter {
+        /** The indexes of strings. */
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        /** The indexes of hidden tokens. */
+        private final Map<CommonHiddenStreamToken, Integer> tokens = new IdentityHashMap<>();
+
+        /** The hidden tokens in the order of their indexes. */
+        private final List<CommonHiddenStreamToken> tokenList = new ArrayList<>();
+
+        /**
+         * Encodes an AST.
+         * @param cachedAst the AST
+         * @return the bytes of the entry
+         * @throws IOException if an I/O error occurs
+         */
+        public byte[] write(CachedAst cachedAst) throws IOException {
+            final ByteArrayOutputStream nodeBytes = new ByteArrayOutputStream();
+            final DataOutputStream nodeOutput = new DataOutputStream(nodeBytes);
+            writeComments(nodeOutput, cachedAst.comments);
+            writeNodes(nodeOutput, cachedAst.root);
+
+            final ByteArrayOutputStream tokenBytes = new ByteArrayOutputStream();
+            writeTokens(new DataOutputStream(tokenBytes));
+
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            final DataOutputStream output = new DataOutputStream(result);
+            output.writeInt(FORMAT_VERSION);
+            final String[] stringArray = new String[strings.size()];
+            strings.forEach((string, index) -> stringArray[index] = string);
+            output.writeInt(stringArray.length);
+            for (String string : stringArray) {
+                final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+            output.writeInt(tokenList.size());
+            tokenBytes.writeTo(output);
+            nodeBytes.writeTo(output);
+            output.flush();
+            return result.toByteArray();
+        }
+
+        /**
+         * Writes comments reported by the lexer.
+         * @param output the output
+         * @param comments the comments
+         * @throws IOException if an I/O error occurs
+         */
+        private void writeComments(DataOutputStream output, List<ReportedComment> comments)
+                throws IOException {
+            output.writeInt(comments.size());
+            for (ReportedComment comment : comments) {
+                output.writeBoolean(comment.block);
+                output.writeInt(getStringIndex(comment.type));
+                output.writeInt(comment.startLineNo);
+                output.writeInt(comment.startColNo);
+                output.writeInt(comment.endLineNo);
+                output.writeInt(comment.endColNo);
+            }
+        }
+
+        /**
+         * Writes the table of hidden tokens, which are referenced by nodes.
+         * @param output the output
+         * @throws IOException if an I/O error occurs
+         */
+        private void writeTokens(DataOutputStream output) throws IOException {
+            // the list grows while tokens are written, as tokens link to other tokens
+            for (int i = 0; i < tokenList.size(); i++) {
+                final CommonHiddenStreamToken token = tokenList.get(i);
+                output.writeInt(token.getType());
+                output.writeInt(getStringIndex(token.getText()));
+                output.writeInt(token.getLine());
+                output.writeInt(token.getColumn());
+                output.writeInt(getTokenIndex(token.getHiddenBefore()));
+                output.writeInt(getTokenIndex(token.getHiddenAfter()));
+            }
+        }
+
+        /**
+         * Writes nodes of an AST in pre-order.
+         * @param output the output
+         * @param root the root of the AST, or {@code null} for an empty AST
+         * @throws IOException if an I/O error occurs
+         */
+        private void writeNodes(DataOutputStream output, DetailAST root) throws IOException {
+            final List<DetailAST> nodes = new ArrayList<>();
+            DetailAST node = root;
+            while (node != null) {
+                nodes.add(node);
+                DetailAST toVisit = node.getFirstChild();
+                while (node != null && toVisit == null) {
+                    toVisit = node.getNextSibling();
+                    if (toVisit == null) {
+                        node = node.getParent();
+                    }
+                }
+                node = toVisit;
+            }
+
+            output.writeInt(nodes.size());
+            for (DetailAST current : nodes) {
+                int flags = 0;
+                if (current.getFirstChild() != null) {
+                    flags |= HAS_FIRST_CHILD;
+                }
+                if (current.getNextSibling() != null) {
+                    flags |= HAS_NEXT_SIBLING;
+                }
+                output.writeByte(flags);
+                output.writeInt(current.getType());
+                output.writeInt(getStringIndex(current.getText()));
+                output.writeInt(current.getLineNo());
+                output.writeInt(current.getColumnNo());
+                output.writeInt(getTokenIndex(current.getHiddenBefore()));
+                output.writeInt(getTokenIndex(current.getHiddenAfter()));
+            }
+        }
+
+        /**
+         * Returns the index of a string, adds the string to the table if needed.
+         * @param string the string, can be {@code null}
+         * @return the index of the string
+         */
+        private int getStringIndex(String string) {
+            int index = NO_INDEX;
+            if (string != null) {
+                index = strings.computeIfAbsent(string, key -> strings.size());
+            }
+            return index;
+        }
+
+        /**
+         * Returns the index of a hidden token, adds the token to the table if needed.
+         * @param token the token, can be {@code null}
+         * @return the index of the token
+         */
+        private int getTokenIndex(CommonHiddenStreamToken token) {
+            int index = NO_INDEX;
+            if (token != null) {
+                index = tokens.computeIfAbsent(token, key -> {
+                    tokenList.add(key);
+                    return tokenList.size() - 1;
+                });
+            }
+            return index;
+        }
+    }
+
+    /** Decodes an AST from an entry. */
+    private static final class EntryReader {
+        /** The bytes of the entry after the format version. */
+        private final ByteBuffer buffer;
+
+        /** The table of strings. */
+        private String[] strings;
+
+        /** The table of hidden tokens. */
+        private CommonHiddenStreamToken[] tokens;
+
+        /**
+         * Creates a new reader.
+         * @param buffer the bytes of the entry after the format version
+         */
+        EntryReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Decodes the AST.
+         * @return the AST
+         */
+        public CachedAst read() {
+            strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                final byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            readTokens();
+
+            final int commentCount = buffer.getInt();
+            final List<ReportedComment> comments = new ArrayList<>(commentCount);
+            for (int i = 0; i < commentCount; i++) {
+                final boolean block = buffer.get() != 0;
+                final String type = getString(buffer.getInt());
+                comments.add(new ReportedComment(type, block, buffer.getInt(),
+                        buffer.getInt(), buffer.getInt(), buffer.getInt()));
+            }
+            return new CachedAst(readNodes(), comments);
+        }
+
+        /**
+         * Decodes the table of hidden tokens.
+         */
+        private void readTokens() {
+            final LinkedHiddenToken[] linkedTokens = new LinkedHiddenToken[buffer.getInt()];
+            final int[] links = new int[linkedTokens.length * 2];
+            for (int i = 0; i < linkedTokens.length; i++) {
+                final LinkedHiddenToken token =
+                        new LinkedHiddenToken(buffer.getInt(), getString(buffer.getInt()));
+                token.setLine(buffer.getInt());
+                token.setColumn(buffer.getInt());
+                links[i * 2] = buffer.getInt();
+                links[i * 2 + 1] = buffer.getInt();
+                linkedTokens[i] = token;
+            }
+            tokens = linkedTokens;
+            for (int i = 0; i < linkedTokens.length; i++) {
+                linkedTokens[i].link(getToken(links[i * 2]), getToken(links[i * 2 + 1]));
+            }
+        }
+
+        /**
+         * Decodes nodes, which are written in pre-order.
+         * @return the root of the AST, or {@code null} for an empty AST
+         */
+        private DetailAST readNodes() {
+            final int nodeCount = buffer.getInt();
+            final Deque<DetailAST> awaitingSibling = new ArrayDeque<>();
+            DetailAST root = null;
+            DetailAST previous = null;
+            int previousFlags = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                final int flags = buffer.get();
+                final DetailAST node = readNode();
+                if (previous == null) {
+                    root = node;
+                }
+                else if ((previousFlags & HAS_FIRST_CHILD) != 0) {
+                    previous.setFirstChild(node);
+                }
+                else if ((previousFlags & HAS_NEXT_SIBLING) != 0) {
+                    previous.setNextSibling(node);
+                }
+                else {
+                    awaitingSibling.pop().setNextSibling(node);
+                }
+                if ((flags & HAS_FIRST_CHILD) != 0 && (flags & HAS_NEXT_SIBLING) != 0) {
+                    awaitingSibling.push(node);
+                }
+                previous = node;
+                previousFlags = flags;
+            }
+            return root;
+        }
+
+        /**
+         * Decodes a node without its links to other nodes.
+         * @return the node
+         */
+        private DetailAST readNode() {
+            final int type = buffer.getInt();
+            final String text = getString(buffer.getInt());
+            final int lineNo = buffer.getInt();
+            final int columnNo = buffer.getInt();
+            final CommonHiddenStreamToken hiddenBefore = getToken(buffer.getInt());
+            final CommonHiddenStreamToken hiddenAfter = getToken(buffer.getInt());
+
+            final DetailAST node = new DetailAST();
+            if (hiddenBefore == null && hiddenAfter == null) {
+                node.initialize(type, text);
+                node.setLineNo(lineNo);
+                node.setColumnNo(columnNo);
+            }
+            else {
+                // hidden tokens of a node can be set only from a token
+                final LinkedHiddenToken token = new LinkedHiddenToken(type, text);
+                token.setLine(lineNo);
+                token.setColumn(columnNo + 1);
+                token.link(hiddenBefore, hiddenAfter);
+                node.initialize(token);
+            }
+            return node;
+        }
+
+        /**
+         * Returns a string from the table.
+         * @param index the index of the string
+         * @return the string, or {@code null} for {@link #NO_INDEX}
+         */
+        private String getString(int index) {
+            String result = null;
+            if (index != NO_INDEX) {
+                result = strings[index];
+            }
+            return result;
+        }
+
+        /**
+         * Returns a hidden token from the table.
+         * @param index the index of the token
+         * @return the token, or {@code null} for {@link #NO_INDEX}
+         */
+        private CommonHiddenStreamToken getToken(int index) {
+            CommonHiddenStreamToken result = null;
+            if (index != NO_INDEX) {
+                result = tokens[index];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Audit listener, which passes events to other listeners on a dedicated thread.
+ * A slow listener, for example a logger writing to a network file system, does
+ * not throttle the checking thread any more. Events are passed through a
+ * bounded queue in the order they were fired. If the queue is full, the firing
+ * thread waits until the listeners catch up.
+ *
+ * <p>The dedicated thread is started when the audit starts. When the audit
+ * finishes, the firing thread waits until all events are delivered, so output
+ * of the listeners is complete when {@link Checker#process} returns. If a
+ * listener throws an exception or error, the following events are not
+ * delivered and it is rethrown to the firing thread until the audit finishes.
+ * If the audit fails before it finishes, {@link Checker} stops the dedicated
+ * thread, and events, which are not delivered yet, are dropped.
+ *
+ * <p>Usage:
+ * <pre>
+ * checker.addListener(new AsyncAuditListener(new XMLLogger(out, OutputStreamOptions.CLOSE)));
+ * </pre>
+ *
+ * @author the original author or authors.
+ */
+public final class AsyncAuditListener implements AuditListener {
+    /** The default capacity of the event queue. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** The listeners, which receive events on the dedicated thread. */
+    private final List<AuditListener> listeners;
+
+    /** The queue of events, which are not delivered yet. */
+    private final BlockingQueue<Notification> queue;
+
+    /** The first exception or error thrown by a listener in the current audit. */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /** The dedicated thread, or {@code null} if the audit is not started. */
+    private Thread dispatcher;
+
+    /**
+     * Creates a new listener with the default queue capacity.
+     * @param listeners the listeners to pass events to
+     */
+    public AsyncAuditListener(AuditListener... listeners) {
+        this(DEFAULT_QUEUE_CAPACITY, listeners);
+    }
+
+    /**
+     * Creates a new listener.
+     * @param queueCapacity the maximum number of events, which are waiting for delivery
+     * @param listeners the listeners to pass events to
+     */
+    public AsyncAuditListener(int queueCapacity, AuditListener... listeners) {
+        this.listeners = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(listeners)));
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        // the previous audit did not finish
+        abort();
+        failure.set(null);
+        dispatcher = new Thread(this::dispatchEvents, "AsyncAuditListener");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        fire(listener -> listener.auditStarted(event));
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        // the dedicated thread is stopped even after a failure of a listener
+        put(listener -> listener.auditFinished(event));
+        put(null);
+        try {
+            dispatcher.join();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for audit listeners", ex);
+        }
+        finally {
+            dispatcher = null;
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Stops the dedicated thread of an audit, which failed before it
+     * finished, and drops the events, which are not delivered yet. Does
+     * nothing if the audit is not started.
+     */
+    void abort() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            try {
+                dispatcher.join();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                dispatcher = null;
+                queue.clear();
+            }
+        }
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        fire(listener -> listener.fileStarted(event));
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        fire(listener -> listener.fileFinished(event));
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        fire(listener -> listener.addError(event));
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        fire(listener -> listener.addException(event, throwable));
+    }
+
+    /**
+     * Rethrows a failure of a listener, or puts a notification to the queue.
+     * @param action the action, which notifies a listener
+     */
+    private void fire(Consumer<AuditListener> action) {
+        rethrowFailure();
+        put(action);
+    }
+
+    /**
+     * Puts a notification to the queue, waits if the queue is full.
+     * @param action the action, which notifies a listener, or {@code null} to
+     *     stop the dedicated thread
+     */
+    private void put(Consumer<AuditListener> action) {
+        try {
+            queue.put(new Notification(action));
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while firing an audit event", ex);
+        }
+    }
+
+    /**
+     * Rethrows the exception of a listener to the firing thread.
+     */
+    private void rethrowFailure() {
+        final Throwable exception = failure.get();
+        if (exception != null) {
+            throw new IllegalStateException("Audit listener failed", exception);
+        }
+    }
+
+    /**
+     * Delivers events from the queue until the stop notification is taken.
+     */
+    private void dispatchEvents() {
+        try {
+            Notification notification = queue.take();
+            while (notification.action != null) {
+                if (failure.get() == null) {
+                    deliver(notification);
+                }
+                notification = queue.take();
+            }
+        }
+        catch (InterruptedException ignored) {
+            // the audit was abandoned, events are not needed any more
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delivers a notification to all listeners.
+     * @param notification the notification to deliver
+     */
+    private void deliver(Notification notification) {
+        try {
+            listeners.forEach(notification.action);
+        }
+        // -@cs[IllegalCatch] Any exception or error of a listener has to be passed to the
+        // firing thread, the dedicated thread must survive it to drain the queue
+        catch (Throwable ex) {
+            failure.set(ex);
+        }
+    }
+
+    /** A notification of listeners about an event. */
+    private static final class Notification {
+        /** The action, which notifies a listener, or {@code null} to stop. */
+        private final Consumer<AuditListener> action;
+
+        /**
+         * Creates a new notification.
+         * @param action the action, which notifies a listener
+         */
+        Notification(Consumer<AuditListener> action) {
+            this.action = action;
+        }
+    }
+}
@@ -57,7 +57,8 @@ public class AuditEventDefaultFormatter implements AuditEventFormatter {
         }
 
         // Avoid StringBuffer.expandCapacity
-        final int bufLen = calculateBufferLength(event, severityLevelName.length());
+        final int bufLen = calculateBufferLength(event, message.length(),
+            severityLevelName.length());
         final StringBuilder sb = new StringBuilder(bufLen);
 
         sb.append('[').append(severityLevelName).append("] ")
@@ -83,12 +84,14 @@ public class AuditEventDefaultFormatter implements AuditEventFormatter {
      * bufferLength = fileNameLength + messageLength + lengthOfAllSeparators +
      * + severityNameLength + checkNameLength.
      * @param event audit event.
+     * @param messageLength length of the message, which is formatted once.
      * @param severityLevelNameLength length of severity level name.
      * @return the length of the buffer for StringBuilder.
      */
-    private static int calculateBufferLength(AuditEvent event, int severityLevelNameLength) {
+    private static int calculateBufferLength(AuditEvent event, int messageLength,
+            int severityLevelNameLength) {
         return LENGTH_OF_ALL_SEPARATORS + event.getFileName().length()
-            + event.getMessage().length() + severityLevelNameLength
+            + messageLength + severityLevelNameLength
             + getCheckShortName(event).length();
     }
 
@@ -0,0 +1,452 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The entries of {@link PropertyCacheFile} in a compact binary form.
+ * <p>
+ * The file starts with a header, an index and a table of entries sorted by
+ * their keys. The index is an open addressing hash table of offsets of the
+ * entries, so the file is read to memory on load as it is instead of being
+ * parsed, and an entry is decoded only when it is requested. The file is not
+ * mapped, because a mapped file can not be replaced on some platforms. Changes are appended to the
+ * end of the file as a log, which is read on load. The table is written again
+ * with the log merged into it, when the log grows larger than a half of the table.
+ * Changes are rebased on the table, which is read again before they are written,
+ * so changes written by other processes in between are not lost.
+ * </p>
+ * @author the original author or authors.
+ */
+final class CacheTable {
+    /** Identifies files of this format, the bytes of "CSCT". */
+    private static final int MAGIC = 0x43534354;
+
+    /** The version of the format, which is changed on incompatible changes. */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header: magic, version, number of entries, number of
+     * index slots and size of the file up to the end of the table.
+     */
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    /** The position of the number of entries in the header. */
+    private static final int ENTRY_COUNT_POSITION = 2 * Integer.BYTES;
+
+    /** The position of the number of index slots in the header. */
+    private static final int INDEX_SLOTS_POSITION = 3 * Integer.BYTES;
+
+    /** The position of the size of the table in the header. */
+    private static final int TABLE_SIZE_POSITION = 4 * Integer.BYTES;
+
+    /** The type of log records, which put entries. */
+    private static final byte PUT = 1;
+
+    /** The type of log records, which remove entries. */
+    private static final byte REMOVE = 2;
+
+    /** The file content up to the end of the table, or {@code null} if there is no file. */
+    private final ByteBuffer table;
+
+    /** The entries read from the log, removed entries have {@code null} values. */
+    private final Map<String, String> log;
+
+    /** The size of the log in bytes, or -1 if the end of the log is broken. */
+    private final long logSize;
+
+    /** The entries changed since the load, removed entries have empty values. */
+    private final Map<String, Optional<String>> changes = new ConcurrentHashMap<>();
+
+    /** Whether all entries were removed since the load. */
+    private boolean cleared;
+
+    /** Creates an empty table, which is not stored in a file. */
+    CacheTable() {
+        this(null, new HashMap<>(), 0);
+    }
+
+    /**
+     * Creates a table.
+     * @param table the content of the table, or {@code null}.
+     * @param log the entries read from the log.
+     * @param logSize the size of the log in bytes, or -1 if the end of the log is broken.
+     */
+    private CacheTable(ByteBuffer table, Map<String, String> log, long logSize) {
+        this.table = table;
+        this.log = log;
+        this.logSize = logSize;
+    }
+
+    /**
+     * Reads a table from a file. The table is read to memory, the log is read.
+     * @param file the file to read.
+     * @return the table, an empty table if the file has an unsupported version
+     *     or a broken header, or {@code null} if the file has another format.
+     * @throws IOException if the file can not be read.
+     */
+    public static CacheTable read(Path file) throws IOException {
+        CacheTable result = null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = readFully(channel, channel.size());
+            if (buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC) {
+                final int tableSize = buffer.getInt(TABLE_SIZE_POSITION);
+                if (buffer.getInt(Integer.BYTES) == VERSION
+                        && tableSize >= HEADER_SIZE && tableSize <= buffer.limit()) {
+                    result = read(buffer);
+                }
+                else {
+                    result = new CacheTable();
+                    result.clear();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads a table from the content of a file of this format.
+     * @param buffer the content of the file.
+     * @return the table.
+     */
+    private static CacheTable read(ByteBuffer buffer) {
+        final int tableSize = buffer.getInt(TABLE_SIZE_POSITION);
+        buffer.position(tableSize);
+        final Map<String, String> log = new HashMap<>();
+        long logSize = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                final byte type = buffer.get();
+                if (type != PUT && type != REMOVE) {
+                    throw new BufferUnderflowException();
+                }
+                final String key = readString(buffer);
+                String value = null;
+                if (type == PUT) {
+                    value = readString(buffer);
+                }
+                log.put(key, value);
+                logSize = buffer.position() - tableSize;
+            }
+        }
+        catch (BufferUnderflowException ignored) {
+            // the end of the log is broken, the last record was not written completely
+            logSize = -1;
+        }
+
+        buffer.position(0);
+        buffer.limit(tableSize);
+        return new CacheTable(buffer.slice(), log, logSize);
+    }
+
+    /**
+     * Reads the content of a file.
+     * @param channel the channel of the file.
+     * @param size the size of the file.
+     * @return the buffer with the content.
+     * @throws IOException if the file can not be read.
+     */
+    private static ByteBuffer readFully(FileChannel channel, long size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+        int read = 0;
+        while (read >= 0 && buffer.hasRemaining()) {
+            read = channel.read(buffer);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Returns the value of an entry.
+     * @param key the key of the entry.
+     * @return the value, or {@code null} if there is no entry.
+     */
+    public String get(String key) {
+        final String value;
+        final Optional<String> changed = changes.get(key);
+        if (changed != null) {
+            value = changed.orElse(null);
+        }
+        else if (cleared) {
+            value = null;
+        }
+        else if (log.containsKey(key)) {
+            value = log.get(key);
+        }
+        else {
+            value = getFromTable(key);
+        }
+        return value;
+    }
+
+    /**
+     * Puts an entry.
+     * @param key the key of the entry.
+     * @param value the value of the entry.
+     */
+    public void put(String key, String value) {
+        changes.put(key, Optional.of(value));
+    }
+
+    /**
+     * Removes an entry.
+     * @param key the key of the entry.
+     */
+    public void remove(String key) {
+        changes.put(key, Optional.empty());
+    }
+
+    /** Removes all entries. */
+    public void clear() {
+        changes.clear();
+        cleared = true;
+    }
+
+    /**
+     * Creates a table with the entries of another table and the changes of
+     * this one. It is used to apply the changes to the file, which was written
+     * by someone else since this table was read. If all entries of this table
+     * were removed, the entries of the other table are removed too.
+     * @param base the table to apply the changes to.
+     * @return the table with the entries of the base table and the changes.
+     */
+    public CacheTable rebase(CacheTable base) {
+        final CacheTable result;
+        if (cleared) {
+            result = new CacheTable();
+        }
+        else {
+            result = new CacheTable(base.table, base.log, base.logSize);
+        }
+        result.cleared = cleared || base.cleared;
+        result.changes.putAll(changes);
+        return result;
+    }
+
+    /**
+     * Returns all entries.
+     * @return the entries sorted by their keys.
+     */
+    public SortedMap<String, String> toMap() {
+        final SortedMap<String, String> entries = new TreeMap<>();
+        if (!cleared) {
+            if (table != null) {
+                final ByteBuffer buffer = table.duplicate();
+                final int entryCount = buffer.getInt(ENTRY_COUNT_POSITION);
+                buffer.position(HEADER_SIZE + buffer.getInt(INDEX_SLOTS_POSITION) * Integer.BYTES);
+                for (int i = 0; i < entryCount; i++) {
+                    entries.put(readString(buffer), readString(buffer));
+                }
+            }
+            log.forEach((key, value) -> apply(entries, key, value));
+        }
+        changes.forEach((key, value) -> apply(entries, key, value.orElse(null)));
+        return entries;
+    }
+
+    /**
+     * Checks whether there are changes, which are not written yet.
+     * @return {@code true} if there are changes.
+     */
+    public boolean hasChanges() {
+        return cleared || !changes.isEmpty();
+    }
+
+    /**
+     * Checks whether the table has to be written again, because there is no
+     * table yet, all entries were removed, or the log is too large or broken.
+     * @return {@code true} if the table has to be written.
+     */
+    public boolean isCompactionRequired() {
+        return table == null || cleared || logSize < 0 || logSize > table.limit() / 2;
+    }
+
+    /**
+     * Returns the file content with all entries.
+     * @return the bytes of the header, the index and the table.
+     * @throws IOException if the content can not be created.
+     */
+    public byte[] getTableBytes() throws IOException {
+        final SortedMap<String, String> entries = toMap();
+        final int indexSlots = Integer.highestOneBit(Math.max(entries.size(), 1)) * 4;
+        final int[] index = new int[indexSlots];
+        final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+        final DataOutputStream entryOutput = new DataOutputStream(entryBytes);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            int slot = getSlot(entry.getKey(), indexSlots);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & (indexSlots - 1);
+            }
+            // zero marks empty slots
+            index[slot] = entryOutput.size() + 1;
+            writeString(entryOutput, entry.getKey());
+            writeString(entryOutput, entry.getValue());
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(entries.size());
+        output.writeInt(indexSlots);
+        output.writeInt(HEADER_SIZE + indexSlots * Integer.BYTES + entryBytes.size());
+        for (int offset : index) {
+            output.writeInt(offset);
+        }
+        entryBytes.writeTo(output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the log records of the changes, which are appended to the file.
+     * @return the bytes of the log records.
+     * @throws IOException if the records can not be created.
+     */
+    public byte[] getChangeBytes() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        for (Map.Entry<String, Optional<String>> entry : changes.entrySet()) {
+            final Optional<String> value = entry.getValue();
+            if (value.isPresent()) {
+                output.writeByte(PUT);
+                writeString(output, entry.getKey());
+                writeString(output, value.get());
+            }
+            else {
+                output.writeByte(REMOVE);
+                writeString(output, entry.getKey());
+            }
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Looks an entry up in the table.
+     * @param key the key of the entry.
+     * @return the value, or {@code null} if there is no entry.
+     */
+    private String getFromTable(String key) {
+        String value = null;
+        if (table != null) {
+            final ByteBuffer buffer = table.duplicate();
+            final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            final int indexSlots = buffer.getInt(INDEX_SLOTS_POSITION);
+            final int entriesStart = HEADER_SIZE + indexSlots * Integer.BYTES;
+            int slot = getSlot(key, indexSlots);
+            int offset = buffer.getInt(HEADER_SIZE + slot * Integer.BYTES);
+            while (offset != 0) {
+                buffer.position(entriesStart + offset - 1);
+                if (isKeyEqual(buffer, keyBytes)) {
+                    value = readString(buffer);
+                    break;
+                }
+                slot = (slot + 1) & (indexSlots - 1);
+                offset = buffer.getInt(HEADER_SIZE + slot * Integer.BYTES);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the first index slot to look a key up in.
+     * @param key the key.
+     * @param indexSlots the number of index slots, a power of two.
+     * @return the slot.
+     */
+    private static int getSlot(String key, int indexSlots) {
+        final int hash = key.hashCode();
+        return (hash ^ hash >>> Short.SIZE) & (indexSlots - 1);
+    }
+
+    /**
+     * Compares the key of an entry with the given one. The buffer is moved
+     * to the value of the entry if the keys are equal.
+     * @param buffer the buffer positioned at the entry.
+     * @param keyBytes the bytes of the key to compare with.
+     * @return {@code true} if the keys are equal.
+     */
+    private static boolean isKeyEqual(ByteBuffer buffer, byte[] keyBytes) {
+        boolean result = buffer.getInt() == keyBytes.length;
+        for (int i = 0; result && i < keyBytes.length; i++) {
+            result = buffer.get() == keyBytes[i];
+        }
+        return result;
+    }
+
+    /**
+     * Applies an entry to entries.
+     * @param entries the entries to change.
+     * @param key the key of the entry.
+     * @param value the value, or {@code null} to remove the entry.
+     */
+    private static void apply(Map<String, String> entries, String key, String value) {
+        if (value == null) {
+            entries.remove(key);
+        }
+        else {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Reads a string prefixed with the length of its bytes.
+     * @param buffer the buffer to read from.
+     * @return the string.
+     * @throws BufferUnderflowException if the string is not written completely.
+     */
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string prefixed with the length of its bytes.
+     * @param output the output to write to.
+     * @param value the string.
+     * @throws IOException if the string can not be written.
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -0,0 +1,136 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.google.common.collect.Multimap;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.utils.TokenUtils;
+
+/**
+ * Checks to notify at each node of an AST, indexed by token type.
+ * The registrations of {@link TreeWalker} are compiled into arrays once, so
+ * the walk does not look up token names and hash maps at each node. A check is
+ * put into the table of visitors or leavers only if it overrides
+ * {@link AbstractCheck#visitToken} or {@link AbstractCheck#leaveToken}
+ * respectively, because the default implementations do nothing.
+ * @author the original author or authors.
+ */
+final class CheckDispatchTable {
+    /** Checks of a token type, which has no registered checks. */
+    private static final AbstractCheck[] NO_CHECKS = new AbstractCheck[0];
+
+    /** Checks to notify when visiting a node, indexed by token type. */
+    private final AbstractCheck[][] visitors;
+
+    /** Checks to notify when leaving a node, indexed by token type. */
+    private final AbstractCheck[][] leavers;
+
+    /**
+     * Creates a new table.
+     * @param tokenToChecks the checks mapped from token names.
+     * @param checks the checks to put into the table, other checks are skipped.
+     */
+    CheckDispatchTable(Multimap<String, AbstractCheck> tokenToChecks,
+            Set<AbstractCheck> checks) {
+        int size = 0;
+        for (String token : tokenToChecks.keySet()) {
+            size = Math.max(size, TokenUtils.getTokenId(token) + 1);
+        }
+        visitors = new AbstractCheck[size][];
+        leavers = new AbstractCheck[size][];
+        Arrays.fill(visitors, NO_CHECKS);
+        Arrays.fill(leavers, NO_CHECKS);
+
+        for (Entry<String, Collection<AbstractCheck>> entry : tokenToChecks.asMap().entrySet()) {
+            final List<AbstractCheck> tokenVisitors = new ArrayList<>();
+            final List<AbstractCheck> tokenLeavers = new ArrayList<>();
+            for (AbstractCheck check : entry.getValue()) {
+                if (checks.contains(check)) {
+                    if (isOverridden(check, "visitToken")) {
+                        tokenVisitors.add(check);
+                    }
+                    if (isOverridden(check, "leaveToken")) {
+                        tokenLeavers.add(check);
+                    }
+                }
+            }
+            final int tokenId = TokenUtils.getTokenId(entry.getKey());
+            visitors[tokenId] = tokenVisitors.toArray(NO_CHECKS);
+            leavers[tokenId] = tokenLeavers.toArray(NO_CHECKS);
+        }
+    }
+
+    /**
+     * Returns checks to notify when visiting a node of the given type.
+     * @param tokenType the type of a node.
+     * @return the checks, an empty array if there are no checks.
+     */
+    public AbstractCheck[] getVisitors(int tokenType) {
+        return getChecks(visitors, tokenType);
+    }
+
+    /**
+     * Returns checks to notify when leaving a node of the given type.
+     * @param tokenType the type of a node.
+     * @return the checks, an empty array if there are no checks.
+     */
+    public AbstractCheck[] getLeavers(int tokenType) {
+        return getChecks(leavers, tokenType);
+    }
+
+    /**
+     * Returns checks of a token type from a table.
+     * @param table the checks indexed by token type.
+     * @param tokenType the type of a node.
+     * @return the checks, an empty array if there are no checks.
+     */
+    private static AbstractCheck[] getChecks(AbstractCheck[][] table, int tokenType) {
+        AbstractCheck[] checks = NO_CHECKS;
+        if (tokenType < table.length) {
+            checks = table[tokenType];
+        }
+        return checks;
+    }
+
+    /**
+     * Checks whether a check overrides a notification method of {@link AbstractCheck}.
+     * @param check the check.
+     * @param methodName the name of the notification method.
+     * @return {@code true} if the method is overridden.
+     */
+    private static boolean isOverridden(AbstractCheck check, String methodName) {
+        try {
+            return check.getClass().getMethod(methodName, DetailAST.class)
+                    .getDeclaringClass() != AbstractCheck.class;
+        }
+        catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("Notification method is not found: "
+                    + methodName, ex);
+        }
+    }
+}
@@ -25,10 +25,16 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -44,7 +50,6 @@ import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilterSet;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
 import com.puppycrawl.tools.checkstyle.api.Context;
-import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
 import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
 import com.puppycrawl.tools.checkstyle.api.FileText;
 import com.puppycrawl.tools.checkstyle.api.Filter;
@@ -63,10 +68,16 @@ import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
  * @author lkuehne
  * @author Andrei Selkin
  */
+// -@cs[ClassFanOutComplexity|MethodCount] Multi-thread mode, reading ahead, the caches and
+// checks of texts add classes. Number of classes current class relies on currently is 33, which
+// is above threshold 25. Options of the cache and checks of texts need their own methods.
 public class Checker extends AutomaticBean implements MessageDispatcher, RootModule {
     /** Message to use when an exception occurs and should be printed as a violation. */
     public static final String EXCEPTION_MSG = "general.exception";
 
+    /** The default number of days, which unused files are kept in the cache for. */
+    private static final int DEFAULT_CACHE_MAX_AGE = 7;
+
     /** Logger for Checker. */
     private static final Log LOG = LogFactory.getLog(Checker.class);
 
@@ -80,6 +91,9 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
     /** Vector of fileset checks. */
     private final List<FileSetCheck> fileSetChecks = new ArrayList<>();
 
+    /** Configurations of the fileset checks, which were created from child configurations. */
+    private final Map<FileSetCheck, Configuration> configuredFileSetChecks = new HashMap<>();
+
     /** The audit event before execution file filters. */
     private final BeforeExecutionFileFilterSet beforeExecutionFileFilters =
             new BeforeExecutionFileFilterSet();
@@ -129,9 +143,30 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
     /** Cache file. **/
     private PropertyCacheFile cache;
 
+    /** Whether the cache compares files by their content instead of their timestamps. */
+    private boolean cacheByContent;
+
+    /** The number of days, which files not checked anymore are kept in the cache for. */
+    private int cacheMaxAge = DEFAULT_CACHE_MAX_AGE;
+
+    /** The maximum number of files in the cache, zero means no limit. */
+    private int cacheMaxSize;
+
+    /** The directory of the store of violations addressed by content of files. */
+    private String cacheDirectory;
+
+    /** Violations of modules, which are cached for files. */
+    private ModuleResultCache resultCache;
+
+    /** Processes files by several threads, which is kept between runs. */
+    private MultiThreadFileProcessor fileProcessor;
+
     /** Controls whether exceptions should halt execution or not. */
     private boolean haltOnException = true;
 
+    /** The number of threads which process files. */
+    private int threadsNumber = 1;
+
     /**
      * Creates a new {@code Checker} instance.
      * The instance needs to be contextualized and configured.
@@ -146,11 +181,54 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
      * @throws IOException if there are some problems with file loading.
      */
     public void setCacheFile(String fileName) throws IOException {
-        final Configuration configuration = getConfiguration();
+        // modules are identified by their own configurations in the cache
+        final Configuration configuration =
+                ModuleResultCache.copyConfiguration(getConfiguration(), child -> false);
         cache = new PropertyCacheFile(configuration, fileName);
         cache.load();
     }
 
+    /**
+     * Sets whether the cache compares files by their content instead of their
+     * timestamps. Files are put to the cache by their names relative to the
+     * base directory then.
+     * @param cacheByContent whether the cache compares files by their content.
+     */
+    public void setCacheByContent(boolean cacheByContent) {
+        this.cacheByContent = cacheByContent;
+    }
+
+    /**
+     * Sets the directory of the store of violations, which is addressed by
+     * content of files and names of files relative to the base directory, so
+     * it can be shared between checkouts in different places. The store is
+     * used along with the cache file, when files are not found in it.
+     * @param cacheDirectory the directory, which is created on demand.
+     */
+    public void setCacheDirectory(String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Sets the number of days, which files, that were not checked since then,
+     * are kept in the cache for. Files are kept for a week by default, so runs
+     * on different files, which share the cache, do not evict files of each other.
+     * @param cacheMaxAge the number of days.
+     */
+    public void setCacheMaxAge(int cacheMaxAge) {
+        this.cacheMaxAge = cacheMaxAge;
+    }
+
+    /**
+     * Sets the maximum number of files in the cache. Files, which were not
+     * checked for the longest time, are evicted first. Files of the current
+     * run are never evicted.
+     * @param cacheMaxSize the maximum number of files, zero means no limit.
+     */
+    public void setCacheMaxSize(int cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
     /**
      * Removes before execution file filter.
      * @param filter before execution file filter to remove.
@@ -167,12 +245,25 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
         filters.removeFilter(filter);
     }
 
+    /**
+     * Destroys the fileset checks and removes listeners and filters, so the
+     * checker can not be used after this. The cache is persisted.
+     */
     @Override
     public void destroy() {
+        fileSetChecks.forEach(FileSetCheck::destroy);
+        if (fileProcessor != null) {
+            fileProcessor.destroy();
+            fileProcessor = null;
+        }
         listeners.clear();
         beforeExecutionFileFilters.clear();
         filters.clear();
         if (cache != null) {
+            if (resultCache != null) {
+                final int evicted = cache.evict(cacheMaxAge, cacheMaxSize);
+                LOG.debug("Evicted " + evicted + " entries from the cache.");
+            }
             try {
                 cache.persist();
             }
@@ -200,24 +291,70 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
 
     @Override
     public int process(List<File> files) throws CheckstyleException {
+        return process(files.iterator());
+    }
+
+    /**
+     * Processes files, which are supplied while they are processed. The files
+     * are taken from the iterator a few steps ahead of their processing, so
+     * the audit starts and the memory stays bounded while files are still
+     * being discovered.
+     *
+     * <p>The checker can process files and texts several times, so a
+     * configured checker serves repeated audits without building its modules
+     * again. Each run begins and finishes processing of the fileset checks and
+     * counts its own errors; the modules are destroyed by {@link #destroy()}.
+     * Runs must not be started concurrently.
+     * @param files the files to be audited.
+     * @return the total number of errors found
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     */
+    @Override
+    public int process(Iterator<File> files) throws CheckstyleException {
         if (cache != null) {
-            cache.putExternalResources(getExternalResourceLocations());
+            // filters with external resources are applied to cached violations
+            final Set<String> locations = CommonUtils.getExternalResourceLocations(fileSetChecks);
+            cache.setContentMode(cacheByContent, basedir);
+            cache.putExternalResources(locations);
+            ModuleResultStore store = null;
+            if (cacheDirectory != null) {
+                store = new ModuleResultStore(Paths.get(cacheDirectory), basedir);
+            }
+            resultCache = new ModuleResultCache(cache, getConfiguration(), fileSetChecks,
+                    configuredFileSetChecks, filters, (fileName, message) -> new AuditEvent(
+                            this, CommonUtils.relativizeAndNormalizePath(basedir, fileName),
+                            message), store);
         }
 
         // Prepare to start
         fireAuditStarted();
-        for (final FileSetCheck fsc : fileSetChecks) {
-            fsc.beginProcessing(charset);
-        }
-
-        processFiles(files);
+        boolean finished = false;
+        try {
+            for (final FileSetCheck fsc : fileSetChecks) {
+                fsc.beginProcessing(charset);
+            }
 
-        // Finish up
-        // It may also log!!!
-        fileSetChecks.forEach(FileSetCheck::finishProcessing);
+            if (threadsNumber > 1) {
+                if (fileProcessor == null) {
+                    fileProcessor = new MultiThreadFileProcessor(this, threadsNumber,
+                            fileSetChecks, configuredFileSetChecks);
+                }
+                fileProcessor.process(files, charset);
+            }
+            else {
+                processFiles(files);
+            }
 
-        // It may also log!!!
-        fileSetChecks.forEach(FileSetCheck::destroy);
+            // Finish up
+            // It may also log!!!
+            fileSetChecks.forEach(FileSetCheck::finishProcessing);
+            finished = true;
+        }
+        finally {
+            if (!finished) {
+                fireAuditAborted();
+            }
+        }
 
         final int errorCount = counter.getCount();
         fireAuditFinished();
@@ -225,26 +362,78 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
     }
 
     /**
-     * Returns a set of external configuration resource locations which are used by all file set
-     * checks and filters.
-     * @return a set of external configuration resource locations which are used by all file set
-     *         checks and filters.
+     * Checks a text, which is not read from the file system.
+     * @param fileName the name of the file, which the text belongs to
+     * @param text the text of the file
+     * @return the violations, which are accepted by the filters
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     * @see #processTexts(Collection)
      */
-    private Set<String> getExternalResourceLocations() {
-        final Set<String> externalResources = new HashSet<>();
-        fileSetChecks.stream().filter(check -> check instanceof ExternalResourceHolder)
-            .forEach(check -> {
-                final Set<String> locations =
-                    ((ExternalResourceHolder) check).getExternalResourceLocations();
-                externalResources.addAll(locations);
-            });
-        filters.getFilters().stream().filter(filter -> filter instanceof ExternalResourceHolder)
-            .forEach(filter -> {
-                final Set<String> locations =
-                    ((ExternalResourceHolder) filter).getExternalResourceLocations();
-                externalResources.addAll(locations);
-            });
-        return externalResources;
+    public SortedSet<LocalizedMessage> processText(String fileName, CharSequence text)
+            throws CheckstyleException {
+        final File file = new File(fileName).getAbsoluteFile();
+        return processTexts(Collections.singleton(FileText.fromText(file, text)))
+                .get(file.getPath());
+    }
+
+    /**
+     * Checks the content of a file, which is not read from the file system.
+     * The content is decoded with the charset of the checker.
+     * @param fileName the name of the file, which the content belongs to
+     * @param content the content of the file
+     * @return the violations, which are accepted by the filters
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     * @see #processTexts(Collection)
+     */
+    public SortedSet<LocalizedMessage> processText(String fileName, byte[] content)
+            throws CheckstyleException {
+        final File file = new File(fileName).getAbsoluteFile();
+        return processTexts(Collections.singleton(new FileText(file, content, charset)))
+                .get(file.getPath());
+    }
+
+    /**
+     * Checks texts, which are not read from the file system, so small texts
+     * can be checked without temporary files. Listeners are not notified and
+     * the cache is not used; the violations of each file are returned instead.
+     * Texts are accepted by file extensions and before execution file filters
+     * as files are, and violations are accepted by filters as usual.
+     * Violations, which FileSetChecks report after all files, are still sent
+     * to listeners. Some checks of property files and
+     * {@link com.puppycrawl.tools.checkstyle.checks.NewlineAtEndOfFileCheck}
+     * read the file system by themselves, so they do not support texts.
+     * @param texts the texts to check, with distinct file names
+     * @return the accepted violations of the texts, mapped from the paths of
+     *     their files; texts, which are not accepted, have no violations
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     */
+    public Map<String, SortedSet<LocalizedMessage>> processTexts(Collection<FileText> texts)
+            throws CheckstyleException {
+        final Map<String, SortedSet<LocalizedMessage>> result = new LinkedHashMap<>();
+        for (final FileSetCheck fsc : fileSetChecks) {
+            fsc.beginProcessing(charset);
+        }
+        final FileTextReader reader = new FileTextReader(texts, file -> {
+            result.put(file.getPath(), new TreeSet<>());
+            return acceptFileName(file);
+        });
+        try {
+            while (reader.hasNext()) {
+                final File file = reader.next();
+                final String stripped =
+                        CommonUtils.relativizeAndNormalizePath(basedir, file.getAbsolutePath());
+                for (final LocalizedMessage message : processFile(file, reader, fileSetChecks)) {
+                    if (filters.accept(new AuditEvent(this, stripped, message))) {
+                        result.get(file.getPath()).add(message);
+                    }
+                }
+            }
+        }
+        finally {
+            reader.close();
+        }
+        fileSetChecks.forEach(FileSetCheck::finishProcessing);
+        return result;
     }
 
     /** Notify all listeners about the audit start. */
@@ -264,60 +453,88 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
     }
 
     /**
-     * Processes a list of files with all FileSetChecks.
-     * @param files a list of files to process.
+     * Stops the delivery of events by asynchronous listeners, because the
+     * audit failed and will not finish.
+     */
+    private void fireAuditAborted() {
+        for (final AuditListener listener : listeners) {
+            if (listener instanceof AsyncAuditListener) {
+                ((AsyncAuditListener) listener).abort();
+            }
+        }
+    }
+
+    /**
+     * Processes files with all FileSetChecks.
+     * @param files the files to process.
      * @throws CheckstyleException if error condition within Checkstyle occurs.
      * @noinspection ProhibitedExceptionThrown
      */
-    private void processFiles(List<File> files) throws CheckstyleException {
-        for (final File file : files) {
-            try {
-                final String fileName = file.getAbsolutePath();
-                final long timestamp = file.lastModified();
-                if (cache != null && cache.isInCache(fileName, timestamp)
-                        || !CommonUtils.matchesFileExtension(file, fileExtensions)
-                        || !acceptFileStarted(fileName)) {
-                    continue;
+    private void processFiles(Iterator<File> files) throws CheckstyleException {
+        final FileTextReader reader = new FileTextReader(files, this::acceptFile,
+            file -> resultCache == null || !resultCache.isCached(file),
+            charset, FileTextReader.DEFAULT_READ_AHEAD);
+        try {
+            while (reader.hasNext()) {
+                final File file = reader.next();
+                try {
+                    final String fileName = file.getAbsolutePath();
+                    fireFileStarted(fileName);
+                    final SortedSet<LocalizedMessage> fileMessages =
+                            processFile(file, reader, fileSetChecks);
+                    fireErrors(fileName, fileMessages);
+                    fireFileFinished(fileName);
                 }
-                if (cache != null) {
-                    cache.put(fileName, timestamp);
+                // -@cs[IllegalCatch] There is no other way to deliver filename that was under
+                // processing. See https://github.com/checkstyle/checkstyle/issues/2285
+                catch (Exception ex) {
+                    // We need to catch all exceptions to put a reason failure (file name)
+                    // in exception
+                    throw new CheckstyleException("Exception was thrown while processing "
+                            + file.getPath(), ex);
+                }
+                catch (Error error) {
+                    // We need to catch all errors to put a reason failure (file name) in error
+                    throw new Error("Error was thrown while processing " + file.getPath(),
+                            error);
                 }
-                fireFileStarted(fileName);
-                final SortedSet<LocalizedMessage> fileMessages = processFile(file);
-                fireErrors(fileName, fileMessages);
-                fireFileFinished(fileName);
-            }
-            // -@cs[IllegalCatch] There is no other way to deliver filename that was under
-            // processing. See https://github.com/checkstyle/checkstyle/issues/2285
-            catch (Exception ex) {
-                // We need to catch all exceptions to put a reason failure (file name) in exception
-                throw new CheckstyleException("Exception was thrown while processing "
-                        + file.getPath(), ex);
-            }
-            catch (Error error) {
-                // We need to catch all errors to put a reason failure (file name) in error
-                throw new Error("Error was thrown while processing " + file.getPath(), error);
             }
         }
+        finally {
+            reader.close();
+        }
     }
 
     /**
-     * Processes a file with all FileSetChecks.
+     * Processes a file with the given FileSetChecks.
      * @param file a file to process.
+     * @param reader the reader of the file text.
+     * @param checks the FileSetChecks to process the file with.
      * @return a sorted set of messages to be logged.
      * @throws CheckstyleException if error condition within Checkstyle occurs.
      * @noinspection ProhibitedExceptionThrown
      */
-    private SortedSet<LocalizedMessage> processFile(File file) throws CheckstyleException {
+    final SortedSet<LocalizedMessage> processFile(File file, FileTextReader reader,
+            List<FileSetCheck> checks) throws CheckstyleException {
         final SortedSet<LocalizedMessage> fileMessages = new TreeSet<>();
+        final String fileName = file.getAbsolutePath();
         try {
-            final FileText theText = new FileText(file.getAbsoluteFile(), charset);
-            for (final FileSetCheck fsc : fileSetChecks) {
-                fileMessages.addAll(fsc.process(file, theText));
+            if (resultCache != null && resultCache.isProcessed(fileName)) {
+                fileMessages.addAll(resultCache.process(file, reader, checks));
+            }
+            else {
+                final FileText theText = reader.read(file);
+                for (final FileSetCheck fsc : checks) {
+                    fileMessages.addAll(fsc.process(file, theText));
+                }
             }
         }
         catch (final IOException ioe) {
             LOG.debug("IOException occurred.", ioe);
+            // the file is checked again next time instead of reporting the failure
+            if (resultCache != null) {
+                resultCache.remove(fileName);
+            }
             fileMessages.add(new LocalizedMessage(0,
                     Definitions.CHECKSTYLE_BUNDLE, EXCEPTION_MSG,
                     new String[] {ioe.getMessage()}, null, getClass(), null));
@@ -329,6 +546,9 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
             }
 
             LOG.debug("Exception occurred.", ex);
+            if (resultCache != null) {
+                resultCache.remove(fileName);
+            }
 
             final StringWriter sw = new StringWriter();
             final PrintWriter pw = new PrintWriter(sw, true);
@@ -344,15 +564,36 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
     }
 
     /**
-     * Check if all before execution file filters accept starting the file.
+     * Checks if the file should be audited: it has one of the accepted
+     * extensions, all before execution file filters accept it, and it is not
+     * cached yet or its cached violations are to be reported again.
+     * An accepted file, which is not cached, is put to the cache.
      *
-     * @param fileName
+     * @param file
      *            the file to be audited
      * @return {@code true} if the file is accepted.
      */
-    private boolean acceptFileStarted(String fileName) {
-        final String stripped = CommonUtils.relativizeAndNormalizePath(basedir, fileName);
-        return beforeExecutionFileFilters.accept(stripped);
+    final boolean acceptFile(File file) {
+        boolean accepted = acceptFileName(file);
+        if (accepted && resultCache != null) {
+            accepted = resultCache.accept(file);
+        }
+        return accepted;
+    }
+
+    /**
+     * Checks if the file has one of the accepted extensions and all before
+     * execution file filters accept it.
+     *
+     * @param file
+     *            the file to be audited
+     * @return {@code true} if the file is accepted.
+     */
+    private boolean acceptFileName(File file) {
+        final String stripped =
+                CommonUtils.relativizeAndNormalizePath(basedir, file.getAbsolutePath());
+        return CommonUtils.matchesFileExtension(file, fileExtensions)
+                && beforeExecutionFileFilters.accept(stripped);
     }
 
     /**
@@ -372,6 +613,10 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
 
     /**
      * Notify all listeners about the errors in a file.
+     * The errors of a file processed with the cache are already filtered,
+     * except by the filters, which are applied to cached violations.
+     * Other errors of a file, which is cached, are not recorded in the cache,
+     * so the file is checked again next time if the filters accept any of them.
      *
      * @param fileName the audited file
      * @param errors the audit errors from the file
@@ -379,17 +624,25 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
     @Override
     public void fireErrors(String fileName, SortedSet<LocalizedMessage> errors) {
         final String stripped = CommonUtils.relativizeAndNormalizePath(basedir, fileName);
+        final boolean cached = resultCache != null && resultCache.isProcessed(fileName);
         boolean hasNonFilteredViolations = false;
         for (final LocalizedMessage element : errors) {
             final AuditEvent event = new AuditEvent(this, stripped, element);
-            if (filters.accept(event)) {
+            final boolean accepted;
+            if (cached) {
+                accepted = resultCache.isReported(event);
+            }
+            else {
+                accepted = filters.accept(event);
+            }
+            if (accepted) {
                 hasNonFilteredViolations = true;
                 for (final AuditListener listener : listeners) {
                     listener.addError(event);
                 }
             }
         }
-        if (hasNonFilteredViolations && cache != null) {
+        if (hasNonFilteredViolations && resultCache != null && !cached) {
             cache.remove(fileName);
         }
     }
@@ -402,6 +655,9 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
      */
     @Override
     public void fireFileFinished(String fileName) {
+        if (resultCache != null) {
+            resultCache.finish(fileName);
+        }
         final String stripped = CommonUtils.relativizeAndNormalizePath(basedir, fileName);
         final AuditEvent event = new AuditEvent(this, stripped);
         for (final AuditListener listener : listeners) {
@@ -414,6 +670,12 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
         final Locale locale = new Locale(localeLanguage, localeCountry);
         LocalizedMessage.setLocale(locale);
 
+        final Configuration configuration = getConfiguration();
+        if (configuration instanceof DefaultConfiguration) {
+            threadsNumber = ((DefaultConfiguration) configuration).getThreadModeSettings()
+                    .getCheckerThreadsNumber();
+        }
+
         if (moduleFactory == null) {
 
             if (moduleClassLoader == null) {
@@ -445,21 +707,8 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
     protected void setupChild(Configuration childConf)
             throws CheckstyleException {
         final String name = childConf.getName();
-        final Object child;
+        final Object child = createChildModule(childConf);
 
-        try {
-            child = moduleFactory.createModule(name);
-
-            if (child instanceof AutomaticBean) {
-                final AutomaticBean bean = (AutomaticBean) child;
-                bean.contextualize(childContext);
-                bean.configure(childConf);
-            }
-        }
-        catch (final CheckstyleException ex) {
-            throw new CheckstyleException("cannot initialize module " + name
-                    + " - " + ex.getMessage(), ex);
-        }
         if (child instanceof FileSetCheck) {
             final FileSetCheck fsc = (FileSetCheck) child;
             fsc.init();
@@ -483,6 +732,35 @@ public class Checker extends AutomaticBean implements MessageDispatcher, RootMod
         }
     }
 
+    /**
+     * Creates, contextualizes and configures a child module.
+     * @param childConf the configuration of the child module
+     * @return the configured child module
+     * @throws CheckstyleException if the module can not be created or configured
+     */
+    final Object createChildModule(Configuration childConf) throws CheckstyleException {
+        final String name = childConf.getName();
+        final Object child;
+
+        try {
+            child = moduleFactory.createModule(name);
+
+            if (child instanceof AutomaticBean) {
+                final AutomaticBean bean = (AutomaticBean) child;
+                bean.contextualize(childContext);
+                bean.configure(childConf);
+            }
+            if (child instanceof FileSetCheck) {
+                configuredFileSetChecks.put((FileSetCheck) child, childConf);
+            }
+        }
+        catch (final CheckstyleException ex) {
+            throw new CheckstyleException("cannot initialize module " + name
+                    + " - " + ex.getMessage(), ex);
+        }
+        return child;
+    }
+
     /**
      * Adds a FileSetCheck to the list of FileSetChecks
      * that is executed in process().
@@ -0,0 +1,341 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+
+/**
+ * Iterates over the accepted files of the {@link Checker} and reads their texts.
+ * Files are accepted a few steps ahead of their processing. If read ahead is
+ * enabled, texts of the accepted files are read and decoded by a background
+ * thread, while the calling thread runs checks on the previous files.
+ * Exceptions of the filter are thrown when the turn of the failed file comes,
+ * after the previous files are returned.
+ * @author the original author or authors.
+ */
+final class FileTextReader {
+    /** The default number of files, which are read ahead of their processing. */
+    public static final int DEFAULT_READ_AHEAD = 4;
+
+    /** The files to iterate over. */
+    private final Iterator<File> files;
+
+    /** The filter, which accepts files. */
+    private final Predicate<File> filter;
+
+    /** The filter of accepted files, whose texts are read ahead. */
+    private final Predicate<File> textFilter;
+
+    /** The name of a charset. */
+    private final String charset;
+
+    /** The number of files, which are accepted ahead of their processing. */
+    private final int readAhead;
+
+    /** The texts of the files, or {@code null} if the texts are not in memory. */
+    private final Iterator<FileText> loadedTexts;
+
+    /** The accepted files with their texts, which were not returned yet. */
+    private final Queue<AcceptedFile> acceptedFiles = new ArrayDeque<>();
+
+    /** The background thread, or {@code null} if read ahead is disabled. */
+    private final ExecutorService executor;
+
+    /** The last returned file with its text, or {@code null} before the first file. */
+    private AcceptedFile current;
+
+    /** Whether the filter failed to accept the last file in the queue. */
+    private boolean failed;
+
+    /**
+     * Creates a new reader.
+     * @param files the files to iterate over
+     * @param filter the filter, which accepts files
+     * @param textFilter the filter of accepted files, whose texts are read
+     *     ahead; texts of other files are not read unless they are requested
+     * @param charset the name of a charset
+     * @param readAhead the number of files, which are read ahead of their
+     *     processing, or zero to read each file only when it is requested
+     */
+    FileTextReader(Iterator<File> files, Predicate<File> filter, Predicate<File> textFilter,
+            String charset, int readAhead) {
+        this(files, null, filter, textFilter, charset, readAhead);
+    }
+
+    /**
+     * Creates a new reader of texts, which are already in memory.
+     * @param texts the texts to iterate over the files of
+     * @param filter the filter, which accepts files
+     */
+    FileTextReader(Collection<FileText> texts, Predicate<File> filter) {
+        this(texts.stream().map(FileText::getFile).iterator(), texts.iterator(),
+                filter, file -> false, null, 0);
+    }
+
+    /**
+     * Creates a new reader.
+     * @param files the files to iterate over
+     * @param loadedTexts the texts of the files, or {@code null} if the texts
+     *     are not in memory
+     * @param filter the filter, which accepts files
+     * @param textFilter the filter of accepted files, whose texts are read ahead
+     * @param charset the name of a charset
+     * @param readAhead the number of files, which are read ahead of their processing
+     */
+    private FileTextReader(Iterator<File> files, Iterator<FileText> loadedTexts,
+            Predicate<File> filter, Predicate<File> textFilter, String charset, int readAhead) {
+        this.files = files;
+        this.loadedTexts = loadedTexts;
+        this.filter = filter;
+        this.textFilter = textFilter;
+        this.charset = charset;
+        this.readAhead = Math.max(readAhead, 1);
+        if (readAhead > 0) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "FileTextReader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        else {
+            executor = null;
+        }
+    }
+
+    /**
+     * Creates a reader without files to iterate over, which reads each
+     * requested file from the file system. It has no state, so it can be used
+     * by several threads at once.
+     * @param charset the name of a charset
+     * @return the new reader
+     */
+    static FileTextReader createFileSystemReader(String charset) {
+        return new FileTextReader(Collections.emptyIterator(), null,
+            file -> false, file -> false, charset, 0);
+    }
+
+    /**
+     * Checks whether there are more accepted files.
+     * @return {@code true} if there are more accepted files
+     * @throws CheckstyleException if a file can not be accepted
+     */
+    public boolean hasNext() throws CheckstyleException {
+        acceptFiles();
+        final AcceptedFile head = acceptedFiles.peek();
+        if (head != null && head.failure != null) {
+            acceptedFiles.clear();
+            if (head.failure instanceof Error) {
+                throw (Error) head.failure;
+            }
+            throw (CheckstyleException) head.failure;
+        }
+        return head != null;
+    }
+
+    /**
+     * Returns the next accepted file.
+     * @return the next accepted file
+     * @throws CheckstyleException if a file can not be accepted
+     * @throws java.util.NoSuchElementException if there are no more accepted files
+     */
+    public File next() throws CheckstyleException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        current = acceptedFiles.remove();
+        // start reading of the next file before the current one is processed
+        acceptFiles();
+        return current.file;
+    }
+
+    /**
+     * Returns the text of a file. The text of the last returned file is taken
+     * from memory or from the background thread if it was read ahead,
+     * otherwise the file is read by the calling thread.
+     * @param file the file to read
+     * @return the text of the file
+     * @throws IOException if the file can not be read
+     */
+    public FileText read(File file) throws IOException {
+        final AcceptedFile accepted = current;
+        final FileText result;
+        if (accepted == null || accepted.text == null || !accepted.file.equals(file)) {
+            result = new FileText(file.getAbsoluteFile(), charset);
+        }
+        else {
+            result = getText(accepted.text);
+        }
+        return result;
+    }
+
+    /**
+     * Stops the background thread and drops the texts, which were not requested.
+     */
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        acceptedFiles.clear();
+        current = null;
+    }
+
+    /**
+     * Accepts files until enough files are waiting for their processing, and
+     * starts reading of the accepted files in background. A file, which can
+     * not be accepted, is queued with its failure and ends the accepting.
+     */
+    private void acceptFiles() {
+        while (!failed && acceptedFiles.size() < readAhead && files.hasNext()) {
+            final File file = files.next();
+            final FileText loaded;
+            if (loadedTexts == null) {
+                loaded = null;
+            }
+            else {
+                loaded = loadedTexts.next();
+            }
+            try {
+                if (accept(file)) {
+                    acceptedFiles.add(new AcceptedFile(file, startReading(file, loaded), null));
+                }
+            }
+            catch (CheckstyleException | Error ex) {
+                acceptedFiles.add(new AcceptedFile(file, null, ex));
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a file is accepted by the filter.
+     * @param file the file to check
+     * @return {@code true} if the file is accepted
+     * @throws CheckstyleException if the filter throws an exception
+     */
+    private boolean accept(File file) throws CheckstyleException {
+        try {
+            return filter.test(file);
+        }
+        // -@cs[IllegalCatch] There is no other way to deliver filename that was under
+        // processing. See https://github.com/checkstyle/checkstyle/issues/2285
+        catch (Exception ex) {
+            // We need to catch all exceptions to put a reason failure (file name) in exception
+            throw new CheckstyleException("Exception was thrown while processing "
+                    + file.getPath(), ex);
+        }
+        catch (Error error) {
+            // We need to catch all errors to put a reason failure (file name) in error
+            throw new Error("Error was thrown while processing " + file.getPath(), error);
+        }
+    }
+
+    /**
+     * Starts reading of an accepted file in background.
+     * @param file the accepted file
+     * @param loaded the text of the file, or {@code null} if it is not in memory
+     * @return the text being read, or {@code null} if the file is not read ahead
+     */
+    private Future<FileText> startReading(File file, FileText loaded) {
+        final Future<FileText> result;
+        if (loaded != null) {
+            result = CompletableFuture.completedFuture(loaded);
+        }
+        else if (executor != null && textFilter.test(file)) {
+            result = executor.submit(() -> new FileText(file.getAbsoluteFile(), charset));
+        }
+        else {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Waits for a text, which is read in background.
+     * @param text the text being read
+     * @return the text
+     * @throws IOException if the file can not be read or the thread is interrupted
+     */
+    private static FileText getText(Future<FileText> text) throws IOException {
+        try {
+            return text.get();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception =
+                    new InterruptedIOException("Interrupted while reading a file");
+            exception.initCause(ex);
+            throw exception;
+        }
+        catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // FileText can throw only unchecked exceptions besides IOException
+            throw (RuntimeException) cause;
+        }
+    }
+
+    /**
+     * An accepted file with its text, which is in memory or being read ahead.
+     */
+    private static final class AcceptedFile {
+        /** The file. */
+        private final File file;
+
+        /** The text of the file, or {@code null} if it is not read ahead. */
+        private final Future<FileText> text;
+
+        /** The failure to accept the file, or {@code null} if it was accepted. */
+        private final Throwable failure;
+
+        /**
+         * Creates a new accepted file.
+         * @param file the file
+         * @param text the text of the file, or {@code null} if it is not read ahead
+         * @param failure the failure to accept the file, or {@code null}
+         */
+        AcceptedFile(File file, Future<FileText> text, Throwable failure) {
+            this.file = file;
+            this.text = text;
+            this.failure = failure;
+        }
+    }
+}
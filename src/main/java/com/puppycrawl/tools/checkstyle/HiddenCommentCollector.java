@@ -0,0 +1,268 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import antlr.CommonHiddenStreamToken;
+import antlr.Token;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+
+/**
+ * Collects nodes of an AST, which have hidden comment tokens, and appends
+ * comment nodes to the AST. Nodes are collected while {@link TreeWalker}
+ * walks the AST with ordinary checks, so the AST is not traversed once more
+ * just to find comments before the walk with comment checks.
+ * @author the original author or authors.
+ */
+final class HiddenCommentCollector {
+    /** The collected nodes, which have hidden comment tokens before them. */
+    private final List<DetailAST> commentedNodes = new ArrayList<>();
+
+    /** The collected node with the greatest position. */
+    private DetailAST lastNode;
+
+    /**
+     * Appends comment nodes to existing AST.
+     * It traverses each node in AST, looks for hidden comment tokens
+     * and appends found comment tokens as nodes in AST.
+     * @param root
+     *        root of AST.
+     * @return root of AST with comment nodes.
+     */
+    public static DetailAST appendHiddenCommentNodes(DetailAST root) {
+        final HiddenCommentCollector collector = new HiddenCommentCollector();
+        DetailAST curNode = root;
+        while (curNode != null) {
+            collector.collect(curNode);
+            DetailAST toVisit = curNode.getFirstChild();
+            while (curNode != null && toVisit == null) {
+                toVisit = curNode.getNextSibling();
+                if (toVisit == null) {
+                    curNode = curNode.getParent();
+                }
+            }
+            curNode = toVisit;
+        }
+        return collector.appendCommentNodes(root);
+    }
+
+    /**
+     * Collects a node. Nodes must be collected in the order of AST traversal.
+     * @param node the node of AST.
+     */
+    public void collect(DetailAST node) {
+        if (lastNode == null || isPositionGreater(node, lastNode)) {
+            lastNode = node;
+        }
+        if (node.getHiddenBefore() != null) {
+            commentedNodes.add(node);
+        }
+    }
+
+    /**
+     * Appends comment nodes of the collected nodes to AST.
+     * @param root
+     *        root of AST.
+     * @return root of AST with comment nodes.
+     */
+    public DetailAST appendCommentNodes(DetailAST root) {
+        DetailAST result = root;
+        for (DetailAST node : commentedNodes) {
+            CommonHiddenStreamToken tokenBefore = node.getHiddenBefore();
+            DetailAST currentSibling = node;
+            while (tokenBefore != null) {
+                final DetailAST newCommentNode =
+                         createCommentAstFromToken(tokenBefore);
+
+                currentSibling.addPreviousSibling(newCommentNode);
+
+                if (currentSibling == result) {
+                    result = newCommentNode;
+                }
+
+                currentSibling = newCommentNode;
+                tokenBefore = tokenBefore.getHiddenBefore();
+            }
+        }
+        if (lastNode != null) {
+            CommonHiddenStreamToken tokenAfter = lastNode.getHiddenAfter();
+            DetailAST currentSibling = lastNode;
+            while (tokenAfter != null) {
+                final DetailAST newCommentNode =
+                        createCommentAstFromToken(tokenAfter);
+
+                currentSibling.addNextSibling(newCommentNode);
+
+                currentSibling = newCommentNode;
+                tokenAfter = tokenAfter.getHiddenAfter();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if position of first DetailAST is greater than position of
+     * second DetailAST. Position is line number and column number in source
+     * file.
+     * @param ast1
+     *        first DetailAST node.
+     * @param ast2
+     *        second DetailAST node.
+     * @return true if position of ast1 is greater than position of ast2.
+     */
+    private static boolean isPositionGreater(DetailAST ast1, DetailAST ast2) {
+        final boolean isGreater;
+        if (ast1.getLineNo() == ast2.getLineNo()) {
+            isGreater = ast1.getColumnNo() > ast2.getColumnNo();
+        }
+        else {
+            isGreater = ast1.getLineNo() > ast2.getLineNo();
+        }
+        return isGreater;
+    }
+
+    /**
+     * Create comment AST from token. Depending on token type
+     * SINGLE_LINE_COMMENT or BLOCK_COMMENT_BEGIN is created.
+     * @param token
+     *        Token object.
+     * @return DetailAST of comment node.
+     */
+    private static DetailAST createCommentAstFromToken(Token token) {
+        final DetailAST commentAst;
+        if (token.getType() == TokenTypes.SINGLE_LINE_COMMENT) {
+            commentAst = createSlCommentNode(token);
+        }
+        else {
+            commentAst = createBlockCommentNode(token);
+        }
+        return commentAst;
+    }
+
+    /**
+     * Create single-line comment from token.
+     * @param token
+     *        Token object.
+     * @return DetailAST with SINGLE_LINE_COMMENT type.
+     */
+    private static DetailAST createSlCommentNode(Token token) {
+        final DetailAST slComment = new DetailAST();
+        slComment.setType(TokenTypes.SINGLE_LINE_COMMENT);
+        slComment.setText("//");
+
+        // column counting begins from 0
+        slComment.setColumnNo(token.getColumn() - 1);
+        slComment.setLineNo(token.getLine());
+
+        final DetailAST slCommentContent = new DetailAST();
+        slCommentContent.setType(TokenTypes.COMMENT_CONTENT);
+
+        // column counting begins from 0
+        // plus length of '//'
+        slCommentContent.setColumnNo(token.getColumn() - 1 + 2);
+        slCommentContent.setLineNo(token.getLine());
+        slCommentContent.setText(token.getText());
+
+        slComment.addChild(slCommentContent);
+        return slComment;
+    }
+
+    /**
+     * Create block comment from token.
+     * @param token
+     *        Token object.
+     * @return DetailAST with BLOCK_COMMENT type.
+     */
+    private static DetailAST createBlockCommentNode(Token token) {
+        final DetailAST blockComment = new DetailAST();
+        blockComment.initialize(TokenTypes.BLOCK_COMMENT_BEGIN, "/*");
+
+        // column counting begins from 0
+        blockComment.setColumnNo(token.getColumn() - 1);
+        blockComment.setLineNo(token.getLine());
+
+        final DetailAST blockCommentContent = new DetailAST();
+        blockCommentContent.setType(TokenTypes.COMMENT_CONTENT);
+
+        // column counting begins from 0
+        // plus length of '/*'
+        blockCommentContent.setColumnNo(token.getColumn() - 1 + 2);
+        blockCommentContent.setLineNo(token.getLine());
+        blockCommentContent.setText(token.getText());
+
+        final DetailAST blockCommentClose = new DetailAST();
+        blockCommentClose.initialize(TokenTypes.BLOCK_COMMENT_END, "*/");
+
+        final Entry<Integer, Integer> linesColumns = countLinesColumns(
+                token.getText(), token.getLine(), token.getColumn());
+        blockCommentClose.setLineNo(linesColumns.getKey());
+        blockCommentClose.setColumnNo(linesColumns.getValue());
+
+        blockComment.addChild(blockCommentContent);
+        blockComment.addChild(blockCommentClose);
+        return blockComment;
+    }
+
+    /**
+     * Count lines and columns (in last line) in text.
+     * @param text
+     *        String.
+     * @param initialLinesCnt
+     *        initial value of lines counter.
+     * @param initialColumnsCnt
+     *        initial value of columns counter.
+     * @return entry(pair), first element is lines counter, second - columns
+     *         counter.
+     */
+    private static Entry<Integer, Integer> countLinesColumns(
+            String text, int initialLinesCnt, int initialColumnsCnt) {
+        int lines = initialLinesCnt;
+        int columns = initialColumnsCnt;
+        boolean foundCr = false;
+        for (char c : text.toCharArray()) {
+            if (c == '\n') {
+                foundCr = false;
+                lines++;
+                columns = 0;
+            }
+            else {
+                if (foundCr) {
+                    foundCr = false;
+                    lines++;
+                    columns = 0;
+                }
+                if (c == '\r') {
+                    foundCr = true;
+                }
+                columns++;
+            }
+        }
+        if (foundCr) {
+            lines++;
+            columns = 0;
+        }
+        return new SimpleEntry<>(lines, columns);
+    }
+}
@@ -25,10 +25,26 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Filter;
 import java.util.logging.Level;
@@ -166,6 +182,9 @@ public final class Main {
     /** A string value of 1. */
     private static final String ONE_STRING_VALUE = "1";
 
+    /** The number of files, which are enough to validate the command line. */
+    private static final int FIRST_FILES_NUMBER = 2;
+
     /** Don't create instance of this class, use {@link #main(String[])} method instead. */
     private Main() {
     }
@@ -195,11 +214,13 @@ public final class Main {
                 exitStatus = 0;
             }
             else {
-                final List<File> filesToProcess = getFilesToProcess(getExclusions(commandLine),
+                final Iterator<File> filesToProcess = getFilesToProcess(
+                        getExclusions(commandLine), getDiscoveryThreadsNumber(commandLine),
                         commandLine.getArgs());
+                final List<File> firstFiles = getFirstFiles(filesToProcess);
 
                 // return error if something is wrong in arguments
-                final List<String> messages = validateCli(commandLine, filesToProcess);
+                final List<String> messages = validateCli(commandLine, firstFiles);
                 cliViolations = !messages.isEmpty();
                 if (cliViolations) {
                     exitStatus = exitWithCliViolation;
@@ -207,7 +228,7 @@ public final class Main {
                     messages.forEach(System.out::println);
                 }
                 else {
-                    errorCounter = runCli(commandLine, filesToProcess);
+                    errorCounter = runCli(commandLine, concat(firstFiles, filesToProcess));
                     exitStatus = errorCounter;
                 }
             }
@@ -281,10 +302,69 @@ public final class Main {
         return result;
     }
 
+    /**
+     * Gets the number of threads to discover files with, which is the number
+     * of Checker threads. Invalid numbers are reported by {@link #validateCli},
+     * so they result in a single thread here.
+     * @param commandLine command line object
+     * @return the number of threads to discover files with
+     */
+    private static int getDiscoveryThreadsNumber(CommandLine commandLine) {
+        final String threadsNumber =
+                commandLine.getOptionValue(OPTION_CAPITAL_C_NAME, ONE_STRING_VALUE);
+        int result = 1;
+        if (CommonUtils.isInt(threadsNumber)) {
+            result = Integer.parseInt(threadsNumber);
+        }
+        return result;
+    }
+
+    /**
+     * Takes the first files to process, which are enough to validate the
+     * command line. Other files are discovered while they are processed.
+     * @param filesToProcess files to process found from the command line.
+     * @return at most two first files to process.
+     */
+    private static List<File> getFirstFiles(Iterator<File> filesToProcess) {
+        final List<File> result = new ArrayList<>();
+        while (result.size() < FIRST_FILES_NUMBER && filesToProcess.hasNext()) {
+            result.add(filesToProcess.next());
+        }
+        return result;
+    }
+
+    /**
+     * Joins the first files to process with the other ones.
+     * @param firstFiles the first files to process.
+     * @param otherFiles the files to process after the first ones.
+     * @return all files to process.
+     */
+    private static Iterator<File> concat(List<File> firstFiles, Iterator<File> otherFiles) {
+        final Iterator<File> first = firstFiles.iterator();
+        return new Iterator<File>() {
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || otherFiles.hasNext();
+            }
+
+            @Override
+            public File next() {
+                final File result;
+                if (first.hasNext()) {
+                    result = first.next();
+                }
+                else {
+                    result = otherFiles.next();
+                }
+                return result;
+            }
+        };
+    }
+
     /**
      * Do validation of Command line options.
      * @param cmdLine command line object
-     * @param filesToProcess List of files to process found from the command line.
+     * @param filesToProcess First files to process found from the command line.
      * @return list of violations
      */
     // -@cs[CyclomaticComplexity] Breaking apart will damage encapsulation
@@ -377,12 +457,12 @@ public final class Main {
     /**
      * Do execution of CheckStyle based on Command line options.
      * @param commandLine command line object
-     * @param filesToProcess List of files to process found from the command line.
+     * @param filesToProcess Files to process found from the command line.
      * @return number of violations
      * @throws IOException if a file could not be read.
      * @throws CheckstyleException if something happens processing the files.
      */
-    private static int runCli(CommandLine commandLine, List<File> filesToProcess)
+    private static int runCli(CommandLine commandLine, Iterator<File> filesToProcess)
             throws IOException, CheckstyleException {
         int result = 0;
 
@@ -390,24 +470,24 @@ public final class Main {
         final CliOptions config = convertCliToPojo(commandLine, filesToProcess);
         if (commandLine.hasOption(OPTION_T_NAME)) {
             // print AST
-            final File file = config.files.get(0);
+            final File file = config.files.next();
             final String stringAst = AstTreeStringPrinter.printFileAst(file,
                     AstTreeStringPrinter.PrintOptions.WITHOUT_COMMENTS);
             System.out.print(stringAst);
         }
         else if (commandLine.hasOption(OPTION_CAPITAL_T_NAME)) {
-            final File file = config.files.get(0);
+            final File file = config.files.next();
             final String stringAst = AstTreeStringPrinter.printFileAst(file,
                     AstTreeStringPrinter.PrintOptions.WITH_COMMENTS);
             System.out.print(stringAst);
         }
         else if (commandLine.hasOption(OPTION_J_NAME)) {
-            final File file = config.files.get(0);
+            final File file = config.files.next();
             final String stringAst = DetailNodeTreeStringPrinter.printFileAst(file);
             System.out.print(stringAst);
         }
         else if (commandLine.hasOption(OPTION_CAPITAL_J_NAME)) {
-            final File file = config.files.get(0);
+            final File file = config.files.next();
             final String stringAst = AstTreeStringPrinter.printJavaAndJavadocTree(file);
             System.out.print(stringAst);
         }
@@ -443,10 +523,11 @@ public final class Main {
     /**
      * Util method to convert CommandLine type to POJO object.
      * @param cmdLine command line object
-     * @param filesToProcess List of files to process found from the command line.
+     * @param filesToProcess Files to process found from the command line.
      * @return command line option as POJO object
      */
-    private static CliOptions convertCliToPojo(CommandLine cmdLine, List<File> filesToProcess) {
+    private static CliOptions convertCliToPojo(CommandLine cmdLine,
+            Iterator<File> filesToProcess) {
         final CliOptions conf = new CliOptions();
         conf.format = cmdLine.getOptionValue(OPTION_F_NAME);
         if (conf.format == null) {
@@ -628,45 +709,56 @@ public final class Main {
     }
 
     /**
-     * Determines the files to process.
+     * Determines the files to process. Files are discovered lazily, while they
+     * are processed, unless several threads are requested. In that case
+     * directories are traversed in parallel before files are processed.
      * @param patternsToExclude The list of directory patterns to exclude from searching.
+     * @param threadsNumber the number of threads to traverse directories with
      * @param filesToProcess
      *        arguments that were not processed yet but shall be
-     * @return list of files to process
+     * @return files to process
      */
-    private static List<File> getFilesToProcess(List<Pattern> patternsToExclude,
-            String... filesToProcess) {
-        final List<File> files = new LinkedList<>();
-        for (String element : filesToProcess) {
-            files.addAll(listFiles(new File(element), patternsToExclude));
+    private static Iterator<File> getFilesToProcess(List<Pattern> patternsToExclude,
+            int threadsNumber, String... filesToProcess) {
+        final Iterator<File> result;
+        if (threadsNumber > 1) {
+            final List<File> files = new ArrayList<>();
+            for (String element : filesToProcess) {
+                files.addAll(listFiles(new File(element), patternsToExclude, threadsNumber));
+            }
+            result = files.iterator();
         }
-
-        return files;
+        else {
+            result = new FileListing(Arrays.asList(filesToProcess).iterator(),
+                    patternsToExclude);
+        }
+        return result;
     }
 
     /**
-     * Traverses a specified node looking for files to check. Found files are added to a specified
-     * list. Subdirectories are also traversed.
+     * Traverses a specified node looking for files to check. Subdirectories are
+     * traversed in parallel, unless they are excluded, so excluded trees are
+     * never listed. Attributes of each file are read once, while its directory
+     * is listed.
      * @param node
      *        the node to process
      * @param patternsToExclude The list of directory patterns to exclude from searching.
+     * @param threadsNumber the number of threads to traverse directories with
      * @return found files
      */
-    private static List<File> listFiles(File node, List<Pattern> patternsToExclude) {
-        // could be replaced with org.apache.commons.io.FileUtils.list() method
-        // if only we add commons-io library
-        final List<File> result = new LinkedList<>();
+    private static List<File> listFiles(File node, List<Pattern> patternsToExclude,
+            int threadsNumber) {
+        final List<File> result = new ArrayList<>();
 
         if (node.canRead()) {
             if (node.isDirectory()) {
-                if (!isDirectoryExcluded(node.getAbsolutePath(), patternsToExclude)) {
-                    final File[] files = node.listFiles();
-                    // listFiles() can return null, so we need to check it
-                    if (files != null) {
-                        for (File element : files) {
-                            result.addAll(listFiles(element, patternsToExclude));
-                        }
-                    }
+                final ForkJoinPool pool = new ForkJoinPool(threadsNumber);
+                try {
+                    result.addAll(pool.invoke(new DirectoryListingTask(node.toPath(),
+                            patternsToExclude, ConcurrentHashMap.newKeySet())));
+                }
+                finally {
+                    pool.shutdown();
                 }
             }
             else if (node.isFile()) {
@@ -676,6 +768,35 @@ public final class Main {
         return result;
     }
 
+    /**
+     * Checks that a directory was not listed yet, and marks it as listed.
+     * Each directory is listed once, so links do not create cycles.
+     * @param listedDirectories the keys of directories, which were listed
+     * @param attributes the attributes of the directory
+     * @return whether the directory was not listed yet
+     */
+    private static boolean isNotListed(Set<Object> listedDirectories,
+            BasicFileAttributes attributes) {
+        final Object key = attributes.fileKey();
+        return key == null || listedDirectories.add(key);
+    }
+
+    /**
+     * Reads the attributes of a file following links.
+     * @param file the file
+     * @return the attributes, or {@code null} if they can not be read
+     */
+    private static BasicFileAttributes readAttributes(Path file) {
+        BasicFileAttributes result = null;
+        try {
+            result = Files.readAttributes(file, BasicFileAttributes.class);
+        }
+        catch (IOException ignored) {
+            // broken links and files removed during the walk are skipped
+        }
+        return result;
+    }
+
     /**
      * Checks if a directory {@code path} should be excluded based on if it matches one of the
      * patterns supplied.
@@ -740,6 +861,223 @@ public final class Main {
         return options;
     }
 
+    /**
+     * Lists files of nodes lazily, so files are processed while directories
+     * are still being traversed, and only open directories are kept in memory.
+     * Excluded directories are not listed. Directories, which can not be read,
+     * are skipped.
+     */
+    private static final class FileListing implements Iterator<File> {
+        /** The nodes to list. */
+        private final Iterator<String> nodes;
+        /** The list of directory patterns to exclude from searching. */
+        private final List<Pattern> patternsToExclude;
+        /** The keys of directories, which were listed. */
+        private final Set<Object> listedDirectories = new HashSet<>();
+        /** Open directories, the innermost first. */
+        private final Deque<DirectoryStream<Path>> directories = new ArrayDeque<>();
+        /** Entries of open directories, the innermost first. */
+        private final Deque<Iterator<Path>> entries = new ArrayDeque<>();
+        /** The next file, or {@code null} if it is not found yet. */
+        private File nextFile;
+
+        /**
+         * Creates a new listing.
+         * @param nodes the nodes to list
+         * @param patternsToExclude The list of directory patterns to exclude from searching.
+         */
+        FileListing(Iterator<String> nodes, List<Pattern> patternsToExclude) {
+            this.nodes = nodes;
+            this.patternsToExclude = patternsToExclude;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextFile == null && (!entries.isEmpty() || nodes.hasNext())) {
+                if (entries.isEmpty()) {
+                    addNode(new File(nodes.next()));
+                }
+                else {
+                    addEntry(getNextEntry());
+                }
+            }
+            return nextFile != null;
+        }
+
+        @Override
+        public File next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final File result = nextFile;
+            nextFile = null;
+            return result;
+        }
+
+        /**
+         * Takes a node given in the command line.
+         * @param node the node
+         */
+        private void addNode(File node) {
+            if (node.canRead()) {
+                if (node.isDirectory()) {
+                    openDirectory(node.toPath(), readAttributes(node.toPath()));
+                }
+                else if (node.isFile()) {
+                    nextFile = node;
+                }
+            }
+        }
+
+        /**
+         * Takes an entry of a directory.
+         * @param entry the entry, or {@code null} if the directory is finished
+         */
+        private void addEntry(Path entry) {
+            if (entry != null) {
+                final BasicFileAttributes attributes = readAttributes(entry);
+                if (attributes != null && attributes.isDirectory()) {
+                    openDirectory(entry, attributes);
+                }
+                else if (attributes != null && attributes.isRegularFile()) {
+                    nextFile = entry.toFile();
+                }
+            }
+        }
+
+        /**
+         * Returns the next entry of the innermost open directory, and closes
+         * the directory if it is finished.
+         * @return the next entry, or {@code null} if the directory is finished
+         */
+        private Path getNextEntry() {
+            Path result = null;
+            try {
+                if (entries.peek().hasNext()) {
+                    result = entries.peek().next();
+                }
+            }
+            catch (DirectoryIteratorException ignored) {
+                // the rest of the directory is skipped as by File.listFiles
+            }
+            if (result == null) {
+                entries.pop();
+                closeDirectory(directories.pop());
+            }
+            return result;
+        }
+
+        /**
+         * Opens a directory, unless it is excluded or was listed.
+         * @param directory the directory
+         * @param attributes the attributes of the directory, or {@code null}
+         */
+        private void openDirectory(Path directory, BasicFileAttributes attributes) {
+            if (attributes != null && isNotListed(listedDirectories, attributes)
+                    && !isDirectoryExcluded(directory.toAbsolutePath().toString(),
+                            patternsToExclude)) {
+                try {
+                    final DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+                    directories.push(stream);
+                    entries.push(stream.iterator());
+                }
+                catch (IOException ignored) {
+                    // the directory is skipped as by File.listFiles
+                }
+            }
+        }
+
+        /**
+         * Closes a finished directory.
+         * @param directory the directory
+         */
+        private static void closeDirectory(DirectoryStream<Path> directory) {
+            try {
+                directory.close();
+            }
+            catch (IOException ignored) {
+                // the directory was read already
+            }
+        }
+    }
+
+    /**
+     * Lists files of a directory, and forks tasks for its subdirectories, which
+     * are not excluded. Files are returned in the same order as they are found
+     * by {@link FileListing}. Directories, which can not be read, are skipped.
+     */
+    private static final class DirectoryListingTask extends RecursiveTask<List<File>> {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The directory to list. */
+        private final transient Path directory;
+        /** The list of directory patterns to exclude from searching. */
+        private final transient List<Pattern> patternsToExclude;
+        /** The keys of directories, which were listed by any task. */
+        private final transient Set<Object> listedDirectories;
+
+        /**
+         * Creates a new task.
+         * @param directory the directory to list
+         * @param patternsToExclude The list of directory patterns to exclude from searching.
+         * @param listedDirectories the keys of directories, which were listed by any task
+         */
+        DirectoryListingTask(Path directory, List<Pattern> patternsToExclude,
+                Set<Object> listedDirectories) {
+            this.directory = directory;
+            this.patternsToExclude = patternsToExclude;
+            this.listedDirectories = listedDirectories;
+        }
+
+        @Override
+        protected List<File> compute() {
+            final List<Supplier<List<File>>> parts = new ArrayList<>();
+            final BasicFileAttributes attributes = readAttributes(directory);
+            if (attributes != null && isNotListed(listedDirectories, attributes)
+                    && !isDirectoryExcluded(directory.toAbsolutePath().toString(),
+                            patternsToExclude)) {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                    for (Path entry : entries) {
+                        parts.add(getPart(entry));
+                    }
+                }
+                catch (IOException | DirectoryIteratorException ignored) {
+                    // the directory is skipped as by File.listFiles
+                }
+            }
+            final List<File> result = new ArrayList<>();
+            for (Supplier<List<File>> part : parts) {
+                result.addAll(part.get());
+            }
+            return result;
+        }
+
+        /**
+         * Gets found files of an entry of the directory, forking a task for a
+         * subdirectory.
+         * @param entry the entry of the directory
+         * @return the supplier of found files
+         */
+        private Supplier<List<File>> getPart(Path entry) {
+            final Supplier<List<File>> result;
+            final BasicFileAttributes attributes = readAttributes(entry);
+            if (attributes != null && attributes.isDirectory()) {
+                final DirectoryListingTask task =
+                        new DirectoryListingTask(entry, patternsToExclude, listedDirectories);
+                task.fork();
+                result = task::join;
+            }
+            else if (attributes != null && attributes.isRegularFile()) {
+                final List<File> file = Collections.singletonList(entry.toFile());
+                result = () -> file;
+            }
+            else {
+                result = Collections::emptyList;
+            }
+            return result;
+        }
+    }
+
     /** Helper structure to clear show what is required for Checker to run. **/
     private static class CliOptions {
         /** Properties file location. */
@@ -750,8 +1088,8 @@ public final class Main {
         private String format;
         /** Output file location. */
         private String outputLocation;
-        /** List of file to validate. */
-        private List<File> files;
+        /** Files to validate. */
+        private Iterator<File> files;
         /** Switch whether to execute ignored modules or not. */
         private boolean executeIgnoredModules;
         /** The checker threads number. */
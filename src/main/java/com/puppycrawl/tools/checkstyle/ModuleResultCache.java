@@ -0,0 +1,538 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.Filter;
+import com.puppycrawl.tools.checkstyle.api.FilterSet;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
+
+/**
+ * Caches violations of files per module, so after a change of the configuration
+ * only the modules, which configurations are changed, check unchanged files
+ * again, and the violations of other modules are taken from the cache.
+ * <p>
+ * A module is a check of {@link TreeWalker} or another {@link FileSetCheck}.
+ * It is identified by a fingerprint of its configuration and of the
+ * configurations, which its violations depend on: the configuration of its
+ * TreeWalker without other checks, and the configurations of filters and
+ * listeners of {@link Checker}. The fingerprint also includes the hashes of
+ * the external resources of the module, so a changed resource invalidates
+ * only the violations of the modules, which depend on it.
+ * </p>
+ * <p>
+ * The violations are cached after filters are applied, because filters may
+ * depend on the state of checks, which are not run when the violations are
+ * taken from the cache. Filters, which depend on external resources, are
+ * applied to the cached violations on each run instead, so a change of the
+ * resources does not invalidate the violations.
+ * </p>
+ * <p>
+ * Fileset checks annotated with {@link GlobalStatefulCheck} compare files with
+ * each other, so they must see every file. They are not cached: they check
+ * each file on each run, and the other modules are taken from the cache.
+ * </p>
+ * <p>
+ * Violations of modules, which are not known for a file, are also looked up
+ * in a {@link ModuleResultStore} by the content of the file, if a store is
+ * set, and the violations found by modules are written to it.
+ * </p>
+ * @author the original author or authors.
+ */
+final class ModuleResultCache {
+    /** The cache of files. */
+    private final PropertyCacheFile cache;
+
+    /** The configurations of fileset checks mapped from the checks. */
+    private final Map<FileSetCheck, Configuration> configurations;
+
+    /** Filters, which are applied to violations before they are cached. */
+    private final FilterSet cachedFilters = new FilterSet();
+
+    /** Filters, which are applied to cached violations on each run. */
+    private final FilterSet replayedFilters = new FilterSet();
+
+    /** The store of violations addressed by content of files, or {@code null}. */
+    private final ModuleResultStore store;
+
+    /** Creates events from absolute names of files and violations. */
+    private final BiFunction<String, LocalizedMessage, AuditEvent> events;
+
+    /**
+     * Fingerprints of modules mapped from their configurations, or from the
+     * classes of fileset checks, which have no configurations.
+     */
+    private final Map<Object, String> fingerprints = new HashMap<>();
+
+    /** The fingerprints of all modules. */
+    private final Set<String> moduleFingerprints;
+
+    /** Whether some fileset checks are not cached, because they are global. */
+    private final boolean globalChecks;
+
+    /**
+     * Violations of modules, which are known, of files being processed,
+     * mapped from the absolute names of the files.
+     */
+    private final Map<String, Map<String, SortedSet<LocalizedMessage>>> files =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new cache.
+     * @param cache the cache of files.
+     * @param checkerConfiguration the configuration of Checker, or {@code null}.
+     * @param fileSetChecks the fileset checks of Checker.
+     * @param configurations the configurations of fileset checks mapped from
+     *     the checks, they are looked up as checks are processed, so copies of
+     *     the checks may be added later.
+     * @param filters the filters of Checker.
+     * @param events creates events from absolute names of files and violations.
+     * @param store the store of violations addressed by content of files, or {@code null}.
+     */
+    ModuleResultCache(PropertyCacheFile cache, Configuration checkerConfiguration,
+            List<FileSetCheck> fileSetChecks, Map<FileSetCheck, Configuration> configurations,
+            FilterSet filters, BiFunction<String, LocalizedMessage, AuditEvent> events,
+            ModuleResultStore store) {
+        this.cache = cache;
+        this.configurations = configurations;
+        this.events = events;
+        this.store = store;
+        for (Filter filter : filters.getFilters()) {
+            if (filter instanceof ExternalResourceHolder) {
+                replayedFilters.addFilter(filter);
+            }
+            else {
+                cachedFilters.addFilter(filter);
+            }
+        }
+
+        final ArrayList<Serializable> shared = new ArrayList<>();
+        if (checkerConfiguration != null) {
+            final Collection<Configuration> moduleConfigurations = configurations.values();
+            for (Configuration child : checkerConfiguration.getChildren()) {
+                if (!moduleConfigurations.contains(child)) {
+                    shared.add(child);
+                }
+            }
+        }
+        boolean global = false;
+        for (FileSetCheck fileSetCheck : fileSetChecks) {
+            final Configuration configuration = configurations.get(fileSetCheck);
+            if (isGlobal(fileSetCheck)) {
+                global = true;
+            }
+            else if (fileSetCheck instanceof TreeWalker) {
+                final TreeWalker walker = (TreeWalker) fileSetCheck;
+                final Collection<Configuration> checks = walker.getCheckConfigurations();
+                final Serializable treeWalker = getModule(fileSetCheck,
+                        copyConfiguration(configuration, child -> !checks.contains(child)));
+                for (Configuration check : checks) {
+                    fingerprints.put(check, getFingerprint(shared, treeWalker, check,
+                            getResources(walker.getExternalResourceLocations(check))));
+                }
+            }
+            else {
+                fingerprints.put(getKey(fileSetCheck),
+                        getFingerprint(shared, getModule(fileSetCheck, configuration),
+                                getResources(CommonUtils.getExternalResourceLocations(
+                                        Collections.singleton(fileSetCheck)))));
+            }
+        }
+        globalChecks = global;
+        moduleFingerprints = new HashSet<>(fingerprints.values());
+        cache.setModules(moduleFingerprints);
+    }
+
+    /**
+     * Checks whether a fileset check is global, so it is not cached.
+     * @param fileSetCheck the fileset check.
+     * @return {@code true} if the check is annotated with {@link GlobalStatefulCheck}.
+     */
+    private static boolean isGlobal(FileSetCheck fileSetCheck) {
+        return fileSetCheck.getClass().isAnnotationPresent(GlobalStatefulCheck.class);
+    }
+
+    /**
+     * Copies a configuration with some of its children.
+     * @param configuration the configuration to copy, or {@code null}.
+     * @param isChildCopied decides which children are copied.
+     * @return the copy, or {@code null} if the configuration is {@code null}.
+     */
+    public static Configuration copyConfiguration(Configuration configuration,
+            Predicate<Configuration> isChildCopied) {
+        DefaultConfiguration copy = null;
+        if (configuration != null) {
+            if (configuration instanceof DefaultConfiguration) {
+                copy = new DefaultConfiguration(configuration.getName(),
+                        ((DefaultConfiguration) configuration).getThreadModeSettings());
+            }
+            else {
+                copy = new DefaultConfiguration(configuration.getName());
+            }
+            try {
+                for (String name : configuration.getAttributeNames()) {
+                    copy.addAttribute(name, configuration.getAttribute(name));
+                }
+            }
+            catch (CheckstyleException ex) {
+                throw new IllegalStateException("Unable to copy configuration.", ex);
+            }
+            for (Map.Entry<String, String> message : configuration.getMessages().entrySet()) {
+                copy.addMessage(message.getKey(), message.getValue());
+            }
+            for (Configuration child : configuration.getChildren()) {
+                if (isChildCopied.test(child)) {
+                    copy.addChild(child);
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Checks whether a file, which is accepted by extensions and filters, has to
+     * be processed. An unchanged file has not to be processed if all modules
+     * found no violations in it and there are no global checks. A changed file
+     * is put to the cache, and all modules check it again.
+     * @param file the file.
+     * @return {@code true} if the file has to be processed.
+     */
+    public boolean accept(File file) {
+        final String fileName = file.getAbsolutePath();
+        Map<String, SortedSet<LocalizedMessage>> violations = null;
+        if (cache.isInCache(file)) {
+            violations = cache.getViolations(fileName);
+        }
+        final boolean accepted;
+        if (violations == null) {
+            cache.put(file);
+            violations = new HashMap<>();
+            accepted = true;
+        }
+        else {
+            violations.keySet().retainAll(moduleFingerprints);
+            accepted = globalChecks || violations.size() < moduleFingerprints.size()
+                || violations.values().stream().anyMatch(messages -> !messages.isEmpty());
+        }
+        if (accepted) {
+            files.put(fileName, violations);
+        }
+        return accepted;
+    }
+
+    /**
+     * Checks whether a cached violation is reported: the filters, which are
+     * applied to cached violations on each run, accept it.
+     * @param event the event of the violation.
+     * @return {@code true} if the violation is reported.
+     */
+    public boolean isReported(AuditEvent event) {
+        return replayedFilters.accept(event);
+    }
+
+    /**
+     * Checks whether a file is being processed with the cache, so its
+     * violations are taken from the cache.
+     * @param fileName the absolute name of the file.
+     * @return {@code true} if the file is being processed.
+     */
+    public boolean isProcessed(String fileName) {
+        return files.containsKey(fileName);
+    }
+
+    /**
+     * Checks whether the violations of all modules are known for a file being
+     * processed, so the file is not read. A changed file is always read, so
+     * the errors of reading it are reported. Global checks read each file.
+     * @param file the file.
+     * @return {@code true} if the violations of all modules are known.
+     */
+    public boolean isCached(File file) {
+        final Map<String, SortedSet<LocalizedMessage>> violations =
+                files.get(file.getAbsolutePath());
+        return !globalChecks && violations != null && !violations.isEmpty()
+                && violations.size() == moduleFingerprints.size();
+    }
+
+    /**
+     * Processes a file being processed with the given fileset checks. Only the
+     * modules, which violations are not known and are not found in the store,
+     * and global checks check the file. Their violations are filtered, and
+     * the violations of modules are put to the cache.
+     * @param file the file.
+     * @param reader the reader of the file text.
+     * @param fileSetChecks the fileset checks.
+     * @return the filtered violations of the fileset checks.
+     * @throws IOException if the file can not be read.
+     * @throws CheckstyleException if error condition within Checkstyle occurs.
+     */
+    public SortedSet<LocalizedMessage> process(File file, FileTextReader reader,
+            List<FileSetCheck> fileSetChecks) throws IOException, CheckstyleException {
+        final String fileName = file.getAbsolutePath();
+        final Map<String, SortedSet<LocalizedMessage>> violations = files.get(fileName);
+        FileText text = null;
+        if (globalChecks || violations.isEmpty()
+                || store != null && !violations.keySet().containsAll(moduleFingerprints)) {
+            text = reader.read(file);
+        }
+        final String fileKey = restore(fileName, text, violations);
+        final Map<String, SortedSet<LocalizedMessage>> checkViolations =
+                check(file, reader, text, fileSetChecks, violations.keySet());
+        for (Map.Entry<String, SortedSet<LocalizedMessage>> entry : checkViolations.entrySet()) {
+            final SortedSet<LocalizedMessage> accepted = filter(fileName, entry.getValue());
+            violations.put(entry.getKey(), accepted);
+            if (fileKey != null) {
+                store.put(fileKey, entry.getKey(), accepted);
+            }
+        }
+        if ((fileKey != null || !checkViolations.isEmpty())
+                && violations.keySet().containsAll(moduleFingerprints)) {
+            cache.putViolations(fileName, violations);
+        }
+        final SortedSet<LocalizedMessage> result = collect(fileSetChecks, violations);
+        result.addAll(checkGlobal(file, text, fileSetChecks));
+        return result;
+    }
+
+    /**
+     * Checks a file with the global checks, which are not cached.
+     * @param file the file.
+     * @param text the text of the file, it is read if there are global checks.
+     * @param fileSetChecks the fileset checks.
+     * @return the filtered violations of the global checks.
+     * @throws CheckstyleException if error condition within Checkstyle occurs.
+     */
+    private SortedSet<LocalizedMessage> checkGlobal(File file, FileText text,
+            List<FileSetCheck> fileSetChecks) throws CheckstyleException {
+        final SortedSet<LocalizedMessage> violations = new TreeSet<>();
+        for (FileSetCheck fileSetCheck : fileSetChecks) {
+            if (isGlobal(fileSetCheck)) {
+                violations.addAll(fileSetCheck.process(file, text));
+            }
+        }
+        return filter(file.getAbsolutePath(), violations);
+    }
+
+    /**
+     * Applies the filters, which are applied to violations before they are cached.
+     * @param fileName the absolute name of the file.
+     * @param messages the violations to filter.
+     * @return the accepted violations.
+     */
+    private SortedSet<LocalizedMessage> filter(String fileName,
+            SortedSet<LocalizedMessage> messages) {
+        final SortedSet<LocalizedMessage> accepted = new TreeSet<>();
+        messages.stream()
+                .filter(message -> cachedFilters.accept(events.apply(fileName, message)))
+                .forEach(accepted::add);
+        return accepted;
+    }
+
+    /**
+     * Collects the violations of fileset checks and of their checks.
+     * @param fileSetChecks the fileset checks.
+     * @param violations the violations mapped from the fingerprints of modules.
+     * @return the violations of the fileset checks.
+     */
+    private SortedSet<LocalizedMessage> collect(List<FileSetCheck> fileSetChecks,
+            Map<String, SortedSet<LocalizedMessage>> violations) {
+        final SortedSet<LocalizedMessage> result = new TreeSet<>();
+        for (FileSetCheck fileSetCheck : fileSetChecks) {
+            if (fileSetCheck instanceof TreeWalker) {
+                for (Configuration check : ((TreeWalker) fileSetCheck).getCheckConfigurations()) {
+                    result.addAll(violations.get(fingerprints.get(check)));
+                }
+            }
+            else if (!isGlobal(fileSetCheck)) {
+                result.addAll(violations.get(fingerprints.get(getKey(fileSetCheck))));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Restores the violations of modules, which are not known, from the store.
+     * @param fileName the absolute name of the file.
+     * @param text the text of the file, or {@code null} if it is not read.
+     * @param violations the known violations mapped from the fingerprints of
+     *     modules, the restored violations are added to them.
+     * @return the key of the file in the store, or {@code null} if there is
+     *     no store or the file is not read.
+     */
+    private String restore(String fileName, FileText text,
+            Map<String, SortedSet<LocalizedMessage>> violations) {
+        String fileKey = null;
+        if (store != null && text != null) {
+            fileKey = store.getFileKey(fileName, text);
+            for (String fingerprint : moduleFingerprints) {
+                if (!violations.containsKey(fingerprint)) {
+                    final SortedSet<LocalizedMessage> stored = store.get(fileKey, fingerprint);
+                    if (stored != null) {
+                        violations.put(fingerprint, stored);
+                    }
+                }
+            }
+        }
+        return fileKey;
+    }
+
+    /**
+     * Checks a file with the modules, which violations are not known yet.
+     * The file is read only if some module checks it.
+     * @param file the file.
+     * @param reader the reader of the file text.
+     * @param fileText the text of the file, or {@code null} if it is not read yet.
+     * @param fileSetChecks the fileset checks.
+     * @param known the fingerprints of modules, which violations are known.
+     * @return the violations, which are not filtered yet, mapped from the
+     *     fingerprints of the modules, which checked the file.
+     * @throws IOException if the file can not be read.
+     * @throws CheckstyleException if error condition within Checkstyle occurs.
+     */
+    private Map<String, SortedSet<LocalizedMessage>> check(File file, FileTextReader reader,
+            FileText fileText, List<FileSetCheck> fileSetChecks, Set<String> known)
+            throws IOException, CheckstyleException {
+        final Map<String, SortedSet<LocalizedMessage>> checkViolations = new HashMap<>();
+        FileText text = fileText;
+        for (FileSetCheck fileSetCheck : fileSetChecks) {
+            if (fileSetCheck instanceof TreeWalker) {
+                final TreeWalker treeWalker = (TreeWalker) fileSetCheck;
+                final Set<Configuration> checks = new HashSet<>();
+                for (Configuration check : treeWalker.getCheckConfigurations()) {
+                    if (!known.contains(fingerprints.get(check))) {
+                        checks.add(check);
+                    }
+                }
+                if (!checks.isEmpty()) {
+                    if (text == null) {
+                        text = reader.read(file);
+                    }
+                    treeWalker.processChecks(file, text, checks).forEach((check, messages) -> {
+                        checkViolations.put(fingerprints.get(check), messages);
+                    });
+                }
+            }
+            else {
+                final String fingerprint = fingerprints.get(getKey(fileSetCheck));
+                // global checks have no fingerprints, they are not cached
+                if (fingerprint != null && !known.contains(fingerprint)) {
+                    if (text == null) {
+                        text = reader.read(file);
+                    }
+                    checkViolations.put(fingerprint, fileSetCheck.process(file, text));
+                }
+            }
+        }
+        return checkViolations;
+    }
+
+    /**
+     * Ends the processing of a file.
+     * @param fileName the absolute name of the file.
+     */
+    public void finish(String fileName) {
+        files.remove(fileName);
+    }
+
+    /**
+     * Ends the processing of a file, which could not be processed, and removes
+     * it from the cache, so it is checked again next time.
+     * @param fileName the absolute name of the file.
+     */
+    public void remove(String fileName) {
+        files.remove(fileName);
+        cache.remove(fileName);
+    }
+
+    /**
+     * Returns the key of the fingerprint of a fileset check.
+     * @param fileSetCheck the fileset check.
+     * @return the configuration of the check, or its class if it has no configuration.
+     */
+    private Object getKey(FileSetCheck fileSetCheck) {
+        Object key = configurations.get(fileSetCheck);
+        if (key == null) {
+            key = fileSetCheck.getClass();
+        }
+        return key;
+    }
+
+    /**
+     * Returns the part of fingerprints, which identifies a fileset check.
+     * @param fileSetCheck the fileset check.
+     * @param configuration the configuration of the check, or {@code null}.
+     * @return the configuration, or the name of the class of the check if
+     *     the configuration is {@code null}.
+     */
+    private static Serializable getModule(FileSetCheck fileSetCheck,
+            Configuration configuration) {
+        Serializable module = configuration;
+        if (module == null) {
+            module = fileSetCheck.getClass().getName();
+        }
+        return module;
+    }
+
+    /**
+     * Returns the part of fingerprints, which identifies external resources.
+     * @param locations the locations of the resources.
+     * @return the locations of the resources and their hashes sorted by locations.
+     */
+    private String getResources(Set<String> locations) {
+        final Map<String, String> resources = new TreeMap<>();
+        for (String location : locations) {
+            resources.put(location, cache.getExternalResourceHash(location));
+        }
+        return resources.toString();
+    }
+
+    /**
+     * Calculates a fingerprint of a module.
+     * @param parts the parts, which identify the module.
+     * @return the fingerprint.
+     */
+    private static String getFingerprint(Serializable... parts) {
+        return PropertyCacheFile.getHashCodeBasedOnObjectContent(parts);
+    }
+}
@@ -0,0 +1,194 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.xml.bind.DatatypeConverter;
+
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
+
+/**
+ * Persistent(on file-system) store of violations of modules, which is
+ * addressed by the content of files instead of their locations, so it can be
+ * shared between checkouts in different places and between machines, or be
+ * filled from the store of a previous build.
+ *
+ * <p>Each entry holds the filtered violations of one module in one file, see
+ * {@link ModuleResultCache}. Its name is a hash of the name of the file
+ * relative to the base directory, of the content of the file and of the
+ * fingerprint of the module. The name of the file is a part of the hash,
+ * because violations of some modules depend on it. Entries are spread over
+ * subdirectories named by the first characters of their hashes.
+ *
+ * <p>Entries are written to temporary files and moved to their place, so
+ * concurrent audits can share the store. The store is only an optimization:
+ * an entry, which can not be read, is replaced, and an entry, which can not be
+ * written, is skipped.
+ *
+ * @author the original author or authors.
+ */
+final class ModuleResultStore {
+    /** The version of the format of entries. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The extension of entry files. */
+    private static final String ENTRY_EXTENSION = ".violations";
+
+    /** The length of names of subdirectories. */
+    private static final int SUBDIRECTORY_LENGTH = 2;
+
+    /** The algorithm of hashes. */
+    private static final String HASH_ALGORITHM = "SHA-1";
+
+    /** The directory of entries. */
+    private final Path directory;
+
+    /** The base directory to relativize names of files against, or {@code null}. */
+    private final String basedir;
+
+    /**
+     * Creates a new store.
+     * @param directory the directory of entries, which is created on demand
+     * @param basedir the base directory to relativize names of files against,
+     *     or {@code null} to use the absolute names
+     */
+    ModuleResultStore(Path directory, String basedir) {
+        this.directory = directory;
+        this.basedir = basedir;
+    }
+
+    /**
+     * Calculates the part of keys of entries, which identifies a file.
+     * @param fileName the absolute name of the file
+     * @param text the text of the file
+     * @return the hash of the relative name and of the content of the file
+     */
+    public String getFileKey(String fileName, FileText text) {
+        final String relativeName = CommonUtils.relativizeAndNormalizePath(basedir, fileName)
+                .replace(File.separatorChar, '/');
+        return getHash(relativeName, text.getFullText().toString());
+    }
+
+    /**
+     * Reads the violations of a module in a file.
+     * @param fileKey the key of the file, see {@link #getFileKey}
+     * @param fingerprint the fingerprint of the module
+     * @return the violations, or {@code null} if the entry is absent or unreadable
+     */
+    public SortedSet<LocalizedMessage> get(String fileKey, String fingerprint) {
+        SortedSet<LocalizedMessage> result = null;
+        try (InputStream stream = Files.newInputStream(getEntry(fileKey, fingerprint));
+            ObjectInputStream input = new ObjectInputStream(stream)) {
+            if (input.readInt() == FORMAT_VERSION) {
+                result = new TreeSet<>(Arrays.asList((LocalizedMessage[]) input.readObject()));
+            }
+        }
+        catch (NoSuchFileException ignored) {
+            // the module did not check the file yet
+        }
+        catch (IOException | ClassNotFoundException | ClassCastException ignored) {
+            // the entry is broken, it is replaced by a new one
+        }
+        return result;
+    }
+
+    /**
+     * Writes the violations of a module in a file.
+     * @param fileKey the key of the file, see {@link #getFileKey}
+     * @param fingerprint the fingerprint of the module
+     * @param violations the violations
+     */
+    public void put(String fileKey, String fingerprint, SortedSet<LocalizedMessage> violations) {
+        final Path entry = getEntry(fileKey, fingerprint);
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeObject(violations.toArray(new LocalizedMessage[violations.size()]));
+            }
+            final Path entryDirectory = entry.getParent();
+            Files.createDirectories(entryDirectory);
+            final Path temporaryFile = Files.createTempFile(entryDirectory, null, null);
+            try {
+                Files.write(temporaryFile, bytes.toByteArray());
+                Files.move(temporaryFile, entry, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+        catch (IOException ignored) {
+            // the audit does not depend on the store, the module checks the file next time
+        }
+    }
+
+    /**
+     * Returns the entry file of a module in a file.
+     * @param fileKey the key of the file
+     * @param fingerprint the fingerprint of the module
+     * @return the entry file
+     */
+    private Path getEntry(String fileKey, String fingerprint) {
+        final String hash = getHash(fileKey, fingerprint);
+        return directory.resolve(hash.substring(0, SUBDIRECTORY_LENGTH))
+                .resolve(hash.substring(SUBDIRECTORY_LENGTH) + ENTRY_EXTENSION);
+    }
+
+    /**
+     * Calculates a hash of strings.
+     * @param parts the strings
+     * @return the hash
+     */
+    private static String getHash(String... parts) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            digest.update((byte) FORMAT_VERSION);
+            for (String part : parts) {
+                final byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) ':');
+                digest.update(bytes);
+            }
+            return DatatypeConverter.printHexBinary(digest.digest());
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unable to calculate hashcode.", ex);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Runs groups of {@link TreeWalker} checks by several threads.
+ * The first group is always run by the calling thread, so checks which pass
+ * thread local state to filters have to be put in it. The other groups are
+ * run by a fixed thread pool.
+ * @author the original author or authors.
+ */
+final class MultiThreadCheckRunner {
+    /** The pool, which runs all groups except the first one. */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new runner.
+     * @param threadsNumber the number of threads, including the calling one
+     */
+    MultiThreadCheckRunner(int threadsNumber) {
+        executor = Executors.newFixedThreadPool(threadsNumber - 1, runnable -> {
+            final Thread thread = new Thread(runnable, "TreeWalker");
+            // the pool must not keep JVM alive, if the walker is not destroyed
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the groups of checks and waits until all of them are finished.
+     * An exception thrown by any group is rethrown to the calling thread.
+     * @param groups the groups of checks to run
+     * @throws CheckstyleException if the calling thread was interrupted
+     */
+    public void run(List<Runnable> groups) throws CheckstyleException {
+        final List<Future<?>> futures = new ArrayList<>(groups.size() - 1);
+        for (Runnable group : groups.subList(1, groups.size())) {
+            futures.add(executor.submit(group));
+        }
+        try {
+            groups.get(0).run();
+        }
+        finally {
+            // other groups still use the same AST, so they are waited for in any case
+            waitFor(futures);
+        }
+    }
+
+    /**
+     * Shuts down the thread pool.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Waits until all groups are finished.
+     * @param futures the results of the groups
+     * @throws CheckstyleException if the calling thread was interrupted
+     */
+    private static void waitFor(List<Future<?>> futures) throws CheckstyleException {
+        Throwable failure = null;
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                }
+                catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause();
+                    }
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CheckstyleException("Interrupted while waiting for checks", ex);
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            // groups are runnables, so they can throw only unchecked exceptions
+            throw (RuntimeException) failure;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+
+/**
+ * Processes files of the {@link Checker} by several threads.
+ * Each thread uses its own copies of the fileset checks, which are created
+ * from the same configuration. Fileset checks with global state, filters and
+ * listeners are shared by all threads, they are called only by the thread
+ * which holds the turn of the current file. Files take their turns in the
+ * original order, so audit events are fired exactly as in single thread mode.
+ * @author the original author or authors.
+ */
+final class MultiThreadFileProcessor {
+    /** The maximum number of files per thread, which are waiting to be reported. */
+    private static final int PENDING_FILES_PER_THREAD = 4;
+
+    /** The checker which files are processed. */
+    private final Checker checker;
+
+    /** The number of threads. */
+    private final int threadsNumber;
+
+    /** Fileset checks, which are shared by all threads. */
+    private final List<FileSetCheck> sharedChecks = new ArrayList<>();
+
+    /** Configurations of fileset checks, which are copied for each thread. */
+    private final List<Configuration> copiedCheckConfigs = new ArrayList<>();
+
+    /** Copies of fileset checks for each thread, which are reused by later runs. */
+    private List<List<FileSetCheck>> workers;
+
+    /** The lock, which guards the turn of files. */
+    private final Object turnLock = new Object();
+
+    /** The index of the file, which is reported next. */
+    private int turn;
+
+    /** Whether processing was aborted by an exception. */
+    private final AtomicBoolean aborted = new AtomicBoolean();
+
+    /**
+     * Creates a new processor.
+     * @param checker the checker which files are processed
+     * @param threadsNumber the number of threads
+     * @param fileSetChecks all fileset checks of the checker
+     * @param configuredChecks the fileset checks, which were created from
+     *     configurations, mapped to their configurations
+     */
+    MultiThreadFileProcessor(Checker checker, int threadsNumber,
+            Collection<FileSetCheck> fileSetChecks,
+            Map<FileSetCheck, Configuration> configuredChecks) {
+        this.checker = checker;
+        this.threadsNumber = threadsNumber;
+        for (FileSetCheck check : fileSetChecks) {
+            final Configuration config = configuredChecks.get(check);
+            if (config == null
+                    || check.getClass().isAnnotationPresent(GlobalStatefulCheck.class)) {
+                sharedChecks.add(check);
+            }
+            else {
+                copiedCheckConfigs.add(config);
+            }
+        }
+    }
+
+    /**
+     * Processes files, which are supplied while they are processed.
+     * Copies of fileset checks are created by the first run and are reused by
+     * later runs until the processor is destroyed.
+     * @param files the files to process
+     * @param charset the name of a charset
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     */
+    public void process(Iterator<File> files, String charset) throws CheckstyleException {
+        if (workers == null) {
+            workers = createWorkers();
+        }
+        synchronized (turnLock) {
+            turn = 0;
+        }
+        aborted.set(false);
+        for (List<FileSetCheck> checks : workers) {
+            for (FileSetCheck check : checks) {
+                check.beginProcessing(charset);
+            }
+        }
+        final BlockingQueue<List<FileSetCheck>> idleWorkers =
+                new ArrayBlockingQueue<>(threadsNumber, false, workers);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadsNumber);
+        final FileTextReader reader =
+                new FileTextReader(files, checker::acceptFile, file -> false,
+                        charset, 0);
+        // worker threads read files by themselves, the state of the iterating
+        // reader is not shared with them
+        final FileTextReader textReader = FileTextReader.createFileSystemReader(charset);
+        try {
+            final Queue<FileTask> tasks = new ArrayDeque<>();
+            int index = 0;
+            while (reader.hasNext()) {
+                final File file = reader.next();
+                final int fileIndex = index;
+                index++;
+                final Future<?> future = executor.submit(() -> {
+                    processFile(file, textReader, fileIndex, idleWorkers);
+                    return null;
+                });
+                tasks.add(new FileTask(file, future));
+                if (tasks.size() >= threadsNumber * PENDING_FILES_PER_THREAD) {
+                    tasks.remove().waitFor();
+                }
+            }
+            while (!tasks.isEmpty()) {
+                tasks.remove().waitFor();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+            reader.close();
+        }
+
+        for (List<FileSetCheck> checks : workers) {
+            checks.forEach(FileSetCheck::finishProcessing);
+        }
+    }
+
+    /**
+     * Destroys the copies of fileset checks, the processor can not be used after this.
+     */
+    public void destroy() {
+        if (workers != null) {
+            for (List<FileSetCheck> checks : workers) {
+                checks.forEach(FileSetCheck::destroy);
+            }
+            workers = null;
+        }
+    }
+
+    /**
+     * Creates copies of fileset checks for each thread.
+     * @return the list of fileset checks for each thread
+     * @throws CheckstyleException if a fileset check can not be created
+     */
+    private List<List<FileSetCheck>> createWorkers() throws CheckstyleException {
+        final List<List<FileSetCheck>> result = new ArrayList<>(threadsNumber);
+        for (int i = 0; i < threadsNumber; i++) {
+            final List<FileSetCheck> checks = new ArrayList<>(copiedCheckConfigs.size());
+            for (Configuration config : copiedCheckConfigs) {
+                final FileSetCheck check = (FileSetCheck) checker.createChildModule(config);
+                check.init();
+                check.setMessageDispatcher(checker);
+                checks.add(check);
+            }
+            result.add(checks);
+        }
+        return result;
+    }
+
+    /**
+     * Processes a file with copies of fileset checks, which are not used by
+     * other threads at the moment.
+     * @param file the file to process
+     * @param reader the reader of the file text
+     * @param index the index of the file turn
+     * @param idleWorkers the fileset check copies, which are not in use
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     * @throws InterruptedException if the thread was interrupted
+     */
+    private void processFile(File file, FileTextReader reader, int index,
+            BlockingQueue<List<FileSetCheck>> idleWorkers)
+            throws CheckstyleException, InterruptedException {
+        final List<FileSetCheck> checks = idleWorkers.take();
+        try {
+            SortedSet<LocalizedMessage> messages = null;
+            try {
+                if (!aborted.get()) {
+                    messages = checker.processFile(file, reader, checks);
+                }
+            }
+            finally {
+                reportFile(file, reader, index, messages);
+            }
+        }
+        finally {
+            idleWorkers.add(checks);
+        }
+    }
+
+    /**
+     * Waits for the turn of a file, processes it with shared fileset checks and
+     * fires its audit events.
+     * @param file the file to report
+     * @param reader the reader of the file text
+     * @param index the index of the file turn
+     * @param messages the messages of copied fileset checks, or {@code null}
+     *     if the file was not processed
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     * @throws InterruptedException if the thread was interrupted
+     */
+    private void reportFile(File file, FileTextReader reader, int index,
+            SortedSet<LocalizedMessage> messages)
+            throws CheckstyleException, InterruptedException {
+        synchronized (turnLock) {
+            while (turn != index) {
+                turnLock.wait();
+            }
+            try {
+                if (!aborted.get()) {
+                    final String fileName = file.getAbsolutePath();
+                    checker.fireFileStarted(fileName);
+                    boolean finished = false;
+                    try {
+                        if (messages != null) {
+                            if (!sharedChecks.isEmpty()) {
+                                messages.addAll(checker.processFile(file, reader, sharedChecks));
+                            }
+                            checker.fireErrors(fileName, messages);
+                            checker.fireFileFinished(fileName);
+                            finished = true;
+                        }
+                    }
+                    finally {
+                        // the file was not processed or an exception is thrown
+                        if (!finished) {
+                            aborted.set(true);
+                        }
+                    }
+                }
+            }
+            finally {
+                turn++;
+                turnLock.notifyAll();
+            }
+        }
+    }
+
+    /** A file, which is being processed. */
+    private static final class FileTask {
+        /** The file. */
+        private final File file;
+
+        /** The result of the file processing. */
+        private final Future<?> future;
+
+        /**
+         * Creates a new task.
+         * @param file the file
+         * @param future the result of the file processing
+         */
+        FileTask(File file, Future<?> future) {
+            this.file = file;
+            this.future = future;
+        }
+
+        /**
+         * Waits until the file is processed and reported.
+         * @throws CheckstyleException if an exception was thrown while processing the file
+         */
+        public void waitFor() throws CheckstyleException {
+            try {
+                future.get();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CheckstyleException("Interrupted while processing "
+                        + file.getPath(), ex);
+            }
+            catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof Error) {
+                    // We need to catch all errors to put a reason failure (file name) in error
+                    throw new Error("Error was thrown while processing " + file.getPath(),
+                            cause);
+                }
+                throw new CheckstyleException("Exception was thrown while processing "
+                        + file.getPath(), cause);
+            }
+        }
+    }
+}
@@ -19,44 +19,108 @@
 
 package com.puppycrawl.tools.checkstyle;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.xml.bind.DatatypeConverter;
 
-import com.google.common.io.ByteStreams;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.io.Closeables;
 import com.google.common.io.Flushables;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
 import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
 
 /**
- * This class maintains a persistent(on file-system) store of the files
- * that have checked ok(no validation events) and their associated
- * timestamp. It is used to optimize Checkstyle between few launches.
- * It is mostly useful for plugin and extensions of Checkstyle.
- * It uses a property file
- * for storage.  A hashcode of the Configuration is stored in the
- * cache file to ensure the cache is invalidated when the
- * configuration has changed.
+ * This class maintains a persistent(on file-system) store of checked files
+ * and their violations, so unchanged files are not checked again between
+ * launches of Checkstyle. It is mostly useful for plugin and extensions of
+ * Checkstyle.
+ * <p>
+ * The store is a table of string entries in a binary file, see
+ * {@link CacheTable}: an indexed table, which is read on load, followed by a
+ * log of changes, which are appended on persist. The table is written again
+ * when the log grows too large. Files of the properties format, which was
+ * used by previous versions, are still read and written again in the binary
+ * format. The table has the following entries:
+ * </p>
+ * <ul>
+ * <li>the hash of the configuration, {@link #CONFIG_HASH_KEY}; all entries
+ * are dropped when the configuration changes;</li>
+ * <li>checked files mapped from their names, with their timestamps, or with
+ * their sizes, timestamps and content hashes in content mode;</li>
+ * <li>the violations of checked files per module, which found them, see
+ * {@link #VIOLATIONS_KEY_PREFIX};</li>
+ * <li>the fingerprints of sets of modules, which violations are stored for,
+ * see {@link #MODULES_KEY_PREFIX};</li>
+ * <li>the hashes of external resources of modules, see
+ * {@link #EXTERNAL_RESOURCE_KEY_PREFIX};</li>
+ * <li>the times, since which files are not checked anymore, for files,
+ * which are kept for some time, see {@link #UNUSED_KEY_PREFIX}.</li>
+ * </ul>
+ * <p>
+ * By default a file is identified by its absolute name and is considered
+ * unchanged while its timestamp is the same. In content mode a file is
+ * identified by its name relative to the base directory, so the cache can be
+ * shared between checkouts in different places, and is considered unchanged
+ * while the hash of its content is the same. The content is not read while
+ * both the size and the timestamp of the file are the same as in the cache.
+ * </p>
+ * <p>
+ * Violations of a file are stored along with it per module, which found them,
+ * so an unchanged file is checked again only by the modules, which violations
+ * are not stored, and other violations are reported from the cache. Modules are
+ * identified by fingerprints of their configurations and of the external
+ * resources they depend on, see {@link ModuleResultCache}.
+ * </p>
+ * <p>
+ * Files, which were not checked since the cache was loaded, are evicted with
+ * their violations by {@link #evict} before the cache is persisted. They can
+ * be kept for some time, and the number of files can be limited.
+ * </p>
+ * <p>
+ * The cache file can be shared by several processes. The file is written
+ * while a lock on a file with the {@code .lock} suffix next to it is held,
+ * and the changes of a process are merged with the entries written by other
+ * processes since the file was loaded, if they have the same configuration.
+ * </p>
  *
  * @author Oliver Burn
  * @author Andrei Selkin
@@ -79,8 +143,62 @@ final class PropertyCacheFile {
      */
     public static final String EXTERNAL_RESOURCE_KEY_PREFIX = "module-resource*?:";
 
+    /**
+     * The property prefix to use for storing the violations of a file.
+     * The prefix is chosen in such a way that it cannot be a valid file name.
+     */
+    public static final String VIOLATIONS_KEY_PREFIX = "violations*?:";
+
+    /**
+     * The property prefix to use for storing the fingerprints of a set of
+     * modules, which violations of files are stored for.
+     * The prefix is chosen in such a way that it cannot be a valid file name.
+     */
+    public static final String MODULES_KEY_PREFIX = "modules*?:";
+
+    /**
+     * The property prefix to use for storing the time, since which a file
+     * was not checked, for files, which are kept in the cache while unused.
+     * The prefix is chosen in such a way that it cannot be a valid file name.
+     */
+    public static final String UNUSED_KEY_PREFIX = "unused*?:";
+
+    /** The part of keys, which distinguishes them from names of files. */
+    private static final String SPECIAL_KEY_MARKER = "*?";
+
+    /**
+     * Separator of the size, the timestamp and the hash of a file in content
+     * mode or of a local external resource, and of the key of a set of modules
+     * and violations of a file.
+     */
+    private static final char STAT_SEPARATOR = ':';
+
+    /** Separator of the fingerprints of modules in a set. */
+    private static final String MODULE_SEPARATOR = ",";
+
+    /** The size of the buffer, which the content of external resources is read through. */
+    private static final int HASH_BUFFER_SIZE = 8192;
+
+    /** The suffix of the file, which is locked while the cache file is written. */
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    /**
+     * Synchronizes writes of cache files in this virtual machine, where file
+     * locks are held by the whole process and can not be acquired twice.
+     */
+    private static final Object PERSIST_LOCK = new Object();
+
+    /** Fingerprints of modules in sets, which were used, mapped from the keys of the sets. */
+    private final Map<String, List<String>> moduleSets = new ConcurrentHashMap<>();
+
     /** The details on files. **/
-    private final Properties details = new Properties();
+    private CacheTable details = new CacheTable();
+
+    /** Keys of files, which were checked or put since the cache was loaded. */
+    private final Set<String> usedFiles = ConcurrentHashMap.newKeySet();
+
+    /** Keys of external resources, which were put since the cache was loaded. */
+    private final Set<String> usedResources = ConcurrentHashMap.newKeySet();
 
     /** Configuration object. **/
     private final Configuration config;
@@ -91,6 +209,18 @@ final class PropertyCacheFile {
     /** Generated configuration hash. **/
     private String configHash;
 
+    /** Whether files are compared by their content instead of their timestamps. */
+    private boolean contentMode;
+
+    /** The base directory, which names of files are relative to in content mode. */
+    private String basedir;
+
+    /** The key of the set of modules, which violations of files are stored for. */
+    private String modulesKey;
+
+    /** Indexes of modules in the set mapped from their fingerprints. */
+    private Map<String, Integer> moduleIndexes = Collections.emptyMap();
+
     /**
      * Creates a new {@code PropertyCacheFile} instance.
      *
@@ -117,39 +247,113 @@ final class PropertyCacheFile {
         // the first time the hash will be added to output file
         configHash = getHashCodeBasedOnObjectContent(config);
         if (new File(fileName).exists()) {
-            FileInputStream inStream = null;
-            try {
-                inStream = new FileInputStream(fileName);
-                details.load(inStream);
-                final String cachedConfigHash = details.getProperty(CONFIG_HASH_KEY);
-                if (!configHash.equals(cachedConfigHash)) {
-                    // Detected configuration change - clear cache
-                    reset();
-                }
+            final CacheTable table = CacheTable.read(Paths.get(fileName));
+            if (table == null) {
+                loadProperties();
             }
-            finally {
-                Closeables.closeQuietly(inStream);
+            else {
+                details = table;
             }
         }
-        else {
-            // put the hash in the file if the file is going to be created
-            reset();
+        if (!configHash.equals(details.get(CONFIG_HASH_KEY))) {
+            // Detected configuration change or a new file - start with an empty cache.
+            // Unlike reset(), entries, which other processes write with the same
+            // configuration in the meantime, are kept on persist.
+            details = new CacheTable();
+            details.put(CONFIG_HASH_KEY, configHash);
+        }
+    }
+
+    /**
+     * Loads cached values from a file in the properties format, which was used
+     * by previous versions. The file is written in the binary format on persist.
+     * @throws IOException when there is a problems with file read
+     */
+    private void loadProperties() throws IOException {
+        FileInputStream inStream = null;
+        try {
+            inStream = new FileInputStream(fileName);
+            final Properties properties = new Properties();
+            properties.load(inStream);
+            for (String key : properties.stringPropertyNames()) {
+                details.put(key, properties.getProperty(key));
+            }
+        }
+        finally {
+            Closeables.closeQuietly(inStream);
         }
     }
 
     /**
      * Cleans up the object and updates the cache file.
+     * Changes are appended to the file, unless the whole file has to be written
+     * again. The whole file is written to a temporary file first, which replaces
+     * the cache file, so the cache file is never written partially.
      * @throws IOException  when there is a problems with file save
      */
     public void persist() throws IOException {
-        final Path directory = Paths.get(fileName).getParent();
-        if (directory != null) {
-            Files.createDirectories(directory);
+        final Path path = Paths.get(fileName).toAbsolutePath();
+        final Path directory = path.getParent();
+        Files.createDirectories(directory);
+        synchronized (PERSIST_LOCK) {
+            try (FileChannel lockChannel = FileChannel.open(
+                    directory.resolve(path.getFileName() + LOCK_FILE_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock ignored = lockChannel.lock()) {
+                boolean rebased = false;
+                if (Files.exists(path)) {
+                    // other processes could write the file since it was loaded
+                    final CacheTable current = CacheTable.read(path);
+                    if (current != null
+                            && Objects.equals(configHash, current.get(CONFIG_HASH_KEY))) {
+                        details = details.rebase(current);
+                        rebased = true;
+                    }
+                }
+                // changes are appended only to a table of the same configuration
+                write(path, !rebased);
+            }
+        }
+    }
+
+    /**
+     * Writes the changes to the cache file, the table is written again if
+     * it is required.
+     * @param path the path of the cache file.
+     * @param rewrite whether the table is written again, because the file
+     *     does not contain the table, which the changes are made to.
+     * @throws IOException when there is a problems with file save
+     */
+    private void write(Path path, boolean rewrite) throws IOException {
+        if (rewrite || details.isCompactionRequired()) {
+            final Path temporaryFile =
+                    Files.createTempFile(path.getParent(), path.getFileName().toString(), null);
+            try {
+                write(temporaryFile.toFile(), details.getTableBytes(), false);
+                Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temporaryFile);
+            }
         }
+        else if (details.hasChanges()) {
+            write(path.toFile(), details.getChangeBytes(), true);
+        }
+    }
+
+    /**
+     * Writes bytes to a file.
+     * @param file the file to write to
+     * @param bytes the bytes to write
+     * @param append whether the bytes are appended to the file
+     * @throws IOException  when there is a problems with file save
+     */
+    private static void write(File file, byte[] bytes, boolean append) throws IOException {
         FileOutputStream out = null;
         try {
-            out = new FileOutputStream(fileName);
-            details.store(out, null);
+            out = new FileOutputStream(file, append);
+            out.write(bytes);
         }
         finally {
             flushAndCloseOutStream(out);
@@ -157,11 +361,17 @@ final class PropertyCacheFile {
     }
 
     /**
-     * Resets the cache to be empty except for the configuration hash.
+     * Resets the cache to be empty except for the configuration hash. Entries,
+     * which other processes wrote since the cache was loaded, are dropped on
+     * persist too.
      */
     public void reset() {
         details.clear();
-        details.setProperty(CONFIG_HASH_KEY, configHash);
+        details.put(CONFIG_HASH_KEY, configHash);
+        if (modulesKey != null) {
+            details.put(MODULES_KEY_PREFIX + modulesKey,
+                    String.join(MODULE_SEPARATOR, moduleSets.get(modulesKey)));
+        }
     }
 
     /**
@@ -176,6 +386,17 @@ final class PropertyCacheFile {
         Closeables.close(stream, false);
     }
 
+    /**
+     * Sets whether files are compared by their content instead of their timestamps.
+     * @param byContent whether files are compared by their content
+     * @param baseDirectory the directory, which names of files are relative to
+     *     in content mode, or {@code null} to use absolute names
+     */
+    public void setContentMode(boolean byContent, String baseDirectory) {
+        contentMode = byContent;
+        basedir = baseDirectory;
+    }
+
     /**
      * Checks that file is in cache.
      * @param uncheckedFileName the file to check
@@ -183,17 +404,85 @@ final class PropertyCacheFile {
      * @return whether the specified file has already been checked ok
      */
     public boolean isInCache(String uncheckedFileName, long timestamp) {
-        final String lastChecked = details.getProperty(uncheckedFileName);
+        usedFiles.add(uncheckedFileName);
+        final String lastChecked = details.get(uncheckedFileName);
         return Objects.equals(lastChecked, Long.toString(timestamp));
     }
 
+    /**
+     * Checks that file is in cache, comparing either its timestamp or its
+     * content depending on the mode of the cache.
+     * @param uncheckedFile the file to check
+     * @return whether the specified file has already been checked ok
+     */
+    public boolean isInCache(File uncheckedFile) {
+        final boolean result;
+        if (contentMode) {
+            final String key = getKey(uncheckedFile.getAbsolutePath());
+            usedFiles.add(key);
+            final String lastChecked = details.get(key);
+            result = lastChecked != null && isContentInCache(uncheckedFile, key, lastChecked);
+        }
+        else {
+            result = isInCache(uncheckedFile.getAbsolutePath(), uncheckedFile.lastModified());
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the content of file is the same as the cached one.
+     * If only the size or the timestamp of the file differs, the cached
+     * value is updated, so the content is not read again next time.
+     * @param uncheckedFile the file to check
+     * @param key the key of the file in the cache
+     * @param lastChecked the cached value of the file
+     * @return whether the content of the file is the same
+     */
+    private boolean isContentInCache(File uncheckedFile, String key, String lastChecked) {
+        final String stat = getStat(uncheckedFile);
+        boolean result = lastChecked.startsWith(stat);
+        if (!result) {
+            final String hash = getContentHash(uncheckedFile);
+            result = hash != null && lastChecked.substring(
+                    lastChecked.lastIndexOf(STAT_SEPARATOR) + 1).equals(hash);
+            if (result) {
+                details.put(key, stat + hash);
+            }
+        }
+        return result;
+    }
+
     /**
      * Records that a file checked ok.
      * @param checkedFileName name of the file that checked ok
      * @param timestamp the timestamp of the file
      */
     public void put(String checkedFileName, long timestamp) {
-        details.setProperty(checkedFileName, Long.toString(timestamp));
+        usedFiles.add(checkedFileName);
+        details.put(checkedFileName, Long.toString(timestamp));
+    }
+
+    /**
+     * Records that a file checked ok, storing either its timestamp or the
+     * hash of its content depending on the mode of the cache.
+     * @param checkedFile the file that checked ok
+     */
+    public void put(File checkedFile) {
+        details.remove(VIOLATIONS_KEY_PREFIX + getKey(checkedFile.getAbsolutePath()));
+        if (contentMode) {
+            final String key = getKey(checkedFile.getAbsolutePath());
+            usedFiles.add(key);
+            final String hash = getContentHash(checkedFile);
+            if (hash == null) {
+                details.remove(key);
+            }
+            else {
+                details.put(key, getStat(checkedFile) + hash);
+            }
+        }
+        else {
+            put(checkedFile.getAbsolutePath(), checkedFile.lastModified());
+        }
     }
 
     /**
@@ -202,7 +491,7 @@ final class PropertyCacheFile {
      * @return The has of the file or {@code null}.
      */
     public String get(String name) {
-        return details.getProperty(name);
+        return details.get(name);
     }
 
     /**
@@ -210,7 +499,323 @@ final class PropertyCacheFile {
      * @param checkedFileName The name of the file to remove.
      */
     public void remove(String checkedFileName) {
-        details.remove(checkedFileName);
+        final String key = getKey(checkedFileName);
+        details.remove(key);
+        details.remove(VIOLATIONS_KEY_PREFIX + key);
+    }
+
+    /**
+     * Evicts the files, which were not checked since the cache was loaded,
+     * with their violations, and other entries, which are not used anymore.
+     * Unused files can be kept for some time, the time, since which a file
+     * is not used, is stored for them then. The number of files can be
+     * limited, unused files are evicted first.
+     * @param maxAge the number of days, which unused files are kept for.
+     * @param maxSize the maximum number of files, or zero for no limit.
+     * @return the number of evicted entries.
+     */
+    public int evict(int maxAge, int maxSize) {
+        final Map<String, String> entries = details.toMap();
+        final Map<String, Long> unusedFiles = getKeptUnusedFiles(entries,
+                TimeUnit.DAYS.toMillis(maxAge), maxSize);
+        final Set<String> keptModuleSets = new HashSet<>();
+        if (modulesKey != null) {
+            keptModuleSets.add(modulesKey);
+        }
+        int evicted = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!isKept(entry, unusedFiles.keySet(), keptModuleSets)) {
+                details.remove(entry.getKey());
+                evicted++;
+            }
+        }
+        for (String key : entries.keySet()) {
+            if (key.startsWith(MODULES_KEY_PREFIX)
+                    && !keptModuleSets.contains(key.substring(MODULES_KEY_PREFIX.length()))) {
+                details.remove(key);
+                evicted++;
+            }
+        }
+        unusedFiles.forEach((file, since) -> {
+            final String value = Long.toString(since);
+            if (!value.equals(entries.get(UNUSED_KEY_PREFIX + file))) {
+                details.put(UNUSED_KEY_PREFIX + file, value);
+            }
+        });
+        return evicted;
+    }
+
+    /**
+     * Checks whether an entry of the cache is kept on eviction. Module sets are
+     * not decided here, the sets used by kept violations are collected instead.
+     * @param entry the entry of the cache.
+     * @param unusedFiles the keys of unused files, which are kept.
+     * @param keptModuleSets the keys of module sets, which are kept.
+     * @return true if the entry is kept.
+     */
+    private boolean isKept(Map.Entry<String, String> entry, Set<String> unusedFiles,
+            Set<String> keptModuleSets) {
+        final String key = entry.getKey();
+        final boolean kept;
+        if (key.startsWith(VIOLATIONS_KEY_PREFIX)) {
+            final String file = key.substring(VIOLATIONS_KEY_PREFIX.length());
+            kept = usedFiles.contains(file) || unusedFiles.contains(file);
+            final int separator = entry.getValue().indexOf(STAT_SEPARATOR);
+            if (kept && separator >= 0) {
+                keptModuleSets.add(entry.getValue().substring(0, separator));
+            }
+        }
+        else if (key.startsWith(UNUSED_KEY_PREFIX)) {
+            kept = unusedFiles.contains(key.substring(UNUSED_KEY_PREFIX.length()));
+        }
+        else if (key.startsWith(EXTERNAL_RESOURCE_KEY_PREFIX)) {
+            kept = usedResources.contains(key);
+        }
+        else {
+            kept = key.contains(SPECIAL_KEY_MARKER) || usedFiles.contains(key)
+                    || unusedFiles.contains(key);
+        }
+        return kept;
+    }
+
+    /**
+     * Finds the unused files, which are kept in the cache.
+     * @param entries the entries of the cache.
+     * @param maxAge the time in milliseconds, which unused files are kept for.
+     * @param maxSize the maximum number of files, or zero for no limit.
+     * @return the times, since which the kept files are unused, mapped from
+     *     the keys of the files.
+     */
+    private Map<String, Long> getKeptUnusedFiles(Map<String, String> entries, long maxAge,
+            int maxSize) {
+        final long now = System.currentTimeMillis();
+        final Map<String, Long> unusedFiles = new HashMap<>();
+        int usedFileCount = 0;
+        for (String key : entries.keySet()) {
+            if (key.contains(SPECIAL_KEY_MARKER)) {
+                continue;
+            }
+            if (usedFiles.contains(key)) {
+                usedFileCount++;
+            }
+            else {
+                long since = now;
+                try {
+                    since = Long.parseLong(entries.getOrDefault(UNUSED_KEY_PREFIX + key,
+                            Long.toString(now)));
+                }
+                catch (NumberFormatException ignored) {
+                    // the time is broken, the file is considered unused since now
+                }
+                if (now - since < maxAge) {
+                    unusedFiles.put(key, since);
+                }
+            }
+        }
+        if (maxSize > 0) {
+            final int excess = usedFileCount + unusedFiles.size() - maxSize;
+            unusedFiles.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(Math.max(excess, 0))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(unusedFiles::remove);
+        }
+        return unusedFiles;
+    }
+
+    /**
+     * Sets the modules, which violations of files are stored for.
+     * @param fingerprints the fingerprints of the modules.
+     */
+    public void setModules(Set<String> fingerprints) {
+        final List<String> modules = new ArrayList<>(new TreeSet<>(fingerprints));
+        final String value = String.join(MODULE_SEPARATOR, modules);
+        modulesKey = getHashCodeBasedOnObjectContent(value);
+        moduleSets.put(modulesKey, modules);
+        if (!value.equals(details.get(MODULES_KEY_PREFIX + modulesKey))) {
+            details.put(MODULES_KEY_PREFIX + modulesKey, value);
+        }
+        moduleIndexes = new HashMap<>();
+        for (int i = 0; i < modules.size(); i++) {
+            moduleIndexes.put(modules.get(i), i);
+        }
+    }
+
+    /**
+     * Records violations of a file, which is in the cache, replacing the
+     * violations recorded before. If the violations can not be stored, the
+     * file is removed from the cache, so it is checked again next time.
+     * @param checkedFileName the absolute name of the file.
+     * @param violations the violations of all modules, which were set by
+     *     {@link #setModules}, mapped from the fingerprints of the modules.
+     */
+    public void putViolations(String checkedFileName,
+            Map<String, SortedSet<LocalizedMessage>> violations) {
+        final String key = getKey(checkedFileName);
+        if (modulesKey != null && details.get(key) != null) {
+            final String value = serializeViolations(violations);
+            if (value == null) {
+                remove(checkedFileName);
+            }
+            else {
+                details.put(VIOLATIONS_KEY_PREFIX + key, value);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the violations of a file, which were recorded in the cache.
+     * @param checkedFileName the absolute name of the file.
+     * @return the violations of the modules, which checked the file, mapped
+     *     from the fingerprints of the modules, an empty map if no violations
+     *     were recorded, or {@code null} if the violations can not be restored.
+     */
+    public Map<String, SortedSet<LocalizedMessage>> getViolations(String checkedFileName) {
+        final String value = details.get(VIOLATIONS_KEY_PREFIX + getKey(checkedFileName));
+        Map<String, SortedSet<LocalizedMessage>> violations = new HashMap<>();
+        if (value != null) {
+            violations = deserializeViolations(value);
+        }
+        return violations;
+    }
+
+    /**
+     * Serializes violations to a string. The string is the key of the set of
+     * modules followed by the serialized violations and indexes of modules,
+     * which found them.
+     * @param violations the violations mapped from the fingerprints of modules.
+     * @return the serialized violations, or {@code null} if some violation
+     *     has arguments, which are not serializable.
+     */
+    private String serializeViolations(Map<String, SortedSet<LocalizedMessage>> violations) {
+        final List<LocalizedMessage> messages = new ArrayList<>();
+        final List<Integer> modules = new ArrayList<>();
+        for (Map.Entry<String, SortedSet<LocalizedMessage>> entry : violations.entrySet()) {
+            final Integer module = moduleIndexes.get(entry.getKey());
+            if (module != null) {
+                for (LocalizedMessage message : entry.getValue()) {
+                    messages.add(message);
+                    modules.add(module);
+                }
+            }
+        }
+
+        String value = modulesKey + STAT_SEPARATOR;
+        if (!messages.isEmpty()) {
+            try {
+                final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                serialize(new Serializable[] {
+                    messages.toArray(new LocalizedMessage[messages.size()]),
+                    modules.stream().mapToInt(Integer::intValue).toArray(),
+                }, outputStream);
+                value += Base64.getEncoder().encodeToString(outputStream.toByteArray());
+            }
+            catch (IOException ignored) {
+                // the violations are not stored
+                value = null;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Deserializes violations from a string.
+     * @param value the serialized violations.
+     * @return the violations mapped from the fingerprints of modules, or
+     *     {@code null} if they can not be deserialized.
+     */
+    private Map<String, SortedSet<LocalizedMessage>> deserializeViolations(String value) {
+        final int separator = value.indexOf(STAT_SEPARATOR);
+        List<String> modules = null;
+        if (separator >= 0) {
+            modules = moduleSets.computeIfAbsent(value.substring(0, separator),
+                key -> getModules(details.get(MODULES_KEY_PREFIX + key)));
+        }
+        Map<String, SortedSet<LocalizedMessage>> violations = null;
+        if (modules != null) {
+            violations = new HashMap<>();
+            for (String module : modules) {
+                violations.put(module, new TreeSet<>());
+            }
+            final String serialized = value.substring(separator + 1);
+            if (!serialized.isEmpty()) {
+                try (ObjectInputStream inputStream = new ObjectInputStream(
+                        new ByteArrayInputStream(Base64.getDecoder().decode(serialized)))) {
+                    final Serializable[] parts = (Serializable[]) inputStream.readObject();
+                    final LocalizedMessage[] messages = (LocalizedMessage[]) parts[0];
+                    final int[] messageModules = (int[]) parts[1];
+                    for (int i = 0; i < messages.length; i++) {
+                        violations.get(modules.get(messageModules[i])).add(messages[i]);
+                    }
+                }
+                catch (IOException | ClassNotFoundException | ClassCastException
+                        | IllegalArgumentException | IndexOutOfBoundsException ignored) {
+                    // the cache is broken or was written by an incompatible version
+                    violations = null;
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Parses the fingerprints of a set of modules.
+     * @param value the fingerprints separated by commas, or {@code null}.
+     * @return the fingerprints, or {@code null} if the value is {@code null}.
+     */
+    private static List<String> getModules(String value) {
+        List<String> modules = null;
+        if (value != null) {
+            modules = Collections.emptyList();
+            if (!value.isEmpty()) {
+                modules = Arrays.asList(value.split(MODULE_SEPARATOR));
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * Returns the key of a file in the cache.
+     * @param checkedFileName the absolute name of the file.
+     * @return the name relative to the base directory with forward slashes
+     *     in content mode, the name itself otherwise.
+     */
+    private String getKey(String checkedFileName) {
+        String key = checkedFileName;
+        if (contentMode) {
+            key = CommonUtils.relativizeAndNormalizePath(basedir, checkedFileName)
+                    .replace(File.separatorChar, '/');
+        }
+        return key;
+    }
+
+    /**
+     * Returns the size and the timestamp of a file as a prefix of its cached value.
+     * @param file the file.
+     * @return the size and the timestamp followed by separators.
+     */
+    private static String getStat(File file) {
+        return Long.toString(file.length()) + STAT_SEPARATOR + file.lastModified()
+                + STAT_SEPARATOR;
+    }
+
+    /**
+     * Calculates the hash of the content of a file. A fast non-cryptographic
+     * hash is used, because the cache does not need protection from collisions
+     * created on purpose.
+     * @param file the file.
+     * @return the hash, or {@code null} if the file can not be read.
+     */
+    private static String getContentHash(File file) {
+        String hash = null;
+        try {
+            hash = Hashing.murmur3_128().hashBytes(Files.readAllBytes(file.toPath())).toString();
+        }
+        catch (IOException ignored) {
+            // the file is reported as not cached, and the error is reported on processing
+        }
+        return hash;
     }
 
     /**
@@ -218,7 +823,7 @@ final class PropertyCacheFile {
      * @param object serializable object.
      * @return the hashcode for serializable object.
      */
-    private static String getHashCodeBasedOnObjectContent(Serializable object) {
+    static String getHashCodeBasedOnObjectContent(Serializable object) {
         try {
             final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             // in-memory serialization of Configuration
@@ -257,29 +862,41 @@ final class PropertyCacheFile {
 
     /**
      * Puts external resources in cache.
-     * If at least one external resource changed, clears the cache.
+     * The cache is not cleared if an external resource changed. The modules,
+     * which depend on the resource, include its hash in their fingerprints,
+     * so only their violations are not taken from the cache.
      * @param locations locations of external resources.
      */
     public void putExternalResources(Set<String> locations) {
         final Set<ExternalResource> resources = loadExternalResources(locations);
-        if (areExternalResourcesChanged(resources)) {
-            reset();
-        }
         fillCacheWithExternalResources(resources);
     }
 
+    /**
+     * Returns the hash of the content of an external resource, which was put in cache.
+     * @param location the location of the resource.
+     * @return the hash, or {@code null} if the resource is not in cache.
+     */
+    public String getExternalResourceHash(String location) {
+        String hash = details.get(EXTERNAL_RESOURCE_KEY_PREFIX + location);
+        if (hash != null) {
+            hash = hash.substring(hash.lastIndexOf(STAT_SEPARATOR) + 1);
+        }
+        return hash;
+    }
+
     /**
      * Loads a set of {@link ExternalResource} based on their locations.
      * @param resourceLocations locations of external configuration resources.
      * @return a set of {@link ExternalResource}.
      */
-    private static Set<ExternalResource> loadExternalResources(Set<String> resourceLocations) {
+    private Set<ExternalResource> loadExternalResources(Set<String> resourceLocations) {
         final Set<ExternalResource> resources = new HashSet<>();
         for (String location : resourceLocations) {
+            final String key = EXTERNAL_RESOURCE_KEY_PREFIX + location;
             String contentHashSum = null;
             try {
-                final byte[] content = loadExternalResource(location);
-                contentHashSum = getHashCodeBasedOnObjectContent(content);
+                contentHashSum = getExternalResourceHashSum(location, details.get(key));
             }
             catch (CheckstyleException ex) {
                 // if exception happened (configuration resource was not found, connection is not
@@ -289,74 +906,60 @@ final class PropertyCacheFile {
                 contentHashSum = getHashCodeBasedOnObjectContent(ex);
             }
             finally {
-                resources.add(new ExternalResource(EXTERNAL_RESOURCE_KEY_PREFIX + location,
-                        contentHashSum));
+                resources.add(new ExternalResource(key, contentHashSum));
             }
         }
         return resources;
     }
 
     /**
-     * Loads the content of external resource.
+     * Calculates the hash sum of the content of external resource. The hash sum
+     * of a local file is preceded by its size and timestamp, so the file is not
+     * read again while they are the same as the cached ones. The content is
+     * streamed into the hash instead of being loaded as a whole.
      * @param location external resource location.
-     * @return array of bytes which represents the content of external resource in binary form.
+     * @param cachedValue the cached hash sum of the resource, or {@code null}.
+     * @return the hash sum of the content of the resource.
      * @throws CheckstyleException if error while loading occurs.
      */
-    private static byte[] loadExternalResource(String location) throws CheckstyleException {
-        final byte[] content;
+    private static String getExternalResourceHashSum(String location, String cachedValue)
+            throws CheckstyleException {
         final URI uri = CommonUtils.getUriByFilename(location);
-
-        try {
-            content = ByteStreams.toByteArray(new BufferedInputStream(uri.toURL().openStream()));
-        }
-        catch (IOException ex) {
-            throw new CheckstyleException("Unable to load external resource file " + location, ex);
+        String stat = "";
+        if ("file".equals(uri.getScheme())) {
+            stat = getStat(new File(uri));
         }
-
-        return content;
-    }
-
-    /**
-     * Checks whether the contents of external configuration resources were changed.
-     * @param resources a set of {@link ExternalResource}.
-     * @return true if the contents of external configuration resources were changed.
-     */
-    private boolean areExternalResourcesChanged(Set<ExternalResource> resources) {
-        return resources.stream().anyMatch(resource -> {
-            boolean changed = false;
-            if (isResourceLocationInCache(resource.location)) {
-                final String contentHashSum = resource.contentHashSum;
-                final String cachedHashSum = details.getProperty(resource.location);
-                if (!cachedHashSum.equals(contentHashSum)) {
-                    changed = true;
+        String contentHashSum = cachedValue;
+        if (stat.isEmpty() || cachedValue == null || !cachedValue.startsWith(stat)) {
+            final Hasher hasher = Hashing.murmur3_128().newHasher();
+            try (InputStream stream = uri.toURL().openStream()) {
+                final byte[] buffer = new byte[HASH_BUFFER_SIZE];
+                int length = stream.read(buffer);
+                while (length != -1) {
+                    hasher.putBytes(buffer, 0, length);
+                    length = stream.read(buffer);
                 }
             }
-            else {
-                changed = true;
+            catch (IOException ex) {
+                throw new CheckstyleException("Unable to load external resource file "
+                        + location, ex);
             }
-            return changed;
-        });
+            contentHashSum = stat + hasher.hash();
+        }
+        return contentHashSum;
     }
 
     /**
      * Fills cache with a set of {@link ExternalResource}.
-     * If external resource from the set is already in cache, it will be skipped.
+     * If external resource from the set is already in cache with the same
+     * hash, it will be skipped.
      * @param externalResources a set of {@link ExternalResource}.
      */
     private void fillCacheWithExternalResources(Set<ExternalResource> externalResources) {
         externalResources.stream()
-            .filter(resource -> !isResourceLocationInCache(resource.location))
-            .forEach(resource -> details.setProperty(resource.location, resource.contentHashSum));
-    }
-
-    /**
-     * Checks whether resource location is in cache.
-     * @param location resource location.
-     * @return true if resource location is in cache.
-     */
-    private boolean isResourceLocationInCache(String location) {
-        final String cachedHashSum = details.getProperty(location);
-        return cachedHashSum != null;
+            .peek(resource -> usedResources.add(resource.location))
+            .filter(resource -> !resource.contentHashSum.equals(details.get(resource.location)))
+            .forEach(resource -> details.put(resource.location, resource.contentHashSum));
     }
 
     /**
@@ -80,21 +80,13 @@ public class ThreadModeSettings implements Serializable {
 
     /**
      * Resolves the module name according to the thread settings.
+     * {@link Checker} and {@link TreeWalker} run in multi thread mode by
+     * themselves, they take the numbers of threads from these settings, so
+     * every name is resolved to itself.
      * @param name The original module name.
      * @return resolved module name.
      */
     public final String resolveName(String name) {
-        if (checkerThreadsNumber > 1) {
-            if (CHECKER_MODULE_NAME.equals(name)) {
-                throw new IllegalArgumentException(
-                        "Multi thread mode for Checker module is not implemented");
-            }
-            if (TREE_WALKER_MODULE_NAME.equals(name)) {
-                throw new IllegalArgumentException(
-                        "Multi thread mode for TreeWalker module is not implemented");
-            }
-        }
-
         return name;
     }
 }
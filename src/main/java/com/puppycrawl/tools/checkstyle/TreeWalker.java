@@ -22,24 +22,28 @@ package com.puppycrawl.tools.checkstyle;
 import java.io.File;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.AbstractMap.SimpleEntry;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
-import antlr.CommonHiddenStreamToken;
 import antlr.RecognitionException;
-import antlr.Token;
 import antlr.TokenStreamException;
 import antlr.TokenStreamHiddenTokenFilter;
 import antlr.TokenStreamRecognitionException;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.Hashing;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.AbstractFileSetCheck;
 import com.puppycrawl.tools.checkstyle.api.AutomaticBean;
@@ -52,6 +56,8 @@ import com.puppycrawl.tools.checkstyle.api.FileContents;
 import com.puppycrawl.tools.checkstyle.api.FileText;
 import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import com.puppycrawl.tools.checkstyle.checks.SuppressWarningsHolder;
+import com.puppycrawl.tools.checkstyle.grammars.CommentListener;
 import com.puppycrawl.tools.checkstyle.grammars.GeneratedJavaLexer;
 import com.puppycrawl.tools.checkstyle.grammars.GeneratedJavaRecognizer;
 import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
@@ -63,14 +69,17 @@ import com.puppycrawl.tools.checkstyle.utils.TokenUtils;
  *
  * @author Oliver Burn
  */
-// -@cs[ClassFanOutComplexity] To resolve issue 4714, new classes were imported. Number of
-// classes current class relies on currently is 27, which is above threshold 25.
+// -@cs[ClassFanOutComplexity|MethodCount] To resolve issue 4714, new classes were imported.
+// Number of classes current class relies on currently is 32, which is above threshold 25.
 // see https://github.com/checkstyle/checkstyle/issues/4714.
 public final class TreeWalker extends AbstractFileSetCheck implements ExternalResourceHolder {
 
     /** Default distance between tab stops. */
     private static final int DEFAULT_TAB_WIDTH = 8;
 
+    /** Default number of days, which unused entries are kept in the cache of ASTs for. */
+    private static final int DEFAULT_AST_CACHE_MAX_AGE = 7;
+
     /** Maps from token name to ordinary checks. */
     private final Multimap<String, AbstractCheck> tokenToOrdinaryChecks =
         HashMultimap.create();
@@ -88,8 +97,11 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
     /** The ast filters. */
     private final Set<TreeWalkerFilter> filters = new HashSet<>();
 
-    /** The sorted set of messages. */
-    private final SortedSet<LocalizedMessage> messages = new TreeSet<>();
+    /**
+     * Configurations of the checks, which can be run separately, mapped from
+     * the checks.
+     */
+    private final Map<AbstractCheck, Configuration> checkConfigurations = new HashMap<>();
 
     /** The distance between tab stops. */
     private int tabWidth = DEFAULT_TAB_WIDTH;
@@ -103,6 +115,46 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
     /** A factory for creating submodules (i.e. the Checks) */
     private ModuleFactory moduleFactory;
 
+    /** The number of threads, which run checks on the same AST. */
+    private int threadsNumber = 1;
+
+    /** Dispatch tables, created at the first walk with each set of checks. */
+    private final Map<Set<AbstractCheck>, CheckDispatchTable> dispatchTables =
+            new HashMap<>();
+
+    /** Groups of checks, which are run by separate threads, mapped from the sets of checks. */
+    private final Map<Set<AbstractCheck>, List<CheckGroup>> checkGroups = new HashMap<>();
+
+    /** The cache of ASTs, or {@code null} if ASTs are not cached. */
+    private AstCache astCache;
+
+    /** The number of days, which unused entries are kept in the cache of ASTs for. */
+    private int astCacheMaxAge = DEFAULT_AST_CACHE_MAX_AGE;
+
+    /** The maximum number of entries in the cache of ASTs, zero means no limit. */
+    private int astCacheMaxSize;
+
+    /** Runs groups of checks in multi-thread mode. */
+    private MultiThreadCheckRunner checkRunner;
+
+    /**
+     * Whether files with the same name and content as a file, which was
+     * checked before in the same run, are not checked again.
+     */
+    private boolean skipDuplicateFiles;
+
+    /**
+     * Whether a check or filter depends on the paths of files, so that only
+     * a file with the same path and content is a duplicate.
+     */
+    private boolean filePathDependent;
+
+    /**
+     * Files, which were checked in the current run, mapped from hashes of
+     * names, or paths, and contents of the files.
+     */
+    private final Map<String, CheckedFile> checkedFiles = new ConcurrentHashMap<>();
+
     /**
      * Creates a new {@code TreeWalker} instance.
      */
@@ -131,6 +183,46 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
         // Deprecated
     }
 
+    /**
+     * Sets the directory of the persistent cache of ASTs, which spares parsing
+     * of files, which were parsed before with the same contents.
+     * @param directory the directory of the cache
+     */
+    public void setAstCacheDirectory(String directory) {
+        astCache = new AstCache(Paths.get(directory));
+    }
+
+    /**
+     * Sets the number of days, which entries of the cache of ASTs, that were
+     * not used since then, are kept for.
+     * @param astCacheMaxAge the number of days.
+     */
+    public void setAstCacheMaxAge(int astCacheMaxAge) {
+        this.astCacheMaxAge = astCacheMaxAge;
+    }
+
+    /**
+     * Sets the maximum number of entries in the cache of ASTs. The entries,
+     * which were not used for the longest time, are removed first.
+     * @param astCacheMaxSize the maximum number of entries, zero means no limit.
+     */
+    public void setAstCacheMaxSize(int astCacheMaxSize) {
+        this.astCacheMaxSize = astCacheMaxSize;
+    }
+
+    /**
+     * Sets whether files with the same name and content as a file, which was
+     * checked before in the same run, are not checked again, and the messages
+     * of that file are reported for them. Filters of {@link Checker} are still
+     * applied to the messages of each file. If a check or filter is annotated
+     * with {@link FilePathDependentModule}, files must also have the same path
+     * to be duplicates.
+     * @param skipDuplicateFiles whether duplicate files are not checked again
+     */
+    public void setSkipDuplicateFiles(boolean skipDuplicateFiles) {
+        this.skipDuplicateFiles = skipDuplicateFiles;
+    }
+
     /**
      * Sets classLoader to load class.
      * @param classLoader class loader to resolve classes with.
@@ -155,6 +247,12 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
         checkContext.add("tabWidth", String.valueOf(tabWidth));
 
         childContext = checkContext;
+
+        final Configuration configuration = getConfiguration();
+        if (configuration instanceof DefaultConfiguration) {
+            threadsNumber = ((DefaultConfiguration) configuration).getThreadModeSettings()
+                    .getTreeWalkerThreadsNumber();
+        }
     }
 
     /**
@@ -166,6 +264,9 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
             throws CheckstyleException {
         final String name = childConf.getName();
         final Object module = moduleFactory.createModule(name);
+        if (module.getClass().isAnnotationPresent(FilePathDependentModule.class)) {
+            filePathDependent = true;
+        }
         if (module instanceof AutomaticBean) {
             final AutomaticBean bean = (AutomaticBean) module;
             bean.contextualize(childContext);
@@ -175,6 +276,10 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
             final AbstractCheck check = (AbstractCheck) module;
             check.init();
             registerCheck(check);
+            // filters read the state of the holder, so it is run with any checks
+            if (!(check instanceof SuppressWarningsHolder)) {
+                checkConfigurations.put(check, childConf);
+            }
         }
         else if (module instanceof TreeWalkerFilter) {
             final TreeWalkerFilter filter = (TreeWalkerFilter) module;
@@ -190,29 +295,177 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
 
     @Override
     protected void processFiltered(File file, FileText fileText) throws CheckstyleException {
+        for (SortedSet<LocalizedMessage> checkMessages
+                : runChecks(file, fileText, ordinaryChecks, commentChecks).values()) {
+            addMessages(checkMessages);
+        }
+    }
+
+    /**
+     * Returns the configurations of the checks, which can be run separately by
+     * {@link #processChecks}. {@link SuppressWarningsHolder} is not included,
+     * because it is run with any checks.
+     * @return the configurations of the checks.
+     */
+    Collection<Configuration> getCheckConfigurations() {
+        return Collections.unmodifiableCollection(checkConfigurations.values());
+    }
+
+    /**
+     * Processes a file with some of the checks, keeping the messages of each
+     * check apart.
+     * @param file the file to process.
+     * @param fileText the text of the file.
+     * @param configurations the configurations of the checks to run.
+     * @return the messages of each check, which passed the filters, mapped
+     *     from the configurations of the checks.
+     * @throws CheckstyleException if the file can not be parsed.
+     */
+    Map<Configuration, SortedSet<LocalizedMessage>> processChecks(File file, FileText fileText,
+            Set<Configuration> configurations) throws CheckstyleException {
+        final Set<AbstractCheck> ordinary = getChecks(ordinaryChecks, configurations);
+        final Set<AbstractCheck> comment = getChecks(commentChecks, configurations);
+        final Map<AbstractCheck, SortedSet<LocalizedMessage>> checkMessages =
+                runChecks(file, fileText, ordinary, comment);
+
+        final Map<Configuration, SortedSet<LocalizedMessage>> result = new HashMap<>();
+        for (Map.Entry<AbstractCheck, Configuration> entry : checkConfigurations.entrySet()) {
+            final Configuration configuration = entry.getValue();
+            if (configurations.contains(configuration)) {
+                final SortedSet<LocalizedMessage> messages =
+                        checkMessages.getOrDefault(entry.getKey(), new TreeSet<>());
+                result.computeIfAbsent(configuration, key -> new TreeSet<>()).addAll(messages);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects the checks, which have one of the given configurations or can not
+     * be run separately.
+     * @param checks the checks to select from.
+     * @param configurations the configurations of the checks to select.
+     * @return the selected checks.
+     */
+    private Set<AbstractCheck> getChecks(Set<AbstractCheck> checks,
+            Set<Configuration> configurations) {
+        final Set<AbstractCheck> result = new HashSet<>();
+        for (AbstractCheck check : checks) {
+            final Configuration configuration = checkConfigurations.get(check);
+            if (configuration == null || configurations.contains(configuration)) {
+                result.add(check);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs checks on a file, or takes their messages from a duplicate file,
+     * which was checked before, if duplicate files are skipped. The filters
+     * are applied to the messages for the path of the file in both cases.
+     * @param file the file to check.
+     * @param fileText the text of the file.
+     * @param ordinary the ordinary checks to run.
+     * @param comment the comment checks to run.
+     * @return the messages of each check, which passed the filters.
+     * @throws CheckstyleException if the file can not be parsed.
+     */
+    private Map<AbstractCheck, SortedSet<LocalizedMessage>> runChecks(File file,
+            FileText fileText, Set<AbstractCheck> ordinary, Set<AbstractCheck> comment)
+            throws CheckstyleException {
+        CheckedFile checkedFile = null;
+        String fileKey = null;
+        if (skipDuplicateFiles) {
+            final String name;
+            if (filePathDependent) {
+                name = file.getAbsolutePath();
+            }
+            else {
+                name = file.getName();
+            }
+            fileKey = Hashing.murmur3_128().newHasher()
+                    .putInt(name.length())
+                    .putUnencodedChars(name)
+                    .putUnencodedChars(fileText.getFullText())
+                    .hash().toString();
+            final CheckedFile checked = checkedFiles.get(fileKey);
+            if (checked != null && checked.messages.keySet().containsAll(ordinary)
+                    && checked.messages.keySet().containsAll(comment)) {
+                checkedFile = checked;
+            }
+        }
+        if (checkedFile == null) {
+            final FileContents contents = new FileContents(fileText);
+            final Map<AbstractCheck, SortedSet<LocalizedMessage>> checkMessages =
+                    checkFile(file, contents, ordinary, comment);
+            if (fileKey == null) {
+                checkedFile = new CheckedFile(contents);
+            }
+            else {
+                checkedFile = checkedFiles.computeIfAbsent(fileKey,
+                    key -> new CheckedFile(contents));
+            }
+            checkedFile.messages.putAll(checkMessages);
+        }
+
+        final Map<AbstractCheck, SortedSet<LocalizedMessage>> result = new HashMap<>();
+        putFilteredMessages(result, file.getPath(), checkedFile, ordinary);
+        putFilteredMessages(result, file.getPath(), checkedFile, comment);
+        return result;
+    }
+
+    /**
+     * Applies the filters to the messages of checks in a file and puts the
+     * messages, which passed the filters, into a map.
+     * @param result the map to put the messages of each check into.
+     * @param fileName the path to the file.
+     * @param checkedFile the checked file.
+     * @param checks the checks to take the messages of.
+     */
+    private void putFilteredMessages(Map<AbstractCheck, SortedSet<LocalizedMessage>> result,
+            String fileName, CheckedFile checkedFile, Set<AbstractCheck> checks) {
+        for (AbstractCheck check : checks) {
+            final SortedSet<LocalizedMessage> messages = checkedFile.messages.get(check);
+            if (messages != null) {
+                result.put(check, getFilteredMessages(fileName, checkedFile.contents, messages));
+            }
+        }
+    }
+
+    /**
+     * Parses a file and walks it with checks.
+     * @param file the file to check.
+     * @param contents the contents of the file.
+     * @param ordinary the ordinary checks to run.
+     * @param comment the comment checks to run.
+     * @return the messages of each check before filtering.
+     * @throws CheckstyleException if the file can not be parsed.
+     */
+    private Map<AbstractCheck, SortedSet<LocalizedMessage>> checkFile(File file,
+            FileContents contents, Set<AbstractCheck> ordinary, Set<AbstractCheck> comment)
+            throws CheckstyleException {
+        final Map<AbstractCheck, SortedSet<LocalizedMessage>> checkMessages = new HashMap<>();
         // check if already checked and passed the file
-        if (CommonUtils.matchesFileExtension(file, getFileExtensions())) {
+        if (CommonUtils.matchesFileExtension(file, getFileExtensions())
+                && (!ordinary.isEmpty() || !comment.isEmpty())) {
             final String msg = "%s occurred during the analysis of file %s.";
             final String fileName = file.getPath();
 
             try {
-                if (!ordinaryChecks.isEmpty()
-                        || !commentChecks.isEmpty()) {
-                    final FileContents contents = new FileContents(fileText);
-                    final DetailAST rootAST = parse(contents);
-
-                    if (!ordinaryChecks.isEmpty()) {
-                        walk(rootAST, contents, AstState.ORDINARY);
-                    }
-                    if (!commentChecks.isEmpty()) {
-                        final DetailAST astWithComments = appendHiddenCommentNodes(rootAST);
-
-                        walk(astWithComments, contents, AstState.WITH_COMMENTS);
-                    }
-                    final SortedSet<LocalizedMessage> filteredMessages =
-                            getFilteredMessages(fileName, contents);
-                    addMessages(filteredMessages);
-                    messages.clear();
+                final DetailAST rootAST;
+                if (astCache == null) {
+                    rootAST = parse(contents);
+                }
+                else {
+                    rootAST = astCache.parse(contents);
+                }
+
+                walkChecks(rootAST, contents, ordinary, comment);
+                for (AbstractCheck check : ordinary) {
+                    checkMessages.put(check, check.getMessages());
+                }
+                for (AbstractCheck check : comment) {
+                    checkMessages.put(check, check.getMessages());
                 }
             }
             catch (final TokenStreamRecognitionException tre) {
@@ -226,16 +479,50 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
                 throw new CheckstyleException(exceptionMsg, ex);
             }
         }
+        return checkMessages;
     }
 
     /**
-     * Returns filtered set of {@link LocalizedMessage}.
+     * Walks the AST of a file with ordinary checks and then the AST with
+     * comment nodes with comment checks.
+     * @param rootAST the root of the AST without comments.
+     * @param contents the contents of the file.
+     * @param ordinary the ordinary checks to run.
+     * @param comment the comment checks to run.
+     * @throws CheckstyleException if a check fails.
+     */
+    private void walkChecks(DetailAST rootAST, FileContents contents,
+            Set<AbstractCheck> ordinary, Set<AbstractCheck> comment)
+            throws CheckstyleException {
+        if (comment.isEmpty()) {
+            walk(rootAST, contents, AstState.ORDINARY, ordinary, null);
+        }
+        else {
+            final DetailAST astWithComments;
+            if (ordinary.isEmpty()) {
+                astWithComments = HiddenCommentCollector.appendHiddenCommentNodes(rootAST);
+            }
+            else {
+                // comments are found by the same traversal, which runs ordinary checks
+                final HiddenCommentCollector collector = new HiddenCommentCollector();
+                walk(rootAST, contents, AstState.ORDINARY, ordinary, collector);
+                astWithComments = collector.appendCommentNodes(rootAST);
+            }
+
+            walk(astWithComments, contents, AstState.WITH_COMMENTS, comment, null);
+        }
+    }
+
+    /**
+     * Returns filtered set of {@link LocalizedMessage} of a check.
      * @param fileName path to the file
      * @param fileContents the contents of the file
+     * @param messages the messages of the check, which walked the file
      * @return filtered set of messages
      */
     private SortedSet<LocalizedMessage> getFilteredMessages(String fileName,
-                                                            FileContents fileContents) {
+                                                            FileContents fileContents,
+                                                            SortedSet<LocalizedMessage> messages) {
         final SortedSet<LocalizedMessage> result = new TreeSet<>(messages);
         for (LocalizedMessage element : messages) {
             final TreeWalkerAuditEvent event =
@@ -349,35 +636,96 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
      * @param ast the root AST
      * @param contents the contents of the file the AST was generated from.
      * @param astState state of AST.
+     * @param checks the checks to notify, they use comment nodes in the state
+     *     with comments, and do not use them otherwise.
+     * @param collector the collector of nodes with hidden comments, or {@code null}.
+     * @throws CheckstyleException if the walk by several threads was interrupted
+     */
+    private void walk(DetailAST ast, FileContents contents, AstState astState,
+            Set<AbstractCheck> checks, HiddenCommentCollector collector)
+            throws CheckstyleException {
+        final Multimap<String, AbstractCheck> tokenToChecks;
+
+        if (astState == AstState.WITH_COMMENTS) {
+            tokenToChecks = tokenToCommentChecks;
+        }
+        else {
+            tokenToChecks = tokenToOrdinaryChecks;
+        }
+
+        if (threadsNumber > 1) {
+            final List<CheckGroup> groups = checkGroups.computeIfAbsent(checks,
+                key -> CheckGroup.distribute(key, tokenToChecks, threadsNumber));
+            walkByThreads(ast, contents, groups, collector);
+        }
+        else {
+            final CheckDispatchTable table = dispatchTables.computeIfAbsent(checks,
+                key -> new CheckDispatchTable(tokenToChecks, checks));
+            walk(ast, contents, checks, table, collector);
+        }
+    }
+
+    /**
+     * Walks an AST with the given checks.
+     * @param ast the root AST
+     * @param contents the contents of the file the AST was generated from.
+     * @param checks the checks to notify.
+     * @param table the checks to notify indexed by token type.
+     * @param collector the collector of nodes with hidden comments, or {@code null}.
      */
-    private void walk(DetailAST ast, FileContents contents,
-            AstState astState) {
-        notifyBegin(ast, contents, astState);
+    private static void walk(DetailAST ast, FileContents contents, Set<AbstractCheck> checks,
+            CheckDispatchTable table, HiddenCommentCollector collector) {
+        notifyBegin(ast, contents, checks);
 
         // empty files are not flagged by javac, will yield ast == null
         if (ast != null) {
-            processIter(ast, astState);
+            processIter(ast, table, collector);
         }
-        notifyEnd(ast, astState);
+        notifyEnd(ast, checks);
     }
 
     /**
-     * Notify checks that we are about to begin walking a tree.
-     * @param rootAST the root of the tree.
+     * Walks an AST with each group of checks by a separate thread.
+     * @param ast the root AST
      * @param contents the contents of the file the AST was generated from.
-     * @param astState state of AST.
+     * @param groups the groups of checks.
+     * @param collector the collector of nodes with hidden comments, or {@code null}.
+     * @throws CheckstyleException if the calling thread was interrupted
      */
-    private void notifyBegin(DetailAST rootAST, FileContents contents,
-            AstState astState) {
-        final Set<AbstractCheck> checks;
+    private void walkByThreads(DetailAST ast, FileContents contents, List<CheckGroup> groups,
+            HiddenCommentCollector collector) throws CheckstyleException {
+        if (checkRunner == null) {
+            checkRunner = new MultiThreadCheckRunner(threadsNumber);
+        }
 
-        if (astState == AstState.WITH_COMMENTS) {
-            checks = commentChecks;
+        // lazy caches of the shared AST are filled before other threads read them
+        for (DetailAST node = ast; node != null; node = node.getNextSibling()) {
+            node.branchContains(TokenTypes.EOF);
         }
-        else {
-            checks = ordinaryChecks;
+
+        final List<Runnable> tasks = new ArrayList<>(groups.size());
+        for (CheckGroup group : groups) {
+            // only the first group collects nodes, as it is run by the calling thread
+            final HiddenCommentCollector groupCollector;
+            if (tasks.isEmpty()) {
+                groupCollector = collector;
+            }
+            else {
+                groupCollector = null;
+            }
+            tasks.add(() -> walk(ast, contents, group.checks, group.table, groupCollector));
         }
+        checkRunner.run(tasks);
+    }
 
+    /**
+     * Notify checks that we are about to begin walking a tree.
+     * @param rootAST the root of the tree.
+     * @param contents the contents of the file the AST was generated from.
+     * @param checks the checks to notify.
+     */
+    private static void notifyBegin(DetailAST rootAST, FileContents contents,
+            Set<AbstractCheck> checks) {
         for (AbstractCheck check : checks) {
             check.setFileContents(contents);
             check.clearMessages();
@@ -388,36 +736,22 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
     /**
      * Notify checks that we have finished walking a tree.
      * @param rootAST the root of the tree.
-     * @param astState state of AST.
+     * @param checks the checks to notify.
      */
-    private void notifyEnd(DetailAST rootAST, AstState astState) {
-        final Set<AbstractCheck> checks;
-
-        if (astState == AstState.WITH_COMMENTS) {
-            checks = commentChecks;
-        }
-        else {
-            checks = ordinaryChecks;
-        }
-
+    private static void notifyEnd(DetailAST rootAST, Set<AbstractCheck> checks) {
         for (AbstractCheck check : checks) {
             check.finishTree(rootAST);
-            messages.addAll(check.getMessages());
         }
     }
 
     /**
      * Notify checks that visiting a node.
      * @param ast the node to notify for.
-     * @param astState state of AST.
+     * @param table the checks indexed by token type.
      */
-    private void notifyVisit(DetailAST ast, AstState astState) {
-        final Collection<AbstractCheck> visitors = getListOfChecks(ast, astState);
-
-        if (visitors != null) {
-            for (AbstractCheck check : visitors) {
-                check.visitToken(ast);
-            }
+    private static void notifyVisit(DetailAST ast, CheckDispatchTable table) {
+        for (AbstractCheck check : table.getVisitors(ast.getType())) {
+            check.visitToken(ast);
         }
     }
 
@@ -425,44 +759,14 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
      * Notify checks that leaving a node.
      * @param ast
      *        the node to notify for
-     * @param astState state of AST.
+     * @param table the checks indexed by token type.
      */
-    private void notifyLeave(DetailAST ast, AstState astState) {
-        final Collection<AbstractCheck> visitors = getListOfChecks(ast, astState);
-
-        if (visitors != null) {
-            for (AbstractCheck check : visitors) {
-                check.leaveToken(ast);
-            }
+    private static void notifyLeave(DetailAST ast, CheckDispatchTable table) {
+        for (AbstractCheck check : table.getLeavers(ast.getType())) {
+            check.leaveToken(ast);
         }
     }
 
-    /**
-     * Method returns list of checks.
-     *
-     * @param ast
-     *            the node to notify for
-     * @param astState
-     *            state of AST.
-     * @return list of visitors
-     */
-    private Collection<AbstractCheck> getListOfChecks(DetailAST ast, AstState astState) {
-        Collection<AbstractCheck> visitors = null;
-        final String tokenType = TokenUtils.getTokenName(ast.getType());
-
-        if (astState == AstState.WITH_COMMENTS) {
-            if (tokenToCommentChecks.containsKey(tokenType)) {
-                visitors = tokenToCommentChecks.get(tokenType);
-            }
-        }
-        else {
-            if (tokenToOrdinaryChecks.containsKey(tokenType)) {
-                visitors = tokenToOrdinaryChecks.get(tokenType);
-            }
-        }
-        return visitors;
-    }
-
     /**
      * Static helper method to parses a Java source file.
      *
@@ -476,11 +780,24 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
      */
     public static DetailAST parse(FileContents contents)
             throws RecognitionException, TokenStreamException {
+        return parse(contents, contents);
+    }
+
+    /**
+     * Parses a Java source file and reports its comments to a listener.
+     * @param contents the contents of the file
+     * @param commentListener the listener of comments
+     * @return the root of the AST
+     * @throws TokenStreamException if lexing failed
+     * @throws RecognitionException if parsing failed
+     */
+    static DetailAST parse(FileContents contents, CommentListener commentListener)
+            throws RecognitionException, TokenStreamException {
         final String fullText = contents.getText().getFullText().toString();
         final Reader reader = new StringReader(fullText);
         final GeneratedJavaLexer lexer = new GeneratedJavaLexer(reader);
         lexer.setFilename(contents.getFileName());
-        lexer.setCommentListener(contents);
+        lexer.setCommentListener(commentListener);
         lexer.setTreatAssertAsKeyword(true);
         lexer.setTreatEnumAsKeyword(true);
         lexer.setTokenObjectClass("antlr.CommonHiddenStreamToken");
@@ -508,20 +825,42 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
      */
     public static DetailAST parseWithComments(FileContents contents)
             throws RecognitionException, TokenStreamException {
-        return appendHiddenCommentNodes(parse(contents));
+        return HiddenCommentCollector.appendHiddenCommentNodes(parse(contents));
+    }
+
+    @Override
+    public void finishProcessing() {
+        shutdownCheckRunner();
+        checkedFiles.clear();
     }
 
     @Override
     public void destroy() {
+        shutdownCheckRunner();
         ordinaryChecks.forEach(AbstractCheck::destroy);
         commentChecks.forEach(AbstractCheck::destroy);
+        if (astCache != null) {
+            astCache.evict(astCacheMaxAge, astCacheMaxSize);
+        }
         super.destroy();
     }
 
+    /**
+     * Shuts down the threads, which run groups of checks.
+     */
+    private void shutdownCheckRunner() {
+        if (checkRunner != null) {
+            checkRunner.shutdown();
+            checkRunner = null;
+        }
+    }
+
     @Override
     public Set<String> getExternalResourceLocations() {
-        final Set<String> ordinaryChecksResources = getExternalResourceLocations(ordinaryChecks);
-        final Set<String> commentChecksResources = getExternalResourceLocations(commentChecks);
+        final Set<String> ordinaryChecksResources =
+                CommonUtils.getExternalResourceLocations(ordinaryChecks);
+        final Set<String> commentChecksResources =
+                CommonUtils.getExternalResourceLocations(commentChecks);
         final int resultListSize = ordinaryChecksResources.size() + commentChecksResources.size();
         final Set<String> resourceLocations = new HashSet<>(resultListSize);
         resourceLocations.addAll(ordinaryChecksResources);
@@ -530,78 +869,38 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
     }
 
     /**
-     * Returns a set of external configuration resource locations which are used by the checks set.
-     * @param checks a set of checks.
-     * @return a set of external configuration resource locations which are used by the checks set.
+     * Returns the locations of external resources of a check.
+     * @param configuration the configuration of the check.
+     * @return the locations of the external resources, which the check depends on.
      */
-    private static Set<String> getExternalResourceLocations(Set<AbstractCheck> checks) {
-        final Set<String> externalConfigurationResources = new HashSet<>();
-        checks.stream().filter(check -> check instanceof ExternalResourceHolder).forEach(check -> {
-            final Set<String> checkExternalResources =
-                ((ExternalResourceHolder) check).getExternalResourceLocations();
-            externalConfigurationResources.addAll(checkExternalResources);
-        });
-        return externalConfigurationResources;
+    Set<String> getExternalResourceLocations(Configuration configuration) {
+        final List<AbstractCheck> checks = new ArrayList<>();
+        for (Map.Entry<AbstractCheck, Configuration> entry : checkConfigurations.entrySet()) {
+            if (entry.getValue() == configuration) {
+                checks.add(entry.getKey());
+            }
+        }
+        return CommonUtils.getExternalResourceLocations(checks);
     }
 
     /**
      * Processes a node calling interested checks at each node.
      * Uses iterative algorithm.
      * @param root the root of tree for process
-     * @param astState state of AST.
-     */
-    private void processIter(DetailAST root, AstState astState) {
-        DetailAST curNode = root;
-        while (curNode != null) {
-            notifyVisit(curNode, astState);
-            DetailAST toVisit = curNode.getFirstChild();
-            while (curNode != null && toVisit == null) {
-                notifyLeave(curNode, astState);
-                toVisit = curNode.getNextSibling();
-                if (toVisit == null) {
-                    curNode = curNode.getParent();
-                }
-            }
-            curNode = toVisit;
-        }
-    }
-
-    /**
-     * Appends comment nodes to existing AST.
-     * It traverses each node in AST, looks for hidden comment tokens
-     * and appends found comment tokens as nodes in AST.
-     * @param root
-     *        root of AST.
-     * @return root of AST with comment nodes.
+     * @param table the checks indexed by token type.
+     * @param collector the collector of nodes with hidden comments, or {@code null}.
      */
-    private static DetailAST appendHiddenCommentNodes(DetailAST root) {
-        DetailAST result = root;
+    private static void processIter(DetailAST root, CheckDispatchTable table,
+            HiddenCommentCollector collector) {
         DetailAST curNode = root;
-        DetailAST lastNode = root;
-
         while (curNode != null) {
-            if (isPositionGreater(curNode, lastNode)) {
-                lastNode = curNode;
+            if (collector != null) {
+                collector.collect(curNode);
             }
-
-            CommonHiddenStreamToken tokenBefore = curNode.getHiddenBefore();
-            DetailAST currentSibling = curNode;
-            while (tokenBefore != null) {
-                final DetailAST newCommentNode =
-                         createCommentAstFromToken(tokenBefore);
-
-                currentSibling.addPreviousSibling(newCommentNode);
-
-                if (currentSibling == result) {
-                    result = newCommentNode;
-                }
-
-                currentSibling = newCommentNode;
-                tokenBefore = tokenBefore.getHiddenBefore();
-            }
-
+            notifyVisit(curNode, table);
             DetailAST toVisit = curNode.getFirstChild();
             while (curNode != null && toVisit == null) {
+                notifyLeave(curNode, table);
                 toVisit = curNode.getNextSibling();
                 if (toVisit == null) {
                     curNode = curNode.getParent();
@@ -609,164 +908,75 @@ public final class TreeWalker extends AbstractFileSetCheck implements ExternalRe
             }
             curNode = toVisit;
         }
-        if (lastNode != null) {
-            CommonHiddenStreamToken tokenAfter = lastNode.getHiddenAfter();
-            DetailAST currentSibling = lastNode;
-            while (tokenAfter != null) {
-                final DetailAST newCommentNode =
-                        createCommentAstFromToken(tokenAfter);
-
-                currentSibling.addNextSibling(newCommentNode);
-
-                currentSibling = newCommentNode;
-                tokenAfter = tokenAfter.getHiddenAfter();
-            }
-        }
-        return result;
     }
 
     /**
-     * Checks if position of first DetailAST is greater than position of
-     * second DetailAST. Position is line number and column number in source
-     * file.
-     * @param ast1
-     *        first DetailAST node.
-     * @param ast2
-     *        second DetailAST node.
-     * @return true if position of ast1 is greater than position of ast2.
+     * A file, which was checked in the current run.
      */
-    private static boolean isPositionGreater(DetailAST ast1, DetailAST ast2) {
-        final boolean isGreater;
-        if (ast1.getLineNo() == ast2.getLineNo()) {
-            isGreater = ast1.getColumnNo() > ast2.getColumnNo();
-        }
-        else {
-            isGreater = ast1.getLineNo() > ast2.getLineNo();
-        }
-        return isGreater;
-    }
-
-    /**
-     * Create comment AST from token. Depending on token type
-     * SINGLE_LINE_COMMENT or BLOCK_COMMENT_BEGIN is created.
-     * @param token
-     *        Token object.
-     * @return DetailAST of comment node.
-     */
-    private static DetailAST createCommentAstFromToken(Token token) {
-        final DetailAST commentAst;
-        if (token.getType() == TokenTypes.SINGLE_LINE_COMMENT) {
-            commentAst = createSlCommentNode(token);
-        }
-        else {
-            commentAst = createBlockCommentNode(token);
-        }
-        return commentAst;
-    }
-
-    /**
-     * Create single-line comment from token.
-     * @param token
-     *        Token object.
-     * @return DetailAST with SINGLE_LINE_COMMENT type.
-     */
-    private static DetailAST createSlCommentNode(Token token) {
-        final DetailAST slComment = new DetailAST();
-        slComment.setType(TokenTypes.SINGLE_LINE_COMMENT);
-        slComment.setText("//");
-
-        // column counting begins from 0
-        slComment.setColumnNo(token.getColumn() - 1);
-        slComment.setLineNo(token.getLine());
-
-        final DetailAST slCommentContent = new DetailAST();
-        slCommentContent.setType(TokenTypes.COMMENT_CONTENT);
+    private static final class CheckedFile {
+        /**
+         * The contents of the file, which keep the comments found by the parser
+         * and are passed to the filters.
+         */
+        private final FileContents contents;
 
-        // column counting begins from 0
-        // plus length of '//'
-        slCommentContent.setColumnNo(token.getColumn() - 1 + 2);
-        slCommentContent.setLineNo(token.getLine());
-        slCommentContent.setText(token.getText());
+        /** The messages of each check, which walked the file, before filtering. */
+        private final Map<AbstractCheck, SortedSet<LocalizedMessage>> messages =
+                new ConcurrentHashMap<>();
 
-        slComment.addChild(slCommentContent);
-        return slComment;
+        /**
+         * Creates a new instance.
+         * @param contents the contents of the file.
+         */
+        CheckedFile(FileContents contents) {
+            this.contents = contents;
+        }
     }
 
     /**
-     * Create block comment from token.
-     * @param token
-     *        Token object.
-     * @return DetailAST with BLOCK_COMMENT type.
+     * Checks, which walk an AST by the same thread.
      */
-    private static DetailAST createBlockCommentNode(Token token) {
-        final DetailAST blockComment = new DetailAST();
-        blockComment.initialize(TokenTypes.BLOCK_COMMENT_BEGIN, "/*");
+    private static final class CheckGroup {
+        /** The checks of the group. */
+        private final Set<AbstractCheck> checks = new HashSet<>();
 
-        // column counting begins from 0
-        blockComment.setColumnNo(token.getColumn() - 1);
-        blockComment.setLineNo(token.getLine());
+        /** The checks of the group indexed by token type. */
+        private CheckDispatchTable table;
 
-        final DetailAST blockCommentContent = new DetailAST();
-        blockCommentContent.setType(TokenTypes.COMMENT_CONTENT);
-
-        // column counting begins from 0
-        // plus length of '/*'
-        blockCommentContent.setColumnNo(token.getColumn() - 1 + 2);
-        blockCommentContent.setLineNo(token.getLine());
-        blockCommentContent.setText(token.getText());
-
-        final DetailAST blockCommentClose = new DetailAST();
-        blockCommentClose.initialize(TokenTypes.BLOCK_COMMENT_END, "*/");
-
-        final Entry<Integer, Integer> linesColumns = countLinesColumns(
-                token.getText(), token.getLine(), token.getColumn());
-        blockCommentClose.setLineNo(linesColumns.getKey());
-        blockCommentClose.setColumnNo(linesColumns.getValue());
-
-        blockComment.addChild(blockCommentContent);
-        blockComment.addChild(blockCommentClose);
-        return blockComment;
-    }
-
-    /**
-     * Count lines and columns (in last line) in text.
-     * @param text
-     *        String.
-     * @param initialLinesCnt
-     *        initial value of lines counter.
-     * @param initialColumnsCnt
-     *        initial value of columns counter.
-     * @return entry(pair), first element is lines counter, second - columns
-     *         counter.
-     */
-    private static Entry<Integer, Integer> countLinesColumns(
-            String text, int initialLinesCnt, int initialColumnsCnt) {
-        int lines = initialLinesCnt;
-        int columns = initialColumnsCnt;
-        boolean foundCr = false;
-        for (char c : text.toCharArray()) {
-            if (c == '\n') {
-                foundCr = false;
-                lines++;
-                columns = 0;
+        /**
+         * Distributes checks between groups, one group per thread.
+         * {@link SuppressWarningsHolder} is always put in the first group, which
+         * is run by the calling thread, because its thread local state is read by
+         * the filters.
+         * @param checks the checks to distribute.
+         * @param tokenToChecks the checks mapped from token names.
+         * @param threadsNumber the number of threads.
+         * @return the non-empty groups of checks.
+         */
+        public static List<CheckGroup> distribute(Set<AbstractCheck> checks,
+                Multimap<String, AbstractCheck> tokenToChecks, int threadsNumber) {
+            final int groupsNumber = Math.min(threadsNumber, checks.size());
+            final List<CheckGroup> groups = new ArrayList<>(groupsNumber);
+            for (int i = 0; i < groupsNumber; i++) {
+                groups.add(new CheckGroup());
             }
-            else {
-                if (foundCr) {
-                    foundCr = false;
-                    lines++;
-                    columns = 0;
+
+            int index = 0;
+            for (AbstractCheck check : checks) {
+                if (check instanceof SuppressWarningsHolder) {
+                    groups.get(0).checks.add(check);
                 }
-                if (c == '\r') {
-                    foundCr = true;
+                else {
+                    groups.get(index % groupsNumber).checks.add(check);
+                    index++;
                 }
-                columns++;
             }
+            groups.removeIf(group -> group.checks.isEmpty());
+            for (CheckGroup group : groups) {
+                group.table = new CheckDispatchTable(tokenToChecks, group.checks);
+            }
+            return groups;
         }
-        if (foundCr) {
-            lines++;
-            columns = 0;
-        }
-        return new SimpleEntry<>(lines, columns);
     }
 
     /**
@@ -173,12 +173,23 @@ public abstract class AbstractCheck extends AbstractViolationReporter {
 
     /**
      * Returns the lines associated with the tree.
+     * The array is copied by each call, so {@link #getLine(int)},
+     * {@link #getLineView(int)} and {@link #getLineCount()} should be
+     * preferred for reading some lines.
      * @return the file contents
      */
     public final String[] getLines() {
         return fileContents.getLines();
     }
 
+    /**
+     * Returns the number of lines associated with the tree.
+     * @return the number of lines in the file contents
+     */
+    public final int getLineCount() {
+        return fileContents.getLineCount();
+    }
+
     /**
      * Returns the line associated with the tree.
      * @param index index of the line
@@ -188,6 +199,16 @@ public abstract class AbstractCheck extends AbstractViolationReporter {
         return fileContents.getLine(index);
     }
 
+    /**
+     * Returns a read-only view of the line associated with the tree, which
+     * does not copy the characters of the line.
+     * @param index index of the line
+     * @return the line from the file contents
+     */
+    public final CharSequence getLineView(int index) {
+        return fileContents.getLineView(index);
+    }
+
     /**
      * Set the file contents associated with the tree.
      * @param contents the manager
@@ -267,7 +288,7 @@ public abstract class AbstractCheck extends AbstractViolationReporter {
     public final void log(int lineNo, int colNo, String key,
             Object... args) {
         final int col = 1 + CommonUtils.lengthExpandedTabs(
-            getLines()[lineNo - 1], colNo, tabWidth);
+            getLineView(lineNo - 1), colNo, tabWidth);
         messages.add(
             new LocalizedMessage(
                 lineNo,
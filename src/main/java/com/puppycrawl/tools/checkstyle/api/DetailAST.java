@@ -168,13 +168,15 @@ public final class DetailAST extends CommonASTWithHiddenTokens {
     public int getChildCount() {
         // lazy init
         if (childCount == NOT_INITIALIZED) {
-            childCount = 0;
+            // count in a local variable, so other threads never see a partial result
+            int count = 0;
             AST child = getFirstChild();
 
             while (child != null) {
-                childCount += 1;
+                count += 1;
                 child = child.getNextSibling();
             }
+            childCount = count;
         }
         return childCount;
     }
@@ -346,17 +348,18 @@ public final class DetailAST extends CommonASTWithHiddenTokens {
         // lazy init
         if (branchTokenTypes == null) {
 
-            branchTokenTypes = new BitSet();
-            branchTokenTypes.set(getType());
+            final BitSet types = new BitSet();
+            types.set(getType());
 
             // add union of all children
             DetailAST child = getFirstChild();
             while (child != null) {
                 final BitSet childTypes = child.getBranchTokenTypes();
-                branchTokenTypes.or(childTypes);
+                types.or(childTypes);
 
                 child = child.getNextSibling();
             }
+            branchTokenTypes = types;
         }
         return branchTokenTypes;
     }
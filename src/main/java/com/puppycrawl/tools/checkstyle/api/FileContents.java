@@ -46,6 +46,12 @@ public final class FileContents implements CommentListener {
     /** Compiled regexp to match a single-line comment line. */
     private static final Pattern MATCH_SINGLELINE_COMMENT = Pattern
             .compile(MATCH_SINGLELINE_COMMENT_PAT);
+    /**
+     * Compiled regexp to match a line with the start of a Javadoc comment,
+     * which has no empty block comment.
+     */
+    private static final Pattern JAVADOC_START = Pattern
+            .compile("^(?!.*/\\*\\*/).*/\\*\\*", Pattern.DOTALL);
 
     /** The file name. */
     private final String fileName;
@@ -87,7 +93,7 @@ public final class FileContents implements CommentListener {
      */
     public FileContents(FileText text) {
         fileName = text.getFile().toString();
-        this.text = new FileText(text);
+        this.text = text;
     }
 
     @Override
@@ -102,8 +108,8 @@ public final class FileContents implements CommentListener {
      * @param startColNo the starting column number
      **/
     public void reportSingleLineComment(int startLineNo, int startColNo) {
-        final String line = line(startLineNo - 1);
-        final String[] txt = {line.substring(startColNo)};
+        final CharSequence line = text.getLineView(startLineNo - 1);
+        final String[] txt = {line.subSequence(startColNo, line.length()).toString()};
         final Comment comment = new Comment(txt, startColNo, startLineNo,
                 line.length() - 1);
         cppComments.put(startLineNo, comment);
@@ -141,8 +147,8 @@ public final class FileContents implements CommentListener {
         }
 
         // Remember if possible Javadoc comment
-        final String firstLine = line(startLineNo - 1);
-        if (firstLine.contains("/**") && !firstLine.contains("/**/")) {
+        final CharSequence firstLine = text.getLineView(startLineNo - 1);
+        if (JAVADOC_START.matcher(firstLine).find()) {
             javadocComments.put(endLineNo - 1, comment);
         }
     }
@@ -276,20 +282,42 @@ public final class FileContents implements CommentListener {
 
     /**
      * Get the full text of the file.
+     * The text is immutable, so it is not copied.
      * @return an object containing the full text of the file
      */
     public FileText getText() {
-        return new FileText(text);
+        return text;
     }
 
     /**
      * Gets the lines in the file.
+     * The array is copied by each call, so {@link #getLine(int)},
+     * {@link #getLineView(int)} and {@link #getLineCount()} should be
+     * preferred for reading some lines.
      * @return the lines in the file
      */
     public String[] getLines() {
         return text.toLinesArray();
     }
 
+    /**
+     * Counts the lines in the file.
+     * @return the number of lines in the file
+     */
+    public int getLineCount() {
+        return text.size();
+    }
+
+    /**
+     * Gets a read-only view of a line from text of the file, which does not
+     * copy the characters of the line.
+     * @param index index of the line
+     * @return line from text of the file
+     */
+    public CharSequence getLineView(int index) {
+        return text.getLineView(index);
+    }
+
     /**
      * Get the line from text of the file.
      * @param index index of the line
@@ -313,7 +341,7 @@ public final class FileContents implements CommentListener {
      * @return if the specified line consists only of tabs and spaces.
      **/
     public boolean lineIsBlank(int lineNo) {
-        return CommonUtils.isBlank(line(lineNo));
+        return CommonUtils.isBlank(text.getLineView(lineNo));
     }
 
     /**
@@ -323,7 +351,7 @@ public final class FileContents implements CommentListener {
      *         without code.
      **/
     public boolean lineIsComment(int lineNo) {
-        return MATCH_SINGLELINE_COMMENT.matcher(line(lineNo)).matches();
+        return MATCH_SINGLELINE_COMMENT.matcher(text.getLineView(lineNo)).matches();
     }
 
     /**
@@ -19,25 +19,21 @@
 
 package com.puppycrawl.tools.checkstyle.api;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.UnsupportedCharsetException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import com.google.common.io.Closeables;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents the text contents of a file of arbitrary plain text type.
@@ -51,19 +47,18 @@ import com.google.common.io.Closeables;
 public final class FileText {
 
     /**
-     * The number of characters to read in one go.
+     * The minimal size of files, which are mapped to memory instead of
+     * being read to the heap.
      */
-    private static final int READ_BUFFER_SIZE = 1024;
+    private static final int MAP_THRESHOLD = 1024 * 1024;
 
     /**
-     * Regular expression pattern matching all line terminators.
+     * The assumed average length of lines, which the line index is sized by.
      */
-    private static final Pattern LINE_TERMINATOR = Pattern.compile("\\n|\\r\\n?");
+    private static final int AVERAGE_LINE_LENGTH = 32;
 
-    // For now, we always keep both full text and lines array.
-    // In the long run, however, the one passed at initialization might be
-    // enough, while the other could be lazily created when requested.
-    // This would save memory but cost CPU cycles.
+    // Only the full text and the positions of its lines are kept. Strings of
+    // lines are created when requested, so the text is not stored twice.
 
     /**
      * The name of the file.
@@ -73,7 +68,7 @@ public final class FileText {
 
     /**
      * The charset used to read the file.
-     * {@code null} if the file was reconstructed from a list of lines.
+     * {@code null} if the file was reconstructed from a list of lines or a text.
      */
     private final Charset charset;
 
@@ -83,14 +78,16 @@ public final class FileText {
     private final String fullText;
 
     /**
-     * The lines of the file, without terminators.
+     * The first position of each line within the full text, followed by
+     * the end of the last line including its terminator.
      */
-    private final String[] lines;
+    private final int[] lineBreaks;
 
     /**
-     * The first position of each line within the full text.
+     * The lines of the file, without terminators, which are created
+     * by the first request of all lines. Copies of the text share them.
      */
-    private int[] lineBreaks;
+    private final AtomicReference<String[]> lines;
 
     /**
      * Creates a new file text representation.
@@ -106,58 +103,64 @@ public final class FileText {
      */
     public FileText(File file, String charsetName) throws IOException {
         this.file = file;
+        charset = lookupCharset(charsetName);
+        fullText = readFile(file, charset);
+        lineBreaks = findLineBreaks(fullText);
+        lines = new AtomicReference<>();
+    }
 
-        // We use our own decoder, to be sure we have complete control
-        // about replacements.
-        final CharsetDecoder decoder;
-        try {
-            charset = Charset.forName(charsetName);
-            decoder = charset.newDecoder();
-            decoder.onMalformedInput(CodingErrorAction.REPLACE);
-            decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
-        }
-        catch (final UnsupportedCharsetException ex) {
-            final String message = "Unsupported charset: " + charsetName;
-            throw new IllegalStateException(message, ex);
-        }
+    /**
+     * Creates a new file text representation of content, which is not read
+     * from the file system.
+     *
+     * <p>The content will be decoded using the specified encoding, replacing
+     * malformed input and unmappable characters with the default
+     * replacement character.
+     *
+     * @param file the name of the file
+     * @param content the content of the file
+     * @param charsetName the encoding to use when decoding the content
+     * @throws NullPointerException if the content is null
+     */
+    public FileText(File file, byte[] content, String charsetName) {
+        this(file, lookupCharset(charsetName), content);
+    }
 
-        fullText = readFile(file, decoder);
+    /**
+     * Creates a new file text representation of content decoded by a charset.
+     * @param file the name of the file
+     * @param charset the charset to decode the content with
+     * @param content the content of the file
+     */
+    private FileText(File file, Charset charset, byte[] content) {
+        this(file, charset, new String(content, charset));
+    }
 
-        // Use the BufferedReader to break down the lines as this
-        // is about 30% faster than using the
-        // LINE_TERMINATOR.split(fullText, -1) method
-        final BufferedReader reader = new BufferedReader(new StringReader(fullText));
-        try {
-            final ArrayList<String> textLines = new ArrayList<>();
-            while (true) {
-                final String line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-                textLines.add(line);
-            }
-            lines = textLines.toArray(new String[textLines.size()]);
-        }
-        finally {
-            Closeables.closeQuietly(reader);
-        }
+    /**
+     * Creates a new file text representation of a text.
+     * @param file the name of the file
+     * @param charset the charset used to read the file, or {@code null}
+     * @param fullText the text of the file
+     */
+    private FileText(File file, Charset charset, String fullText) {
+        this.file = file;
+        this.charset = charset;
+        this.fullText = fullText;
+        lineBreaks = findLineBreaks(fullText);
+        lines = new AtomicReference<>();
     }
 
     /**
      * Copy constructor.
+     * The copy shares the text with the original, as both are immutable.
      * @param fileText to make copy of
      */
     public FileText(FileText fileText) {
         file = fileText.file;
         charset = fileText.charset;
         fullText = fileText.fullText;
-        lines = fileText.lines.clone();
-        if (fileText.lineBreaks == null) {
-            lineBreaks = null;
-        }
-        else {
-            lineBreaks = fileText.lineBreaks.clone();
-        }
+        lineBreaks = fileText.lineBreaks;
+        lines = fileText.lines;
     }
 
     /**
@@ -173,45 +176,148 @@ public final class FileText {
      */
     public FileText(File file, List<String> lines) {
         final StringBuilder buf = new StringBuilder(1024);
+        final int[] breaks = new int[lines.size() + 1];
+        int lineNo = 0;
         for (final String line : lines) {
             buf.append(line).append('\n');
+            lineNo++;
+            breaks[lineNo] = buf.length();
         }
 
         this.file = file;
         charset = null;
         fullText = buf.toString();
-        this.lines = lines.toArray(new String[lines.size()]);
+        lineBreaks = breaks;
+        // lines may contain terminators, so they are kept as they are
+        this.lines = new AtomicReference<>(lines.toArray(new String[lines.size()]));
+    }
+
+    /**
+     * Creates a new file text representation of a text, which is not read
+     * from the file system. The charset of such a text is {@code null}.
+     * This is a factory method, because a constructor with a string would
+     * clash with {@link #FileText(File, String)}.
+     *
+     * @param file the name of the file
+     * @param text the text of the file
+     * @return the file text
+     * @throws NullPointerException if the text is null
+     */
+    public static FileText fromText(File file, CharSequence text) {
+        return new FileText(file, (Charset) null, text.toString());
+    }
+
+    /**
+     * Returns the charset with the given name.
+     * @param charsetName the name of the charset
+     * @return the charset
+     * @throws IllegalStateException if the charset is not supported
+     */
+    private static Charset lookupCharset(String charsetName) {
+        try {
+            return Charset.forName(charsetName);
+        }
+        catch (final UnsupportedCharsetException ex) {
+            final String message = "Unsupported charset: " + charsetName;
+            throw new IllegalStateException(message, ex);
+        }
     }
 
     /**
-     * Reads file using specific decoder and returns all its content as a String.
+     * Finds positions of line breaks in a text. Lines are terminated by
+     * {@code \n}, {@code \r\n} or {@code \r}, as
+     * {@link java.io.BufferedReader#readLine()} does it.
+     * @param text the text
+     * @return the first position of each line, followed by the end of the
+     *     last line including its terminator
+     */
+    private static int[] findLineBreaks(String text) {
+        final int length = text.length();
+        int[] breaks = new int[length / AVERAGE_LINE_LENGTH + 2];
+        int count = 1;
+        int pos = 0;
+        while (pos < length) {
+            final char chr = text.charAt(pos);
+            pos++;
+            if (chr == '\r' && pos < length && text.charAt(pos) == '\n') {
+                pos++;
+            }
+            if (chr == '\n' || chr == '\r') {
+                if (count == breaks.length) {
+                    breaks = Arrays.copyOf(breaks, count * 2);
+                }
+                breaks[count] = pos;
+                count++;
+            }
+        }
+        if (breaks[count - 1] < length) {
+            if (count == breaks.length) {
+                breaks = Arrays.copyOf(breaks, count + 1);
+            }
+            breaks[count] = length;
+            count++;
+        }
+        return Arrays.copyOf(breaks, count);
+    }
+
+    /**
+     * Reads file using specific charset and returns all its content as a String.
+     * The content is read in one go to a buffer of the size of the file, or is
+     * mapped to memory for large files, and is decoded at once, so it is not
+     * copied by readers and growing builders.
      * @param inputFile File to read
-     * @param decoder Charset decoder
+     * @param charset Charset of the file
      * @return File's text
      * @throws IOException Unable to open or read the file
      */
-    private static String readFile(final File inputFile, final CharsetDecoder decoder)
+    private static String readFile(final File inputFile, final Charset charset)
             throws IOException {
         if (!inputFile.exists()) {
             throw new FileNotFoundException(inputFile.getPath() + " (No such file or directory)");
         }
-        final StringBuilder buf = new StringBuilder(1024);
-        final FileInputStream stream = new FileInputStream(inputFile);
-        final Reader reader = new InputStreamReader(stream, decoder);
-        try {
-            final char[] chars = new char[READ_BUFFER_SIZE];
-            while (true) {
-                final int len = reader.read(chars);
-                if (len == -1) {
-                    break;
+        try (FileInputStream stream = new FileInputStream(inputFile)) {
+            final FileChannel channel = stream.getChannel();
+            final long size = channel.size();
+            final String result;
+            if (size >= MAP_THRESHOLD) {
+                result = decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), charset);
+            }
+            else {
+                // one more byte finds the end, files without a known size are read as well
+                ByteBuffer buffer = ByteBuffer.allocate((int) size + 1);
+                while (channel.read(buffer) != -1) {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer);
+                    }
                 }
-                buf.append(chars, 0, len);
+                // strings decode arrays of charsets like UTF-8 with their own ASCII loops
+                result = new String(buffer.array(), 0, buffer.position(), charset);
             }
+            return result;
+        }
+    }
+
+    /**
+     * Decodes content, which is not on the heap, replacing malformed input
+     * and unmappable characters with the default replacement character.
+     * @param content the content
+     * @param charset the charset of the content
+     * @return the decoded text
+     */
+    private static String decode(ByteBuffer content, Charset charset) {
+        // We use our own decoder, to be sure we have complete control
+        // about replacements.
+        final CharsetDecoder decoder = charset.newDecoder();
+        decoder.onMalformedInput(CodingErrorAction.REPLACE);
+        decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try {
+            return decoder.decode(content).toString();
         }
-        finally {
-            Closeables.closeQuietly(reader);
+        catch (final CharacterCodingException ex) {
+            // errors are replaced, so they can not be reported
+            throw new IllegalStateException(ex);
         }
-        return buf.toString();
     }
 
     /**
@@ -224,7 +330,7 @@ public final class FileText {
 
     /**
      * Get the character set which was used to read the file.
-     * Will be {@code null} for a file reconstructed from its lines.
+     * Will be {@code null} for a file reconstructed from its lines or its text.
      * @return the charset used when the file was read
      */
     public Charset getCharset() {
@@ -246,29 +352,39 @@ public final class FileText {
      * @return an array of all lines of the text
      */
     public String[] toLinesArray() {
-        return lines.clone();
+        return getLines().clone();
     }
 
     /**
-     * Find positions of line breaks in the full text.
-     * @return an array giving the first positions of each line.
+     * Returns the shared array of all lines, which is created by the first call.
+     * @return the array of all lines of the text
      */
-    private int[] findLineBreaks() {
-        if (lineBreaks == null) {
-            final int[] lineBreakPositions = new int[size() + 1];
-            lineBreakPositions[0] = 0;
-            int lineNo = 1;
-            final Matcher matcher = LINE_TERMINATOR.matcher(fullText);
-            while (matcher.find()) {
-                lineBreakPositions[lineNo] = matcher.end();
-                lineNo++;
+    private String[] getLines() {
+        String[] result = lines.get();
+        if (result == null) {
+            result = new String[size()];
+            for (int lineNo = 0; lineNo < result.length; lineNo++) {
+                result[lineNo] = fullText.substring(lineBreaks[lineNo], getLineEnd(lineNo));
             }
-            if (lineNo < lineBreakPositions.length) {
-                lineBreakPositions[lineNo] = fullText.length();
-            }
-            lineBreaks = lineBreakPositions;
+            lines.set(result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the end of a line without its terminator.
+     * @param lineNo the number of the line, starting at zero
+     * @return the position after the last character of the line
+     */
+    private int getLineEnd(int lineNo) {
+        int end = lineBreaks[lineNo + 1];
+        if (end > lineBreaks[lineNo] && fullText.charAt(end - 1) == '\n') {
+            end--;
         }
-        return lineBreaks;
+        if (end > lineBreaks[lineNo] && fullText.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return end;
     }
 
     /**
@@ -277,7 +393,7 @@ public final class FileText {
      * @return the line and column numbers of this character
      */
     public LineColumn lineColumn(int pos) {
-        final int[] lineBreakPositions = findLineBreaks();
+        final int[] lineBreakPositions = lineBreaks;
         int lineNo = Arrays.binarySearch(lineBreakPositions, pos);
         if (lineNo < 0) {
             // we have: lineNo = -(insertion point) - 1
@@ -293,11 +409,41 @@ public final class FileText {
     /**
      * Retrieves a line of the text by its number.
      * The returned line will not contain a trailing terminator.
+     * Only the requested line is copied, the lines of the whole text are
+     * created by {@link #toLinesArray()}.
      * @param lineNo the number of the line to get, starting at zero
      * @return the line with the given number
      */
     public String get(final int lineNo) {
-        return lines[lineNo];
+        final String[] textLines = lines.get();
+        final String result;
+        if (textLines == null) {
+            result = fullText.substring(lineBreaks[lineNo], getLineEnd(lineNo));
+        }
+        else {
+            result = textLines[lineNo];
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves a read-only view of a line of the text by its number,
+     * which does not copy the characters of the line.
+     * The returned line will not contain a trailing terminator.
+     * @param lineNo the number of the line to get, starting at zero
+     * @return the line with the given number
+     * @throws IndexOutOfBoundsException if there is no such line
+     */
+    public CharSequence getLineView(final int lineNo) {
+        final String[] textLines = lines.get();
+        final CharSequence result;
+        if (textLines == null) {
+            result = CharBuffer.wrap(fullText, lineBreaks[lineNo], getLineEnd(lineNo));
+        }
+        else {
+            result = textLines[lineNo];
+        }
+        return result;
     }
 
     /**
@@ -305,7 +451,7 @@ public final class FileText {
      * @return the number of lines in the text
      */
     public int size() {
-        return lines.length;
+        return lineBreaks.length - 1;
     }
 
 }
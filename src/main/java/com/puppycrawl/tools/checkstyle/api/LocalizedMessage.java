@@ -28,8 +28,6 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.text.MessageFormat;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
@@ -37,6 +35,7 @@ import java.util.Objects;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
 import java.util.ResourceBundle.Control;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a message that can be localised. The translations come from
@@ -54,9 +53,9 @@ public final class LocalizedMessage
     /**
      * A cache that maps bundle names to ResourceBundles.
      * Avoids repetitive calls to ResourceBundle.getBundle().
+     * Messages are formatted by several threads, which do not lock each other.
      */
-    private static final Map<String, ResourceBundle> BUNDLE_CACHE =
-        Collections.synchronizedMap(new HashMap<>());
+    private static final Map<String, ResourceBundle> BUNDLE_CACHE = new ConcurrentHashMap<>();
 
     /** The default severity level if one is not specified. */
     private static final SeverityLevel DEFAULT_SEVERITY = SeverityLevel.ERROR;
@@ -135,6 +134,11 @@ public final class LocalizedMessage
         this.moduleId = moduleId;
         this.sourceClass = sourceClass;
         this.customMessage = customMessage;
+        if (customMessage != null) {
+            // messages are formatted only when they are needed, but invalid
+            // custom patterns are reported to the module, which logs them
+            new MessageFormat(customMessage, Locale.ROOT);
+        }
     }
 
     /**
@@ -329,8 +333,14 @@ public final class LocalizedMessage
      * @return a ResourceBundle
      */
     private ResourceBundle getBundle(String bundleName) {
-        return BUNDLE_CACHE.computeIfAbsent(bundleName, name -> ResourceBundle.getBundle(
-                name, sLocale, sourceClass.getClassLoader(), new Utf8Control()));
+        // computeIfAbsent locks the entry even if it is present
+        ResourceBundle resourceBundle = BUNDLE_CACHE.get(bundleName);
+        if (resourceBundle == null) {
+            resourceBundle = BUNDLE_CACHE.computeIfAbsent(bundleName,
+                name -> ResourceBundle.getBundle(
+                    name, sLocale, sourceClass.getClassLoader(), new Utf8Control()));
+        }
+        return resourceBundle;
     }
 
     /**
@@ -416,7 +426,7 @@ public final class LocalizedMessage
         if (lineNo == other.lineNo) {
             if (columnNo == other.columnNo) {
                 if (Objects.equals(moduleId, other.moduleId)) {
-                    result = getMessage().compareTo(other.getMessage());
+                    result = compareContent(other);
                 }
                 else if (moduleId == null) {
                     result = -1;
@@ -438,6 +448,28 @@ public final class LocalizedMessage
         return result;
     }
 
+    /**
+     * Compares messages of the same module at the same position by their
+     * formatted texts. Messages with the same bundle, key, custom message and
+     * arguments have the same text, so they are not formatted to be put to
+     * sorted sets.
+     * @param other the message to compare with
+     * @return the result of the comparison
+     */
+    private int compareContent(LocalizedMessage other) {
+        final int result;
+        if (Objects.equals(key, other.key)
+                && Objects.equals(bundle, other.bundle)
+                && Objects.equals(customMessage, other.customMessage)
+                && Arrays.equals(args, other.args)) {
+            result = 0;
+        }
+        else {
+            result = getMessage().compareTo(other.getMessage());
+        }
+        return result;
+    }
+
     /**
      * <p>
      * Custom ResourceBundle.Control implementation which allows explicitly read
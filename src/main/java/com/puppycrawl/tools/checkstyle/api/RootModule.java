@@ -20,6 +20,8 @@
 package com.puppycrawl.tools.checkstyle.api;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -35,6 +37,7 @@ public interface RootModule extends Configurable {
      * Processes a set of files.
      * Once this is done, it is highly recommended to call for
      * the destroy method to close and remove the listeners.
+     * Implementations may process files several times before they are destroyed.
      * @param files the list of files to be audited.
      * @return the total number of errors found
      * @throws CheckstyleException if error condition within Checkstyle occurs
@@ -42,6 +45,21 @@ public interface RootModule extends Configurable {
      */
     int process(List<File> files) throws CheckstyleException;
 
+    /**
+     * Processes files, which are supplied while they are processed, so the
+     * audit can start before all files are known.
+     * The default implementation collects the files and processes the list.
+     * @param files the files to be audited.
+     * @return the total number of errors found
+     * @throws CheckstyleException if error condition within Checkstyle occurs
+     * @see #process(List)
+     */
+    default int process(Iterator<File> files) throws CheckstyleException {
+        final List<File> list = new ArrayList<>();
+        files.forEachRemaining(list::add);
+        return process(list);
+    }
+
     /**
      * Add the listener that will be used to receive events from the audit.
      * @param listener the nosy thing
@@ -184,41 +184,42 @@ public class EmptyBlockCheck
         final int slistColNo = slistAST.getColumnNo();
         final int rcurlyLineNo = rcurlyAST.getLineNo();
         final int rcurlyColNo = rcurlyAST.getColumnNo();
-        final String[] lines = getLines();
         boolean returnValue = false;
         if (slistLineNo == rcurlyLineNo) {
             // Handle braces on the same line
-            final String txt = lines[slistLineNo - 1]
-                    .substring(slistColNo + 1, rcurlyColNo);
+            final CharSequence txt = getLineView(slistLineNo - 1)
+                    .subSequence(slistColNo + 1, rcurlyColNo);
             if (!CommonUtils.isBlank(txt)) {
                 returnValue = true;
             }
         }
         else {
-            final String firstLine = lines[slistLineNo - 1].substring(slistColNo + 1);
-            final String lastLine = lines[rcurlyLineNo - 1].substring(0, rcurlyColNo);
+            final CharSequence firstLine = getLineView(slistLineNo - 1);
+            final CharSequence textAfterLcurly =
+                    firstLine.subSequence(slistColNo + 1, firstLine.length());
+            final CharSequence textBeforeRcurly =
+                    getLineView(rcurlyLineNo - 1).subSequence(0, rcurlyColNo);
             // check if all lines are also only whitespace
-            returnValue = !(CommonUtils.isBlank(firstLine) && CommonUtils.isBlank(lastLine))
-                    || !checkIsAllLinesAreWhitespace(lines, slistLineNo, rcurlyLineNo);
+            returnValue = !(CommonUtils.isBlank(textAfterLcurly)
+                    && CommonUtils.isBlank(textBeforeRcurly))
+                    || !checkIsAllLinesAreWhitespace(slistLineNo, rcurlyLineNo);
         }
         return returnValue;
     }
 
     /**
-     * Checks is all lines in array contain whitespaces only.
+     * Checks is all lines in the file contain whitespaces only.
      *
-     * @param lines
-     *            array of lines
      * @param lineFrom
      *            check from this line number
      * @param lineTo
      *            check to this line numbers
      * @return true if lines contain only whitespaces
      */
-    private static boolean checkIsAllLinesAreWhitespace(String[] lines, int lineFrom, int lineTo) {
+    private boolean checkIsAllLinesAreWhitespace(int lineFrom, int lineTo) {
         boolean result = true;
         for (int i = lineFrom; i < lineTo - 1; i++) {
-            if (!CommonUtils.isBlank(lines[i])) {
+            if (!CommonUtils.isBlank(getLineView(i))) {
                 result = false;
                 break;
             }
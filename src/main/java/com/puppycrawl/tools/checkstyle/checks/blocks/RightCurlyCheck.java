@@ -201,7 +201,7 @@ public class RightCurlyCheck extends AbstractCheck {
             violation = MSG_KEY_LINE_ALONE;
         }
         else if (shouldStartLine) {
-            final String targetSourceLine = getLines()[details.rcurly.getLineNo() - 1];
+            final CharSequence targetSourceLine = getLineView(details.rcurly.getLineNo() - 1);
             if (!isOnStartOfLine(details, targetSourceLine)) {
                 violation = MSG_KEY_LINE_NEW;
             }
@@ -278,7 +278,7 @@ public class RightCurlyCheck extends AbstractCheck {
      * @param targetSourceLine source line to check
      * @return true if right curly brace starts target source line.
      */
-    private static boolean isOnStartOfLine(Details details, String targetSourceLine) {
+    private static boolean isOnStartOfLine(Details details, CharSequence targetSourceLine) {
         return CommonUtils.hasWhitespaceBefore(details.rcurly.getColumnNo(), targetSourceLine)
                 || details.lcurly.getLineNo() == details.rcurly.getLineNo();
     }
@@ -323,9 +323,8 @@ public class FallThroughCheck extends AbstractCheck {
         final int endColNo = nextCase.getColumnNo();
 
         // Remember: The lines number returned from the AST is 1-based, but
-        // the lines number in this array are 0-based. So you will often
+        // the lines number in the file contents are 0-based. So you will often
         // see a "lineNo-1" etc.
-        final String[] lines = getLines();
 
         // Handle:
         //    case 1:
@@ -336,7 +335,7 @@ public class FallThroughCheck extends AbstractCheck {
         //    default:
         //    /+ FALLTHRU +/}
         //
-        final String linePart = lines[endLineNo - 1].substring(0, endColNo);
+        final String linePart = getLine(endLineNo - 1).substring(0, endColNo);
         if (matchesComment(reliefPattern, linePart, endLineNo)) {
             allThroughComment = true;
         }
@@ -354,8 +353,9 @@ public class FallThroughCheck extends AbstractCheck {
             //    }
             final int startLineNo = currentCase.getLineNo();
             for (int i = endLineNo - 2; i > startLineNo - 1; i--) {
-                if (!CommonUtils.isBlank(lines[i])) {
-                    allThroughComment = matchesComment(reliefPattern, lines[i], i + 1);
+                final String line = getLine(i);
+                if (!CommonUtils.isBlank(line)) {
+                    allThroughComment = matchesComment(reliefPattern, line, i + 1);
                     break;
                 }
             }
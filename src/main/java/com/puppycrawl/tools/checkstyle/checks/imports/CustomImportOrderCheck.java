@@ -708,12 +708,11 @@ public class CustomImportOrderCheck extends AbstractCheck {
      */
     private int getCountOfEmptyLinesBefore(int lineNo) {
         int result = 0;
-        final String[] lines = getLines();
         //  [lineNo - 2] is the number of the previous line
         //  because the numbering starts from zero.
         int lineBeforeIndex = lineNo - 2;
         while (lineBeforeIndex >= 0
-                && CommonUtils.isBlank(lines[lineBeforeIndex])) {
+                && CommonUtils.isBlank(getLine(lineBeforeIndex))) {
             lineBeforeIndex--;
             result++;
         }
@@ -19,6 +19,7 @@
 
 package com.puppycrawl.tools.checkstyle.checks.indentation;
 
+import java.io.Serializable;
 import java.util.BitSet;
 
 /**
@@ -27,7 +28,9 @@ import java.util.BitSet;
  *
  * @author o_sukhodolsky
  */
-public class IndentLevel {
+public class IndentLevel implements Serializable {
+    private static final long serialVersionUID = -2553245417497937133L;
+
     /** Set of acceptable indentation levels. */
     private final BitSet levels = new BitSet();
 
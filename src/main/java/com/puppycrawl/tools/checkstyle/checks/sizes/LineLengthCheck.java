@@ -109,10 +109,10 @@ public class LineLengthCheck extends AbstractCheck {
 
     @Override
     public void beginTree(DetailAST rootAST) {
-        final String[] lines = getLines();
-        for (int i = 0; i < lines.length; i++) {
+        final int lineCount = getLineCount();
+        for (int i = 0; i < lineCount; i++) {
 
-            final String line = lines[i];
+            final CharSequence line = getLineView(i);
             final int realLength = CommonUtils.lengthExpandedTabs(
                 line, line.length(), getTabWidth());
 
@@ -487,7 +487,7 @@ public class EmptyLineSeparatorCheck extends AbstractCheck {
         // 3 is the number of the pre-previous line because the numbering starts from zero.
         final int number = 3;
         if (lineNo >= number) {
-            final String prePreviousLine = getLines()[lineNo - number];
+            final CharSequence prePreviousLine = getLineView(lineNo - number);
             result = CommonUtils.isBlank(prePreviousLine);
         }
         return result;
@@ -548,7 +548,7 @@ public class EmptyLineSeparatorCheck extends AbstractCheck {
         final int lineNo = token.getLineNo();
         if (lineNo != 1) {
             // [lineNo - 2] is the number of the previous line as the numbering starts from zero.
-            final String lineBefore = getLines()[lineNo - 2];
+            final CharSequence lineBefore = getLineView(lineNo - 2);
             result = CommonUtils.isBlank(lineBefore);
         }
         return result;
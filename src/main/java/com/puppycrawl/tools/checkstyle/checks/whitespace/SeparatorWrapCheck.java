@@ -146,18 +146,18 @@ public class SeparatorWrapCheck
         final String text = ast.getText();
         final int colNo = ast.getColumnNo();
         final int lineNo = ast.getLineNo();
-        final String currentLine = getLines()[lineNo - 1];
-        final String substringAfterToken =
-                currentLine.substring(colNo + text.length()).trim();
-        final String substringBeforeToken =
-                currentLine.substring(0, colNo).trim();
+        final CharSequence currentLine = getLineView(lineNo - 1);
+        final CharSequence substringAfterToken =
+                currentLine.subSequence(colNo + text.length(), currentLine.length());
+        final CharSequence substringBeforeToken =
+                currentLine.subSequence(0, colNo);
 
         if (option == WrapOption.EOL
-                && substringBeforeToken.isEmpty()) {
+                && CommonUtils.isBlank(substringBeforeToken)) {
             log(lineNo, colNo, MSG_LINE_PREVIOUS, text);
         }
         else if (option == WrapOption.NL
-                 && substringAfterToken.isEmpty()) {
+                 && CommonUtils.isBlank(substringAfterToken)) {
             log(lineNo, colNo, MSG_LINE_NEW, text);
         }
     }
@@ -30,6 +30,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -37,6 +40,7 @@ import java.util.regex.PatternSyntaxException;
 import org.apache.commons.beanutils.ConversionException;
 
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
 
 /**
  * Contains utility methods.
@@ -148,7 +152,7 @@ public final class CommonUtils {
      *            the line to check
      * @return whether there is only whitespace
      */
-    public static boolean hasWhitespaceBefore(int index, String line) {
+    public static boolean hasWhitespaceBefore(int index, CharSequence line) {
         boolean result = true;
         for (int i = 0; i < index; i++) {
             if (!Character.isWhitespace(line.charAt(i))) {
@@ -168,7 +172,7 @@ public final class CommonUtils {
      *            the string to process
      * @return the length of the string ignoring all trailing whitespace
      **/
-    public static int lengthMinusTrailingWhitespace(String line) {
+    public static int lengthMinusTrailingWhitespace(CharSequence line) {
         int len = line.length();
         for (int i = len - 1; i >= 0; i--) {
             if (!Character.isWhitespace(line.charAt(i))) {
@@ -192,7 +196,7 @@ public final class CommonUtils {
      *            the distance between tab stop position.
      * @return the length of string.substring(0, toIdx) with tabs expanded.
      */
-    public static int lengthExpandedTabs(String inputString,
+    public static int lengthExpandedTabs(CharSequence inputString,
             int toIdx,
             int tabWidth) {
         int len = 0;
@@ -509,9 +513,9 @@ public final class CommonUtils {
      * @param value A string to check.
      * @return true if the arg is blank.
      */
-    public static boolean isBlank(String value) {
+    public static boolean isBlank(CharSequence value) {
         boolean result = true;
-        if (value != null && !value.isEmpty()) {
+        if (value != null) {
             for (int i = 0; i < value.length(); i++) {
                 if (!Character.isWhitespace(value.charAt(i))) {
                     result = false;
@@ -543,4 +547,20 @@ public final class CommonUtils {
         }
         return isInt;
     }
+
+    /**
+     * Returns a set of external configuration resource locations which are used by modules.
+     * Modules which are not {@link ExternalResourceHolder} are skipped.
+     * @param modules the modules to get locations from.
+     * @return a set of external configuration resource locations which are used by modules.
+     */
+    public static Set<String> getExternalResourceLocations(Collection<?> modules) {
+        final Set<String> locations = new HashSet<>();
+        for (Object module : modules) {
+            if (module instanceof ExternalResourceHolder) {
+                locations.addAll(((ExternalResourceHolder) module).getExternalResourceLocations());
+            }
+        }
+        return locations;
+    }
 }
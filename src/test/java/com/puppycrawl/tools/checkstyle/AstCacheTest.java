@@ -0,0 +1,241 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import antlr.CommonHiddenStreamToken;
+import antlr.TokenStreamException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.TextBlock;
+
+public class AstCacheTest extends AbstractPathTestSupport {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Override
+    protected String getPackageLocation() {
+        return "com/puppycrawl/tools/checkstyle";
+    }
+
+    private static FileContents getContents(String path) throws Exception {
+        return new FileContents(new FileText(new File(path), StandardCharsets.UTF_8.name()));
+    }
+
+    private static List<Path> getEntries(Path directory) throws Exception {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testCachedAstIsTheSame() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath().resolve("cache");
+        final AstCache cache = new AstCache(directory);
+        for (String name : Arrays.asList("InputTreeWalkerHiddenComments.java",
+                "checks/javadoc/javadocstyle/InputJavadocStyle.java",
+                "checks/indentation/commentsindentation/"
+                        + "InputCommentsIndentationCommentIsAtTheEndOfBlock.java")) {
+            final String path = getPath(name);
+            final FileContents expectedContents = getContents(path);
+            final DetailAST expected = TreeWalker.parse(expectedContents);
+
+            final FileContents parsedContents = getContents(path);
+            final DetailAST parsed = cache.parse(parsedContents);
+            final FileContents cachedContents = getContents(path);
+            final DetailAST cached = cache.parse(cachedContents);
+
+            assertEquals("Invalid parsed AST of " + name, toString(expected), toString(parsed));
+            assertEquals("Invalid cached AST of " + name, toString(expected), toString(cached));
+            assertEquals("Invalid cached AST with comments of " + name,
+                    toString(HiddenCommentCollector.appendHiddenCommentNodes(expected)),
+                    toString(HiddenCommentCollector.appendHiddenCommentNodes(cached)));
+            assertEquals("Invalid comments of " + name,
+                    toString(expectedContents), toString(cachedContents));
+        }
+        assertEquals("Invalid number of entries", 3, getEntries(directory).size());
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        final File file = temporaryFolder.newFile("InputEmpty.java");
+        final AstCache cache = new AstCache(temporaryFolder.getRoot().toPath());
+
+        assertNull("Invalid parsed AST", cache.parse(getContents(file.getPath())));
+        assertNull("Invalid cached AST", cache.parse(getContents(file.getPath())));
+    }
+
+    @Test
+    public void testBrokenEntryIsReplaced() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AstCache cache = new AstCache(directory);
+        final String path = getPath("InputTreeWalkerHiddenComments.java");
+        final String expected = toString(TreeWalker.parse(getContents(path)));
+        cache.parse(getContents(path));
+        final Path entry = getEntries(directory).get(0);
+        final byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertEquals("Invalid AST from broken entry",
+                expected, toString(cache.parse(getContents(path))));
+        assertEquals("Broken entry is not replaced",
+                bytes.length, Files.readAllBytes(entry).length);
+    }
+
+    @Test
+    public void testParseErrorIsNotCached() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final File file = temporaryFolder.newFile("InputBroken.java");
+        Files.write(file.toPath(), Collections.singletonList(" class a%$# {} "),
+                StandardCharsets.UTF_8);
+        try {
+            new AstCache(directory).parse(getContents(file.getPath()));
+            fail("Exception is expected");
+        }
+        catch (TokenStreamException ex) {
+            assertEquals("Invalid number of entries", 0, getEntries(directory).size());
+        }
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AstCache cache = new AstCache(directory);
+        final long now = System.currentTimeMillis();
+        final List<Path> entries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final File file = temporaryFolder.newFile("InputEvicted" + i + ".java");
+            Files.write(file.toPath(), Collections.singletonList("class A" + i + " {}"),
+                    StandardCharsets.UTF_8);
+            cache.parse(getContents(file.getPath()));
+            final List<Path> newEntries = getEntries(directory);
+            newEntries.removeAll(entries);
+            entries.addAll(newEntries);
+            Files.setLastModifiedTime(newEntries.get(0),
+                    FileTime.fromMillis(now - TimeUnit.DAYS.toMillis(i * 4)));
+        }
+
+        assertEquals("Entry, which was not used for 8 days, should be evicted",
+                1, cache.evict(7, 0));
+        assertEquals("Least recently used entry should be evicted", 1, cache.evict(7, 1));
+        assertEquals("Most recently used entry should be kept",
+                Collections.singletonList(entries.get(0)), getEntries(directory));
+        assertEquals("Missing directory should not be evicted",
+                0, new AstCache(directory.resolve("missing")).evict(7, 0));
+    }
+
+    @Test
+    public void testReadEntryIsMarkedUsed() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final AstCache cache = new AstCache(directory);
+        final String path = getPath("InputTreeWalkerHiddenComments.java");
+        cache.parse(getContents(path));
+        final Path entry = getEntries(directory).get(0);
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(0));
+
+        cache.parse(getContents(path));
+        assertEquals("Read entry should not be evicted", 0, cache.evict(7, 0));
+        assertEquals("Invalid number of entries", 1, getEntries(directory).size());
+    }
+
+    @Test
+    public void testUnwritableDirectory() throws Exception {
+        final File notDirectory = temporaryFolder.newFile();
+        final AstCache cache = new AstCache(notDirectory.toPath().resolve("cache"));
+        final String path = getPath("InputTreeWalkerHiddenComments.java");
+
+        assertEquals("Invalid AST", toString(TreeWalker.parse(getContents(path))),
+                toString(cache.parse(getContents(path))));
+    }
+
+    private static String toString(DetailAST root) {
+        final StringBuilder builder = new StringBuilder();
+        DetailAST node = root;
+        while (node != null) {
+            builder.append(node.getType()).append(' ').append(node.getText())
+                .append(' ').append(node.getLineNo()).append(':').append(node.getColumnNo())
+                .append(" children=").append(node.getChildCount())
+                .append(" before=").append(toString(node.getHiddenBefore()))
+                .append(" after=").append(toString(node.getHiddenAfter()))
+                .append('\n');
+            DetailAST toVisit = node.getFirstChild();
+            while (node != null && toVisit == null) {
+                toVisit = node.getNextSibling();
+                if (toVisit == null) {
+                    node = node.getParent();
+                }
+            }
+            node = toVisit;
+        }
+        return builder.toString();
+    }
+
+    private static String toString(CommonHiddenStreamToken token) {
+        String result = "null";
+        if (token != null) {
+            result = token.getType() + " " + token.getText() + " " + token.getLine() + ":"
+                    + token.getColumn();
+            final CommonHiddenStreamToken before = token.getHiddenBefore();
+            if (before != null) {
+                result += " <" + before.getText();
+            }
+            final CommonHiddenStreamToken after = token.getHiddenAfter();
+            if (after != null) {
+                result += " >" + after.getText();
+            }
+        }
+        return result;
+    }
+
+    private static String toString(FileContents contents) {
+        final StringBuilder builder = new StringBuilder();
+        for (Map.Entry<Integer, TextBlock> entry : contents.getSingleLineComments().entrySet()) {
+            builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<Integer, List<TextBlock>> entry
+                : contents.getBlockComments().entrySet()) {
+            builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+}
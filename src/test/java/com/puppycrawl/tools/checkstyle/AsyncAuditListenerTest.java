@@ -0,0 +1,269 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.AutomaticBean;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck;
+import com.puppycrawl.tools.checkstyle.checks.naming.MemberNameCheck;
+
+public class AsyncAuditListenerTest extends AbstractModuleTestSupport {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Override
+    protected String getPackageLocation() {
+        return "com/puppycrawl/tools/checkstyle/checks/naming";
+    }
+
+    private String audit(boolean async) throws Exception {
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addChild(createModuleConfig(MemberNameCheck.class));
+        treeWalkerConfig.addChild(createModuleConfig(MagicNumberCheck.class));
+        final DefaultConfiguration checkerConfig = createRootConfig(treeWalkerConfig);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        checker.configure(checkerConfig);
+        final AuditListener logger =
+                new XMLLogger(out, AutomaticBean.OutputStreamOptions.CLOSE);
+        if (async) {
+            checker.addListener(new AsyncAuditListener(1, logger));
+        }
+        else {
+            checker.addListener(logger);
+        }
+
+        final List<File> files = Arrays.asList(
+                new File(getPath("membername/InputMemberName.java")),
+                new File(getPath("abstractclassname/InputAbstractClassName.java")),
+                new File(getPath("membername/InputMemberNameExtended.java")));
+        try {
+            checker.process(files);
+        }
+        finally {
+            checker.destroy();
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testOutputIsTheSame() throws Exception {
+        final String expected = audit(false);
+        final String actual = audit(true);
+
+        assertTrue("Output has no errors", expected.contains("<error"));
+        assertEquals("Invalid output of asynchronous listener", expected, actual);
+    }
+
+    @Test
+    public void testEventOrderAndThread() {
+        final RecordingListener recorder = new RecordingListener(null);
+        final AsyncAuditListener listener = new AsyncAuditListener(1, recorder);
+        final List<String> expected = new ArrayList<>();
+
+        listener.auditStarted(null);
+        expected.add("auditStarted");
+        for (int i = 0; i < 20; i++) {
+            final String fileName = "file" + i;
+            listener.fileStarted(new AuditEvent(this, fileName));
+            expected.add("fileStarted " + fileName);
+            listener.addError(new AuditEvent(this, fileName));
+            expected.add("addError " + fileName);
+            listener.addException(new AuditEvent(this, fileName), new IllegalStateException());
+            expected.add("addException " + fileName);
+            listener.fileFinished(new AuditEvent(this, fileName));
+            expected.add("fileFinished " + fileName);
+        }
+        listener.auditFinished(null);
+        expected.add("auditFinished");
+
+        assertEquals("Invalid events", expected, recorder.events);
+        assertNotSame("Events are delivered by firing thread",
+                Thread.currentThread(), recorder.thread);
+    }
+
+    @Test
+    public void testListenerException() {
+        final RecordingListener recorder =
+                new RecordingListener(new IllegalArgumentException("Test exception"));
+        final AsyncAuditListener listener = new AsyncAuditListener(1, recorder);
+
+        listener.auditStarted(null);
+        listener.addError(new AuditEvent(this, "file"));
+        try {
+            listener.auditFinished(null);
+            fail("Exception is expected");
+        }
+        catch (IllegalStateException ex) {
+            assertEquals("Invalid exception message", "Audit listener failed", ex.getMessage());
+            assertSame("Invalid exception cause", recorder.failure, ex.getCause());
+        }
+        assertEquals("Events after failure are delivered",
+                Collections.singletonList("auditStarted"), recorder.events);
+    }
+
+    @Test(timeout = 10000)
+    public void testListenerError() {
+        final RecordingListener recorder = new RecordingListener(new AssertionError("Test"));
+        final AsyncAuditListener listener = new AsyncAuditListener(1, recorder);
+
+        listener.auditStarted(null);
+        for (int i = 0; i < 5; i++) {
+            try {
+                listener.addError(new AuditEvent(this, "file"));
+            }
+            catch (IllegalStateException ignored) {
+                // the error of the first event is rethrown
+            }
+        }
+        try {
+            listener.auditFinished(null);
+            fail("Exception is expected");
+        }
+        catch (IllegalStateException ex) {
+            assertSame("Invalid exception cause", recorder.failure, ex.getCause());
+        }
+    }
+
+    @Test
+    public void testFailureIsNotRethrownByNextAudit() {
+        final RecordingListener recorder =
+                new RecordingListener(new IllegalArgumentException("Test exception"));
+        final AsyncAuditListener listener = new AsyncAuditListener(1, recorder);
+
+        listener.auditStarted(null);
+        listener.addError(new AuditEvent(this, "file"));
+        try {
+            listener.auditFinished(null);
+            fail("Exception is expected");
+        }
+        catch (IllegalStateException ex) {
+            assertEquals("Invalid exception message", "Audit listener failed", ex.getMessage());
+        }
+        recorder.events.clear();
+        listener.auditStarted(null);
+        listener.fileStarted(new AuditEvent(this, "file"));
+        listener.auditFinished(null);
+
+        assertEquals("Invalid events of next audit",
+                Arrays.asList("auditStarted", "fileStarted file", "auditFinished"),
+                recorder.events);
+    }
+
+    @Test
+    public void testDispatcherIsStoppedWhenAuditFails() throws Exception {
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addChild(createModuleConfig(MemberNameCheck.class));
+        final DefaultConfiguration checkerConfig = createRootConfig(treeWalkerConfig);
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        checker.configure(checkerConfig);
+        final RecordingListener recorder = new RecordingListener(null);
+        final AsyncAuditListener listener = new AsyncAuditListener(1, recorder);
+        checker.addListener(listener);
+        final File file = temporaryFolder.newFile("InputAsyncAuditListenerInvalid.java");
+        Files.write(file.toPath(), "class {".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            checker.process(Collections.singletonList(file));
+            fail("Exception is expected");
+        }
+        catch (CheckstyleException ex) {
+            assertNull("Dispatcher is not stopped",
+                    Whitebox.getInternalState(listener, "dispatcher"));
+        }
+        finally {
+            checker.destroy();
+        }
+    }
+
+    private static final class RecordingListener implements AuditListener {
+        private final List<String> events = new ArrayList<>();
+        private final Throwable failure;
+        private Thread thread;
+
+        RecordingListener(Throwable failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            thread = Thread.currentThread();
+            events.add("auditStarted");
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            events.add("auditFinished");
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            events.add("fileStarted " + event.getFileName());
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            events.add("fileFinished " + event.getFileName());
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+            events.add("addError " + event.getFileName());
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            events.add("addException " + event.getFileName());
+        }
+    }
+}
@@ -113,13 +113,13 @@ public class AuditEventDefaultFormatterTest {
     public void testCalculateBufferLength() throws Exception {
         final Method calculateBufferLengthMethod =
                 Whitebox.getMethod(AuditEventDefaultFormatter.class,
-                        "calculateBufferLength", AuditEvent.class, int.class);
+                        "calculateBufferLength", AuditEvent.class, int.class, int.class);
         final LocalizedMessage localizedMessage = new LocalizedMessage(1, 1,
                 "messages.properties", "key", null, SeverityLevel.ERROR, null,
                 getClass(), null);
         final AuditEvent auditEvent = new AuditEvent(new Object(), "fileName", localizedMessage);
         final int result = (int) calculateBufferLengthMethod.invoke(null,
-                auditEvent, SeverityLevel.ERROR.ordinal());
+                auditEvent, auditEvent.getMessage().length(), SeverityLevel.ERROR.ordinal());
 
         assertEquals("Buffer length is not expected", 54, result);
     }
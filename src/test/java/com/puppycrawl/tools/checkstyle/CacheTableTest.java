@@ -0,0 +1,258 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CacheTableTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path writeTable(Map<String, String> entries) throws Exception {
+        final CacheTable table = new CacheTable();
+        entries.forEach(table::put);
+        final Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, table.getTableBytes());
+        return file;
+    }
+
+    @Test
+    public void testReadTable() throws Exception {
+        final Map<String, String> entries = new TreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            entries.put("/path/File" + i + ".java", Integer.toString(i));
+        }
+        entries.put("/path/File" + (char) 0x0424 + ".java", "value" + (char) 0x0432);
+        entries.put("", "");
+
+        final CacheTable table = CacheTable.read(writeTable(entries));
+
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals("Invalid value of " + entry.getKey(),
+                    entry.getValue(), table.get(entry.getKey()));
+        }
+        assertNull("Invalid value of missing entry", table.get("/path/File100.java"));
+        assertEquals("Invalid entries", entries, table.toMap());
+        assertFalse("Table should not have changes", table.hasChanges());
+        assertFalse("Table should not be written again", table.isCompactionRequired());
+    }
+
+    @Test
+    public void testTableDoesNotDependOnFileAfterRead() throws Exception {
+        final Map<String, String> entries = new TreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+        final Path file = writeTable(entries);
+        final CacheTable table = CacheTable.read(file);
+        final CacheTable otherTable = new CacheTable();
+        otherTable.put("key0", "other");
+        Files.write(file, otherTable.getTableBytes());
+
+        assertEquals("Invalid value after the file is written", "value99", table.get("key99"));
+        assertEquals("Invalid entries after the file is written", entries, table.toMap());
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        final CacheTable table = CacheTable.read(writeTable(new TreeMap<>()));
+
+        assertNull("Invalid value of missing entry", table.get("key"));
+        assertTrue("Table should not have entries", table.toMap().isEmpty());
+        assertTrue("New table should be written", new CacheTable().isCompactionRequired());
+    }
+
+    @Test
+    public void testLog() throws Exception {
+        final Map<String, String> entries = new TreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+        final Path file = writeTable(entries);
+        final CacheTable table = CacheTable.read(file);
+        table.put("key0", "changed");
+        table.put("added", "value");
+        table.remove("key1");
+        table.remove("missing");
+
+        assertTrue("Table should have changes", table.hasChanges());
+        assertEquals("Invalid changed value", "changed", table.get("key0"));
+        assertNull("Invalid removed value", table.get("key1"));
+        Files.write(file, table.getChangeBytes(), StandardOpenOption.APPEND);
+
+        final CacheTable tableWithLog = CacheTable.read(file);
+        entries.put("key0", "changed");
+        entries.put("added", "value");
+        entries.remove("key1");
+        assertEquals("Invalid changed value", "changed", tableWithLog.get("key0"));
+        assertNull("Invalid removed value", tableWithLog.get("key1"));
+        assertEquals("Invalid unchanged value", "value2", tableWithLog.get("key2"));
+        assertEquals("Invalid entries", entries, tableWithLog.toMap());
+        assertFalse("Table with small log should not be written again",
+                tableWithLog.isCompactionRequired());
+    }
+
+    @Test
+    public void testRebase() throws Exception {
+        final Path file = writeTable(new TreeMap<>(Collections.singletonMap("key", "value")));
+        final CacheTable table = CacheTable.read(file);
+        table.put("own", "value");
+        table.remove("key");
+        final CacheTable otherTable = CacheTable.read(file);
+        otherTable.put("other", "value");
+        Files.write(file, otherTable.getChangeBytes(), StandardOpenOption.APPEND);
+
+        final CacheTable rebased = table.rebase(CacheTable.read(file));
+        final Map<String, String> expected = new TreeMap<>();
+        expected.put("own", "value");
+        expected.put("other", "value");
+        assertEquals("Invalid entries", expected, rebased.toMap());
+        Files.write(file, rebased.getChangeBytes(), StandardOpenOption.APPEND);
+        assertEquals("Invalid written entries", expected, CacheTable.read(file).toMap());
+    }
+
+    @Test
+    public void testRebaseOfClearedTable() throws Exception {
+        final Path file = writeTable(new TreeMap<>(Collections.singletonMap("key", "value")));
+        final CacheTable table = CacheTable.read(file);
+        table.clear();
+        table.put("own", "value");
+        final CacheTable otherTable = CacheTable.read(file);
+        otherTable.put("other", "value");
+        Files.write(file, otherTable.getChangeBytes(), StandardOpenOption.APPEND);
+
+        final CacheTable rebased = table.rebase(CacheTable.read(file));
+        assertEquals("Entries of base table should be removed",
+                Collections.singletonMap("own", "value"), rebased.toMap());
+        assertNull("Entry of base table should be removed", rebased.get("other"));
+        assertTrue("Cleared table should be written again", rebased.isCompactionRequired());
+    }
+
+    @Test
+    public void testLargeLogRequiresCompaction() throws Exception {
+        final Path file = writeTable(new TreeMap<>());
+        final CacheTable table = CacheTable.read(file);
+        table.put("key", "large value");
+        Files.write(file, table.getChangeBytes(), StandardOpenOption.APPEND);
+
+        assertTrue("Table with large log should be written again",
+                CacheTable.read(file).isCompactionRequired());
+    }
+
+    @Test
+    public void testBrokenLog() throws Exception {
+        final Map<String, String> entries = new TreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+        final Path file = writeTable(entries);
+        final CacheTable table = CacheTable.read(file);
+        table.put("key0", "changed");
+        Files.write(file, table.getChangeBytes(), StandardOpenOption.APPEND);
+        final CacheTable tableWithLog = CacheTable.read(file);
+        tableWithLog.put("key1", "changed");
+        final byte[] changes = tableWithLog.getChangeBytes();
+        Files.write(file, Arrays.copyOf(changes, changes.length - 1),
+                StandardOpenOption.APPEND);
+
+        final CacheTable tableWithBrokenLog = CacheTable.read(file);
+        assertEquals("Invalid value from complete record",
+                "changed", tableWithBrokenLog.get("key0"));
+        assertEquals("Invalid value of broken record",
+                "value1", tableWithBrokenLog.get("key1"));
+        assertTrue("Table with broken log should be written again",
+                tableWithBrokenLog.isCompactionRequired());
+    }
+
+    @Test
+    public void testUnknownLogRecord() throws Exception {
+        final Path file = writeTable(new TreeMap<>(Collections.singletonMap("key", "value")));
+        Files.write(file, new byte[] {0, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+        final CacheTable table = CacheTable.read(file);
+
+        assertEquals("Invalid value", "value", table.get("key"));
+        assertTrue("Table with broken log should be written again",
+                table.isCompactionRequired());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        final Path file = writeTable(new TreeMap<>(Collections.singletonMap("key", "value")));
+        final CacheTable table = CacheTable.read(file);
+        table.clear();
+        table.put("other", "value");
+
+        assertNull("Invalid value of removed entry", table.get("key"));
+        assertEquals("Invalid entries", Collections.singletonMap("other", "value"),
+                table.toMap());
+        assertTrue("Cleared table should be written again", table.isCompactionRequired());
+    }
+
+    @Test
+    public void testOtherFormat() throws Exception {
+        final Path file = temporaryFolder.newFile().toPath();
+
+        assertNull("Empty file should not be read", CacheTable.read(file));
+        Files.write(file, Arrays.asList("configuration*?=1234567890", "/path/File.java=1"),
+                StandardCharsets.ISO_8859_1);
+        assertNull("Properties file should not be read", CacheTable.read(file));
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws Exception {
+        final Path file = writeTable(new TreeMap<>(Collections.singletonMap("key", "value")));
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[Integer.BYTES + 3]++;
+        Files.write(file, bytes);
+        final CacheTable table = CacheTable.read(file);
+
+        assertNull("Entry of unsupported version should not be read", table.get("key"));
+        assertTrue("Table should be written again", table.isCompactionRequired());
+    }
+
+    @Test
+    public void testBrokenHeader() throws Exception {
+        final Path file = writeTable(new TreeMap<>(Collections.singletonMap("key", "value")));
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[4 * Integer.BYTES]++;
+        Files.write(file, bytes);
+        final CacheTable table = CacheTable.read(file);
+
+        assertNull("Entry of broken table should not be read", table.get("key"));
+        assertTrue("Table should be written again", table.isCompactionRequired());
+    }
+}
@@ -0,0 +1,132 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
+
+public class CheckDispatchTableTest {
+
+    @Test
+    public void testVisitorsAndLeavers() {
+        final AbstractCheck visitor = new VisitingCheck();
+        final AbstractCheck leaver = new LeavingCheck();
+        final Multimap<String, AbstractCheck> tokenToChecks = HashMultimap.create();
+        tokenToChecks.put("CLASS_DEF", visitor);
+        tokenToChecks.put("CLASS_DEF", leaver);
+        tokenToChecks.put("IDENT", leaver);
+        final Set<AbstractCheck> checks = new HashSet<>(Arrays.asList(visitor, leaver));
+
+        final CheckDispatchTable table = new CheckDispatchTable(tokenToChecks, checks);
+
+        assertArrayEquals("Invalid visitors of CLASS_DEF", new AbstractCheck[] {visitor},
+                table.getVisitors(TokenTypes.CLASS_DEF));
+        assertArrayEquals("Invalid leavers of CLASS_DEF", new AbstractCheck[] {leaver},
+                table.getLeavers(TokenTypes.CLASS_DEF));
+        assertEquals("Invalid visitors of IDENT", 0, table.getVisitors(TokenTypes.IDENT).length);
+        assertArrayEquals("Invalid leavers of IDENT", new AbstractCheck[] {leaver},
+                table.getLeavers(TokenTypes.IDENT));
+    }
+
+    @Test
+    public void testTokenTypeWithoutChecks() {
+        final Multimap<String, AbstractCheck> tokenToChecks = HashMultimap.create();
+        tokenToChecks.put("CLASS_DEF", new VisitingCheck());
+
+        final CheckDispatchTable table = new CheckDispatchTable(tokenToChecks,
+                new HashSet<>(tokenToChecks.values()));
+
+        assertEquals("Invalid visitors of unregistered token", 0,
+                table.getVisitors(TokenTypes.METHOD_DEF).length);
+        assertEquals("Invalid visitors of token above the table", 0,
+                table.getVisitors(TokenTypes.COMMENT_CONTENT).length);
+    }
+
+    @Test
+    public void testChecksOutsideOfSetAreSkipped() {
+        final AbstractCheck visitor = new VisitingCheck();
+        final Multimap<String, AbstractCheck> tokenToChecks = HashMultimap.create();
+        tokenToChecks.put("CLASS_DEF", visitor);
+        tokenToChecks.put("CLASS_DEF", new VisitingCheck());
+
+        final CheckDispatchTable table = new CheckDispatchTable(tokenToChecks,
+                new HashSet<>(Arrays.asList(visitor)));
+
+        assertArrayEquals("Invalid visitors of CLASS_DEF", new AbstractCheck[] {visitor},
+                table.getVisitors(TokenTypes.CLASS_DEF));
+    }
+
+    private static class VisitingCheck extends AbstractCheck {
+        @Override
+        public int[] getDefaultTokens() {
+            return getAcceptableTokens();
+        }
+
+        @Override
+        public int[] getAcceptableTokens() {
+            return new int[] {TokenTypes.CLASS_DEF};
+        }
+
+        @Override
+        public int[] getRequiredTokens() {
+            return CommonUtils.EMPTY_INT_ARRAY;
+        }
+
+        @Override
+        public void visitToken(DetailAST ast) {
+            // no code
+        }
+    }
+
+    private static class LeavingCheck extends AbstractCheck {
+        @Override
+        public int[] getDefaultTokens() {
+            return getAcceptableTokens();
+        }
+
+        @Override
+        public int[] getAcceptableTokens() {
+            return new int[] {TokenTypes.CLASS_DEF, TokenTypes.IDENT};
+        }
+
+        @Override
+        public int[] getRequiredTokens() {
+            return CommonUtils.EMPTY_INT_ARRAY;
+        }
+
+        @Override
+        public void leaveToken(DetailAST ast) {
+            // no code
+        }
+    }
+}
@@ -23,6 +23,7 @@ import static com.puppycrawl.tools.checkstyle.Checker.EXCEPTION_MSG;
 import static com.puppycrawl.tools.checkstyle.DefaultLogger.AUDIT_FINISHED_MESSAGE;
 import static com.puppycrawl.tools.checkstyle.DefaultLogger.AUDIT_STARTED_MESSAGE;
 import static com.puppycrawl.tools.checkstyle.checks.NewlineAtEndOfFileCheck.MSG_KEY_NO_NEWLINE_EOF;
+import static com.puppycrawl.tools.checkstyle.checks.naming.AbstractNameCheck.MSG_INVALID_PATTERN;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -37,7 +38,6 @@ import static org.mockito.Mockito.when;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOError;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -47,17 +47,22 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Properties;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -83,6 +88,8 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
 import com.puppycrawl.tools.checkstyle.checks.NewlineAtEndOfFileCheck;
 import com.puppycrawl.tools.checkstyle.checks.TranslationCheck;
 import com.puppycrawl.tools.checkstyle.checks.coding.HiddenFieldCheck;
+import com.puppycrawl.tools.checkstyle.checks.header.HeaderCheck;
+import com.puppycrawl.tools.checkstyle.checks.naming.TypeNameCheck;
 import com.puppycrawl.tools.checkstyle.filters.SuppressionFilter;
 import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
 
@@ -305,6 +312,68 @@ public class CheckerTest extends AbstractModuleTestSupport {
                 cache.get(new File("file.java").getCanonicalPath()));
     }
 
+    @Test
+    public void testProcessFilesWhileTheyAreSupplied() throws Exception {
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        checker.configure(new DefaultConfiguration("configuration"));
+        final DebugAuditAdapter auditAdapter = new DebugAuditAdapter();
+        checker.addListener(auditAdapter);
+
+        final int filesNumber = 10;
+        final List<Integer> startedFiles = new ArrayList<>();
+        final Iterator<File> files = IntStream.range(0, filesNumber).mapToObj(index -> {
+            startedFiles.add(auditAdapter.getNumFilesStarted());
+            return new File("file" + index + ".java");
+        }).iterator();
+        checker.process(files);
+
+        assertEquals("Invalid number of started files",
+                filesNumber, auditAdapter.getNumFilesStarted());
+        assertTrue("Files should be checked while others are supplied",
+                startedFiles.get(filesNumber - 1) > 0);
+    }
+
+    @Test
+    public void testProcessTexts() throws Exception {
+        final DefaultConfiguration checkConfig = createModuleConfig(TypeNameCheck.class);
+        checkConfig.addAttribute("format", "^[a-z]+$");
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addChild(checkConfig);
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("configuration");
+        checkerConfig.addAttribute("charset", "UTF-8");
+        checkerConfig.addAttribute("fileExtensions", "java");
+        checkerConfig.addChild(treeWalkerConfig);
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        checker.configure(checkerConfig);
+        final DebugAuditAdapter auditAdapter = new DebugAuditAdapter();
+        checker.addListener(auditAdapter);
+
+        final SortedSet<LocalizedMessage> violations =
+                checker.processText("InputInMemory.java", "class A {}");
+        assertEquals("Invalid number of violations", 1, violations.size());
+        assertEquals("Invalid violation", getCheckMessage(TypeNameCheck.class,
+                MSG_INVALID_PATTERN, "A", "^[a-z]+$"), violations.first().getMessage());
+        assertTrue("Text without violations should have none", checker.processText(
+                "InputInMemory.java", "class a {}".getBytes(StandardCharsets.UTF_8)).isEmpty());
+
+        final Map<String, SortedSet<LocalizedMessage>> textViolations =
+                checker.processTexts(Arrays.asList(
+                        FileText.fromText(new File("InputInMemory.java"), "class B {}"),
+                        FileText.fromText(new File("InputInMemory.txt"), "class C {}")));
+        assertEquals("Invalid number of violations", 1,
+                textViolations.get("InputInMemory.java").size());
+        assertTrue("Text with other extension should not be checked",
+                textViolations.get("InputInMemory.txt").isEmpty());
+        assertEquals("Listeners should not be notified",
+                0, auditAdapter.getNumFilesStarted());
+
+        checker.addFilter(new DummyFilter());
+        assertTrue("Filtered violations should not be returned",
+                checker.processText("InputInMemory.java", "class A {}").isEmpty());
+    }
+
     @Test
     public void testIgnoredFileExtensions() throws Exception {
         final DefaultConfiguration checkerConfig = new DefaultConfiguration("configuration");
@@ -510,13 +579,11 @@ public class CheckerTest extends AbstractModuleTestSupport {
         final String[] expected = CommonUtils.EMPTY_STRING_ARRAY;
 
         verify(checker, tmpFile.getPath(), tmpFile.getPath(), expected);
-        final Properties cacheAfterFirstRun = new Properties();
-        cacheAfterFirstRun.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterFirstRun = CacheTable.read(cacheFile.toPath()).toMap();
 
         // one more time to reuse cache
         verify(checker, tmpFile.getPath(), tmpFile.getPath(), expected);
-        final Properties cacheAfterSecondRun = new Properties();
-        cacheAfterSecondRun.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterSecondRun = CacheTable.read(cacheFile.toPath()).toMap();
 
         assertEquals("Cache from first run differs from second run cache",
                 cacheAfterFirstRun, cacheAfterSecondRun);
@@ -542,20 +609,44 @@ public class CheckerTest extends AbstractModuleTestSupport {
         // invoke destroy to persist cache
         checker.destroy();
 
-        final Properties cache = new Properties();
-        cache.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cache = CacheTable.read(cacheFile.toPath()).toMap();
 
-        // There should 2 objects in cache: processed file (file.java) and checker configuration.
-        final int expectedNumberOfObjectsInCache = 2;
+        // There should 3 objects in cache: processed file (file.java), checker
+        // configuration and the set of modules. TranslationCheck is a global check,
+        // so its violations are not cached.
+        final int expectedNumberOfObjectsInCache = 3;
         assertEquals("Cache has unexpected size",
                 expectedNumberOfObjectsInCache, cache.size());
 
         final String expectedConfigHash = "B8535A811CA90BE8B7A14D40BCA62B4FC2447B46";
         assertEquals("Cache has unexpected hash",
-                expectedConfigHash, cache.getProperty(PropertyCacheFile.CONFIG_HASH_KEY));
+                expectedConfigHash, cache.get(PropertyCacheFile.CONFIG_HASH_KEY));
 
         assertNotNull("Cache file has null path",
-                cache.getProperty(tmpFile.getPath()));
+                cache.get(tmpFile.getPath()));
+    }
+
+    @Test
+    public void testWithCacheByContent() throws Exception {
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        checker.configure(createModuleConfig(TranslationCheck.class));
+
+        final File cacheFile = temporaryFolder.newFile();
+        checker.setCacheFile(cacheFile.getPath());
+        checker.setCacheByContent(true);
+        checker.setBasedir(temporaryFolder.getRoot().getPath());
+
+        final File tmpFile = new File(temporaryFolder.newFolder("sub"), "file.java");
+        Files.write(tmpFile.toPath(), "class file {}".getBytes(StandardCharsets.UTF_8));
+        checker.process(Collections.singletonList(tmpFile));
+        checker.destroy();
+
+        final Map<String, String> cache = CacheTable.read(cacheFile.toPath()).toMap();
+
+        assertNull("Cache has absolute path", cache.get(tmpFile.getPath()));
+        assertNotNull("Cache has no path relative to basedir",
+                cache.get("sub/file.java"));
     }
 
     @Test
@@ -574,29 +665,28 @@ public class CheckerTest extends AbstractModuleTestSupport {
         // invoke destroy to persist cache
         checker.destroy();
 
-        final Properties cacheAfterClear = new Properties();
-        cacheAfterClear.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterClear = CacheTable.read(cacheFile.toPath()).toMap();
 
         assertEquals("Cache has unexpected size",
                 1, cacheAfterClear.size());
         assertNotNull("Cache has null hash",
-                cacheAfterClear.getProperty(PropertyCacheFile.CONFIG_HASH_KEY));
+                cacheAfterClear.get(PropertyCacheFile.CONFIG_HASH_KEY));
 
         final String pathToEmptyFile = temporaryFolder.newFile("file.java").getPath();
         final String[] expected = CommonUtils.EMPTY_STRING_ARRAY;
 
         // file that should be audited is not in cache
         verify(checker, pathToEmptyFile, pathToEmptyFile, expected);
-        final Properties cacheAfterSecondRun = new Properties();
-        cacheAfterSecondRun.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterSecondRun = CacheTable.read(cacheFile.toPath()).toMap();
 
         assertNotNull("Cache has null path",
-                cacheAfterSecondRun.getProperty(pathToEmptyFile));
+                cacheAfterSecondRun.get(pathToEmptyFile));
         assertEquals("Cash have changed it hash",
-            cacheAfterClear.getProperty(PropertyCacheFile.CONFIG_HASH_KEY),
-            cacheAfterSecondRun.getProperty(PropertyCacheFile.CONFIG_HASH_KEY)
+            cacheAfterClear.get(PropertyCacheFile.CONFIG_HASH_KEY),
+            cacheAfterSecondRun.get(PropertyCacheFile.CONFIG_HASH_KEY)
         );
-        final int expectedNumberOfObjectsInCacheAfterSecondRun = 2;
+        // the file, the checker configuration and the empty set of modules
+        final int expectedNumberOfObjectsInCacheAfterSecondRun = 3;
         assertEquals("Cache has changed number of items",
                 expectedNumberOfObjectsInCacheAfterSecondRun, cacheAfterSecondRun.size());
     }
@@ -622,11 +712,11 @@ public class CheckerTest extends AbstractModuleTestSupport {
                 (PropertyCacheFile) Whitebox.getInternalState(checker, "cache");
         cache.persist();
 
-        final Properties cacheAfterClear = new Properties();
-        cacheAfterClear.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterClear = CacheTable.read(cacheFile.toPath()).toMap();
 
+        // the checker configuration and the set of modules
         assertEquals("Cache has unexpected size",
-                1, cacheAfterClear.size());
+                2, cacheAfterClear.size());
     }
 
     @Test
@@ -657,11 +747,11 @@ public class CheckerTest extends AbstractModuleTestSupport {
         // we catch errors in 'processFiles' method. Most such errors are abnormal conditions,
         // that is why we use PowerMockito to reproduce them.
         final File mock = PowerMockito.mock(File.class);
-        // Assume that I/O error is happened when we try to invoke 'lastModified()' method.
+        // Assume that I/O error is happened when we try to invoke 'getAbsolutePath()' method.
         final String errorMessage = "Java Virtual Machine is broken"
             + " or has run out of resources necessary for it to continue operating.";
         final Error expectedError = new IOError(new InternalError(errorMessage));
-        when(mock.lastModified()).thenThrow(expectedError);
+        when(mock.getAbsolutePath()).thenThrow(expectedError);
         final Checker checker = new Checker();
         final List<File> filesToProcess = new ArrayList<>();
         filesToProcess.add(mock);
@@ -705,25 +795,23 @@ public class CheckerTest extends AbstractModuleTestSupport {
         final String pathToEmptyFile = temporaryFolder.newFile("file.java").getPath();
 
         verify(checker, pathToEmptyFile, expected);
-        final Properties cacheAfterFirstRun = new Properties();
-        cacheAfterFirstRun.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterFirstRun = CacheTable.read(cacheFile.toPath()).toMap();
 
         // One more time to use cache.
         verify(checker, pathToEmptyFile, expected);
-        final Properties cacheAfterSecondRun = new Properties();
-        cacheAfterSecondRun.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterSecondRun = CacheTable.read(cacheFile.toPath()).toMap();
 
         assertEquals(
                 "Cache file has changed its path",
-            cacheAfterFirstRun.getProperty(pathToEmptyFile),
-            cacheAfterSecondRun.getProperty(pathToEmptyFile)
+            cacheAfterFirstRun.get(pathToEmptyFile),
+            cacheAfterSecondRun.get(pathToEmptyFile)
         );
         assertEquals(
                 "Cache has changed its hash",
-            cacheAfterFirstRun.getProperty(PropertyCacheFile.CONFIG_HASH_KEY),
-            cacheAfterSecondRun.getProperty(PropertyCacheFile.CONFIG_HASH_KEY)
+            cacheAfterFirstRun.get(PropertyCacheFile.CONFIG_HASH_KEY),
+            cacheAfterSecondRun.get(PropertyCacheFile.CONFIG_HASH_KEY)
         );
-        final int expectedNumberOfObjectsInCache = 2;
+        final int expectedNumberOfObjectsInCache = 3;
         assertEquals("Number of items in cache differs from expected",
                 expectedNumberOfObjectsInCache, cacheAfterFirstRun.size());
         assertEquals("Number of items in cache differs from expected",
@@ -743,7 +831,7 @@ public class CheckerTest extends AbstractModuleTestSupport {
         // Imagine that cache exists in a file. New version of Checkstyle appear.
         // New release contains update to a some check to have additional external resource.
         // User update his configuration and run validation as usually.
-        // Cache should not be reused.
+        // Cached violations of the check should not be reused.
 
         final DynamicalResourceHolderCheck check = new DynamicalResourceHolderCheck();
         final String firstExternalResourceLocation = getPath("InputImportControlOne.xml");
@@ -766,10 +854,9 @@ public class CheckerTest extends AbstractModuleTestSupport {
         final String[] expected = CommonUtils.EMPTY_STRING_ARRAY;
 
         verify(checker, pathToEmptyFile, expected);
-        final Properties cacheAfterFirstRun = new Properties();
-        cacheAfterFirstRun.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterFirstRun = CacheTable.read(cacheFile.toPath()).toMap();
 
-        final int expectedNumberOfObjectsInCacheAfterFirstRun = 4;
+        final int expectedNumberOfObjectsInCacheAfterFirstRun = 5;
         assertEquals("Number of items in cache differs from expected",
                 expectedNumberOfObjectsInCacheAfterFirstRun, cacheAfterFirstRun.size());
 
@@ -780,31 +867,31 @@ public class CheckerTest extends AbstractModuleTestSupport {
         check.setSecondExternalResourceLocation(secondExternalResourceLocation);
 
         verify(checker, pathToEmptyFile, expected);
-        final Properties cacheAfterSecondRun = new Properties();
-        cacheAfterSecondRun.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> cacheAfterSecondRun = CacheTable.read(cacheFile.toPath()).toMap();
 
         assertEquals("Cache file has changed its path",
-            cacheAfterFirstRun.getProperty(pathToEmptyFile),
-            cacheAfterSecondRun.getProperty(pathToEmptyFile)
+            cacheAfterFirstRun.get(pathToEmptyFile),
+            cacheAfterSecondRun.get(pathToEmptyFile)
         );
         assertEquals(
                 "Cache has changed its hash",
-            cacheAfterFirstRun.getProperty(PropertyCacheFile.CONFIG_HASH_KEY),
-            cacheAfterSecondRun.getProperty(PropertyCacheFile.CONFIG_HASH_KEY)
+            cacheAfterFirstRun.get(PropertyCacheFile.CONFIG_HASH_KEY),
+            cacheAfterSecondRun.get(PropertyCacheFile.CONFIG_HASH_KEY)
         );
         assertEquals("Cache has changed its resource key",
-            cacheAfterFirstRun.getProperty(firstExternalResourceKey),
-            cacheAfterSecondRun.getProperty(firstExternalResourceKey)
+            cacheAfterFirstRun.get(firstExternalResourceKey),
+            cacheAfterSecondRun.get(firstExternalResourceKey)
         );
         assertNotNull("Cache has null as a resource key",
-                cacheAfterFirstRun.getProperty(firstExternalResourceKey));
-        final int expectedNumberOfObjectsInCacheAfterSecondRun = 4;
+                cacheAfterFirstRun.get(firstExternalResourceKey));
+        // the set of modules of the first run is evicted from cache
+        final int expectedNumberOfObjectsInCacheAfterSecondRun = 6;
         assertEquals("Number of items in cache differs from expected",
                 expectedNumberOfObjectsInCacheAfterSecondRun, cacheAfterSecondRun.size());
         assertNull("Cache has not null as a resource key",
-                cacheAfterFirstRun.getProperty(secondExternalResourceKey));
+                cacheAfterFirstRun.get(secondExternalResourceKey));
         assertNotNull("Cache has null as a resource key",
-                cacheAfterSecondRun.getProperty(secondExternalResourceKey));
+                cacheAfterSecondRun.get(secondExternalResourceKey));
     }
 
     @Test
@@ -855,13 +942,297 @@ public class CheckerTest extends AbstractModuleTestSupport {
 
         verify(checker, fileViolationPath, expected);
 
-        try (FileInputStream input = new FileInputStream(cacheFile)) {
-            final Properties details = new Properties();
-            details.load(input);
+        final Map<String, String> details = CacheTable.read(cacheFile.toPath()).toMap();
+
+        assertNotNull("suppressed violation file saved in cache",
+                details.get(fileViolationPath));
+    }
+
+    @Test
+    public void testCacheReplaysViolations() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("checkstyleConfig");
+        checkerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        checkerConfig.addChild(createModuleConfig(NewlineAtEndOfFileCheck.class));
+        final File file = temporaryFolder.newFile("file.java");
+        Files.write(file.toPath(), "class file {}".getBytes(StandardCharsets.UTF_8));
+        final long timestamp = file.lastModified();
+        final String[] expected = {
+            "0: " + getCheckMessage(NewlineAtEndOfFileCheck.class, MSG_KEY_NO_NEWLINE_EOF),
+        };
+
+        final Checker checker = createCachedChecker(checkerConfig);
+        verify(checker, file.getPath(), expected);
+        checker.destroy();
+
+        // the file is fixed, but the timestamp is the same, so violations are taken from cache
+        Files.write(file.toPath(), "class file {}\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue("Timestamp should be restored", file.setLastModified(timestamp));
+        final Checker cachedChecker = createCachedChecker(checkerConfig);
+        verify(cachedChecker, file.getPath(), expected);
+        cachedChecker.destroy();
+
+        final Map<String, String> cache = CacheTable.read(cacheFile.toPath()).toMap();
+        assertNotNull("Violations should be saved in cache",
+                cache.get(PropertyCacheFile.VIOLATIONS_KEY_PREFIX + file.getPath()));
+    }
+
+    @Test
+    public void testCacheDoesNotSkipFilesOfGlobalChecks() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("checkstyleConfig");
+        checkerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        checkerConfig.addChild(createModuleConfig(TranslationCheck.class));
+        final File directory = temporaryFolder.newFolder();
+        final File defaultFile = new File(directory, "messages.properties");
+        final File germanFile = new File(directory, "messages_de.properties");
+        Files.write(defaultFile.toPath(), "first=1\nsecond=2\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(germanFile.toPath(), "first=1\nsecond=2\n".getBytes(StandardCharsets.UTF_8));
+        final File[] files = {defaultFile, germanFile};
+        final Map<String, List<String>> expected = new HashMap<>();
+        expected.put(defaultFile.getPath(), Collections.emptyList());
+        expected.put(germanFile.getPath(), Collections.emptyList());
+
+        verify(createCachedChecker(checkerConfig), files, expected);
+
+        // the unchanged default file is cached, but it is still compared with the changed one
+        Files.write(germanFile.toPath(), "first=1\n".getBytes(StandardCharsets.UTF_8));
+        expected.put(germanFile.getPath(), Collections.singletonList("0: " + getCheckMessage(
+                TranslationCheck.class, TranslationCheck.MSG_KEY, "second")));
+        getStream().reset();
+        verify(createCachedChecker(checkerConfig), files, expected);
+    }
+
+    @Test
+    public void testCacheKeepsFilesOfFilteredGlobalViolations() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("checkstyleConfig");
+        checkerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        checkerConfig.addChild(createModuleConfig(TranslationCheck.class));
+        final File directory = temporaryFolder.newFolder();
+        final File defaultFile = new File(directory, "messages.properties");
+        final File germanFile = new File(directory, "messages_de.properties");
+        Files.write(defaultFile.toPath(), "first=1\nsecond=2\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(germanFile.toPath(), "first=1\n".getBytes(StandardCharsets.UTF_8));
+        final Map<String, List<String>> expected = new HashMap<>();
+        expected.put(defaultFile.getPath(), Collections.emptyList());
+        expected.put(germanFile.getPath(), Collections.emptyList());
+
+        final Checker checker = createCachedChecker(checkerConfig);
+        checker.addFilter(new DummyFilter());
+        verify(checker, new File[] {defaultFile, germanFile}, expected);
+
+        final PropertyCacheFile cache =
+                (PropertyCacheFile) Whitebox.getInternalState(checker, "cache");
+        assertTrue("File with filtered violations should stay in the cache",
+                cache.isInCache(germanFile));
+    }
 
-            assertNotNull("suppressed violation file saved in cache",
-                    details.getProperty(fileViolationPath));
+    // -@cs[ExecutableStatementCount] This test needs to verify many things.
+    @Test
+    public void testCacheRerunsOnlyChangedChecks() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("checkstyleConfig");
+        checkerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        checkerConfig.addChild(createModuleConfig(NewlineAtEndOfFileCheck.class));
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addChild(createModuleConfig(TypeNameCheck.class));
+        checkerConfig.addChild(treeWalkerConfig);
+        final File file = temporaryFolder.newFile("file.java");
+        Files.write(file.toPath(), "class file {}".getBytes(StandardCharsets.UTF_8));
+        final long timestamp = file.lastModified();
+        final String[] expected = {
+            "0: " + getCheckMessage(NewlineAtEndOfFileCheck.class, MSG_KEY_NO_NEWLINE_EOF),
+            "1:7: " + getCheckMessage(TypeNameCheck.class, MSG_INVALID_PATTERN,
+                "file", "^[A-Z][a-zA-Z0-9]*$"),
+        };
+
+        final Checker checker = createCachedChecker(checkerConfig);
+        verify(checker, file.getPath(), expected);
+        checker.destroy();
+
+        // only the changed check sees the fixed file with the same timestamp
+        Files.write(file.toPath(), "class File {}\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue("Timestamp should be restored", file.setLastModified(timestamp));
+        final DefaultConfiguration changedCheckConfig = createModuleConfig(TypeNameCheck.class);
+        changedCheckConfig.addAttribute("format", "^[a-z]+$");
+        final DefaultConfiguration changedTreeWalkerConfig =
+                createModuleConfig(TreeWalker.class);
+        changedTreeWalkerConfig.addChild(changedCheckConfig);
+        final DefaultConfiguration changedCheckerConfig =
+                new DefaultConfiguration("checkstyleConfig");
+        changedCheckerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        changedCheckerConfig.addChild(createModuleConfig(NewlineAtEndOfFileCheck.class));
+        changedCheckerConfig.addChild(changedTreeWalkerConfig);
+        final String[] expectedAfterChange = {
+            "0: " + getCheckMessage(NewlineAtEndOfFileCheck.class, MSG_KEY_NO_NEWLINE_EOF),
+            "1:7: " + getCheckMessage(TypeNameCheck.class, MSG_INVALID_PATTERN,
+                "File", "^[a-z]+$"),
+        };
+
+        getStream().reset();
+        final Checker changedChecker = createCachedChecker(changedCheckerConfig);
+        verify(changedChecker, file.getPath(), expectedAfterChange);
+        changedChecker.destroy();
+
+        // the violations of both checks are cached now
+        getStream().reset();
+        final Checker cachedChecker = createCachedChecker(changedCheckerConfig);
+        verify(cachedChecker, file.getPath(), expectedAfterChange);
+        cachedChecker.destroy();
+    }
+
+    @Test
+    public void testCacheRerunsOnlyChecksWithChangedResources() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final File headerFile = temporaryFolder.newFile("header.txt");
+        Files.write(headerFile.toPath(), "// header".getBytes(StandardCharsets.UTF_8));
+        final DefaultConfiguration headerConfig = createModuleConfig(HeaderCheck.class);
+        headerConfig.addAttribute("headerFile", headerFile.getPath());
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("checkstyleConfig");
+        checkerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        checkerConfig.addChild(createModuleConfig(NewlineAtEndOfFileCheck.class));
+        checkerConfig.addChild(headerConfig);
+        final File file = temporaryFolder.newFile("file.java");
+        Files.write(file.toPath(), "class file {}".getBytes(StandardCharsets.UTF_8));
+        final long timestamp = file.lastModified();
+        final String[] expected = {
+            "0: " + getCheckMessage(NewlineAtEndOfFileCheck.class, MSG_KEY_NO_NEWLINE_EOF),
+            "1: " + getCheckMessage(HeaderCheck.class, HeaderCheck.MSG_MISMATCH, "// header"),
+        };
+
+        final Checker checker = createCachedChecker(checkerConfig);
+        verify(checker, file.getPath(), expected);
+        checker.destroy();
+
+        // only the check with the changed header sees the fixed file with the same timestamp
+        Files.write(file.toPath(), "class file {}\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue("Timestamp should be restored", file.setLastModified(timestamp));
+        Files.write(headerFile.toPath(), "class file {}".getBytes(StandardCharsets.UTF_8));
+        final String[] expectedAfterChange = {
+            "0: " + getCheckMessage(NewlineAtEndOfFileCheck.class, MSG_KEY_NO_NEWLINE_EOF),
+        };
+
+        getStream().reset();
+        final Checker changedChecker = createCachedChecker(checkerConfig);
+        verify(changedChecker, file.getPath(), expectedAfterChange);
+        changedChecker.destroy();
+    }
+
+    @Test
+    public void testCacheAppliesChangedSuppressionsToCachedViolations() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final File suppressionsFile = temporaryFolder.newFile("suppressions.xml");
+        final String suppressions = "<?xml version=\"1.0\"?>\n"
+            + "<!DOCTYPE suppressions PUBLIC \"-//Puppy Crawl//DTD Suppressions 1.1//EN\"\n"
+            + "    \"http://checkstyle.sourceforge.net/dtds/suppressions_1_1.dtd\">\n"
+            + "<suppressions>\n"
+            + "    <suppress checks=\"%s\" files=\".\"/>\n"
+            + "</suppressions>\n";
+        Files.write(suppressionsFile.toPath(), String.format(Locale.ROOT, suppressions,
+                "TypeName").getBytes(StandardCharsets.UTF_8));
+        final DefaultConfiguration filterConfig = createModuleConfig(SuppressionFilter.class);
+        filterConfig.addAttribute("file", suppressionsFile.getPath());
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("checkstyleConfig");
+        checkerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        checkerConfig.addChild(createModuleConfig(NewlineAtEndOfFileCheck.class));
+        checkerConfig.addChild(filterConfig);
+        final File file = temporaryFolder.newFile("file.java");
+        Files.write(file.toPath(), "class file {}".getBytes(StandardCharsets.UTF_8));
+        final String[] expected = {
+            "0: " + getCheckMessage(NewlineAtEndOfFileCheck.class, MSG_KEY_NO_NEWLINE_EOF),
+        };
+
+        final Checker checker = createCachedChecker(checkerConfig);
+        verify(checker, file.getPath(), expected);
+        checker.destroy();
+
+        Files.write(suppressionsFile.toPath(), String.format(Locale.ROOT, suppressions,
+                "NewlineAtEndOfFile").getBytes(StandardCharsets.UTF_8));
+        getStream().reset();
+        final Checker suppressingChecker = createCachedChecker(checkerConfig);
+        verify(suppressingChecker, file.getPath(), CommonUtils.EMPTY_STRING_ARRAY);
+        suppressingChecker.destroy();
+
+        final Map<String, String> cache = CacheTable.read(cacheFile.toPath()).toMap();
+        assertNotNull("Suppressed violations should remain in cache",
+                cache.get(PropertyCacheFile.VIOLATIONS_KEY_PREFIX + file.getPath()));
+        getStream().reset();
+        final Checker cachedChecker = createCachedChecker(checkerConfig);
+        verify(cachedChecker, file.getPath(), CommonUtils.EMPTY_STRING_ARRAY);
+        cachedChecker.destroy();
+    }
+
+    @Test
+    public void testCacheEvictsFilesWhichAreNotCheckedAnymore() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final DefaultConfiguration checkerConfig = new DefaultConfiguration("checkstyleConfig");
+        checkerConfig.addAttribute("cacheFile", cacheFile.getPath());
+        checkerConfig.addChild(createModuleConfig(NewlineAtEndOfFileCheck.class));
+        final File checkedFile = temporaryFolder.newFile("checked.java");
+        final File deletedFile = temporaryFolder.newFile("deleted.java");
+
+        final Checker checker = createCachedChecker(checkerConfig);
+        checker.process(Arrays.asList(checkedFile, deletedFile));
+        checker.destroy();
+        assertTrue("File should be deleted", deletedFile.delete());
+
+        // files, which were not checked, are kept for a day
+        final Checker keepingChecker = createCachedChecker(checkerConfig);
+        keepingChecker.setCacheMaxAge(1);
+        keepingChecker.process(Collections.singletonList(checkedFile));
+        keepingChecker.destroy();
+        final Map<String, String> keptCache = CacheTable.read(cacheFile.toPath()).toMap();
+        assertNotNull("Deleted file should be kept", keptCache.get(deletedFile.getPath()));
+        assertNotNull("Time since deleted file is not checked should be saved",
+                keptCache.get(PropertyCacheFile.UNUSED_KEY_PREFIX + deletedFile.getPath()));
+
+        final Checker evictingChecker = createCachedChecker(checkerConfig);
+        evictingChecker.setCacheMaxAge(0);
+        evictingChecker.process(Collections.singletonList(checkedFile));
+        evictingChecker.destroy();
+        final Map<String, String> cache = CacheTable.read(cacheFile.toPath()).toMap();
+        assertNotNull("Checked file should be kept", cache.get(checkedFile.getPath()));
+        assertNull("Deleted file should be evicted", cache.get(deletedFile.getPath()));
+        assertNull("Time since deleted file is not checked should be evicted",
+                cache.get(PropertyCacheFile.UNUSED_KEY_PREFIX + deletedFile.getPath()));
+    }
+
+    @Test
+    public void testCacheDirectoryIsSharedBetweenCheckouts() throws Exception {
+        final File cacheDirectory = temporaryFolder.newFolder();
+        final String[] expected = {
+            "0: " + getCheckMessage(NewlineAtEndOfFileCheck.class, MSG_KEY_NO_NEWLINE_EOF),
+        };
+        for (String checkout : Arrays.asList("first", "second")) {
+            final File basedir = temporaryFolder.newFolder(checkout);
+            final File file = new File(basedir, "file.java");
+            Files.write(file.toPath(), "class file {}".getBytes(StandardCharsets.UTF_8));
+            final DefaultConfiguration checkerConfig =
+                    new DefaultConfiguration("checkstyleConfig");
+            checkerConfig.addAttribute("cacheFile", temporaryFolder.newFile().getPath());
+            checkerConfig.addAttribute("cacheDirectory", cacheDirectory.getPath());
+            checkerConfig.addAttribute("basedir", basedir.getPath());
+            checkerConfig.addChild(createModuleConfig(NewlineAtEndOfFileCheck.class));
+
+            getStream().reset();
+            final Checker checker = createCachedChecker(checkerConfig);
+            verify(checker, file.getPath(), "file.java", expected);
+            checker.destroy();
         }
+
+        try (Stream<Path> entries = Files.walk(cacheDirectory.toPath())) {
+            assertEquals("Violations should be stored once", 1,
+                    entries.filter(Files::isRegularFile).count());
+        }
+    }
+
+    private Checker createCachedChecker(Configuration checkerConfig) throws Exception {
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        checker.addListener(getBriefUtLogger());
+        checker.configure(checkerConfig);
+        return checker;
     }
 
     @Test
@@ -896,12 +1267,34 @@ public class CheckerTest extends AbstractModuleTestSupport {
         final Checker checker = new Checker();
         checker.addFileSetCheck(fileSet);
         checker.process(Collections.singletonList(new File("dummy.java")));
+        checker.destroy();
         final List<String> expected =
             Arrays.asList("beginProcessing", "finishProcessing", "destroy");
         assertArrayEquals("Method calls were not expected",
                 expected.toArray(), fileSet.getMethodCalls().toArray());
     }
 
+    @Test
+    public void testCheckerProcessesSeveralTimesBeforeDestroy() throws Exception {
+        final DummyFileSet fileSet = new DummyFileSet();
+        final Checker checker = new Checker();
+        checker.addFileSetCheck(fileSet);
+        final DebugAuditAdapter auditAdapter = new DebugAuditAdapter();
+        checker.addListener(auditAdapter);
+        final List<File> files = Collections.singletonList(new File("dummy.java"));
+        checker.process(files);
+        checker.processText("other.java", "class A {}");
+        auditAdapter.resetListener();
+        checker.process(files);
+        assertTrue("Listener should be kept between runs", auditAdapter.wasCalled());
+        checker.destroy();
+        final List<String> expected = Arrays.asList("beginProcessing", "finishProcessing",
+            "beginProcessing", "processFiltered", "finishProcessing",
+            "beginProcessing", "finishProcessing", "destroy");
+        assertArrayEquals("Method calls were not expected",
+                expected.toArray(), fileSet.getMethodCalls().toArray());
+    }
+
     @Test
     public void testSetFileSetCheckSetsMessageDispatcher() throws Exception {
         final DummyFileSet fileSet = new DummyFileSet();
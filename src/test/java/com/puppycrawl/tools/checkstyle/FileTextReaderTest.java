@@ -0,0 +1,204 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+
+public class FileTextReaderTest extends AbstractPathTestSupport {
+
+    @Override
+    protected String getPackageLocation() {
+        return "com/puppycrawl/tools/checkstyle/main";
+    }
+
+    private List<File> getFiles() throws Exception {
+        return Arrays.asList(new File(getPath("InputMain.java")),
+                new File(getPath("InputMainConfig-classname.xml")),
+                new File(getPath("InputMainComplexityOverflow.java")),
+                new File(getPath("InputMain.java")));
+    }
+
+    private static void verifyReader(List<File> files, int readAhead) throws Exception {
+        final String charset = StandardCharsets.UTF_8.name();
+        final List<File> actualFiles = new ArrayList<>();
+        final FileTextReader reader = new FileTextReader(files.iterator(),
+            file -> file.getName().endsWith(".java"),
+            file -> !file.getName().startsWith("InputMainComplexity"), charset, readAhead);
+        try {
+            while (reader.hasNext()) {
+                final File file = reader.next();
+                actualFiles.add(file);
+                final FileText expected = new FileText(file.getAbsoluteFile(), charset);
+                assertEquals("Invalid text of " + file, expected.getFullText().toString(),
+                        reader.read(file).getFullText().toString());
+            }
+        }
+        finally {
+            reader.close();
+        }
+
+        assertEquals("Invalid accepted files",
+                Arrays.asList(files.get(0), files.get(2), files.get(3)), actualFiles);
+    }
+
+    @Test
+    public void testReadAhead() throws Exception {
+        verifyReader(getFiles(), FileTextReader.DEFAULT_READ_AHEAD);
+    }
+
+    @Test
+    public void testReadAheadOfOneFile() throws Exception {
+        verifyReader(getFiles(), 1);
+    }
+
+    @Test
+    public void testWithoutReadAhead() throws Exception {
+        verifyReader(getFiles(), 0);
+    }
+
+    @Test
+    public void testNonExistingFile() throws Exception {
+        final File file = new File(getPath("InputMainNonExisting.java"));
+        final FileTextReader reader = new FileTextReader(
+            Arrays.asList(file).iterator(), ignored -> true, ignored -> true,
+            StandardCharsets.UTF_8.name(),
+            FileTextReader.DEFAULT_READ_AHEAD);
+        try {
+            assertEquals("Invalid file", file, reader.next());
+            assertFalse("No more files are expected", reader.hasNext());
+            reader.read(file);
+            fail("Exception is expected");
+        }
+        catch (FileNotFoundException ex) {
+            assertEquals("Invalid exception message",
+                    file.getAbsolutePath() + " (No such file or directory)", ex.getMessage());
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testFilterExceptionIsThrownInTurnOfFile() throws Exception {
+        final List<File> files = getFiles();
+        final IllegalStateException exception = new IllegalStateException("test");
+        final List<File> actualFiles = new ArrayList<>();
+        final FileTextReader reader = new FileTextReader(files.iterator(), file -> {
+            if (file.getName().startsWith("InputMainComplexity")) {
+                throw exception;
+            }
+            return true;
+        }, ignored -> true, StandardCharsets.UTF_8.name(), FileTextReader.DEFAULT_READ_AHEAD);
+        try {
+            while (reader.hasNext()) {
+                actualFiles.add(reader.next());
+            }
+            fail("Exception is expected");
+        }
+        catch (CheckstyleException ex) {
+            assertEquals("Invalid exception message",
+                    "Exception was thrown while processing " + files.get(2).getPath(),
+                    ex.getMessage());
+            assertEquals("Invalid exception cause", exception, ex.getCause());
+        }
+        finally {
+            reader.close();
+        }
+
+        assertEquals("Files before the failed file are expected",
+                Arrays.asList(files.get(0), files.get(1)), actualFiles);
+    }
+
+    @Test
+    public void testFilterErrorIsThrownInTurnOfFile() throws Exception {
+        final List<File> files = getFiles();
+        final FileTextReader reader = new FileTextReader(files.iterator(), file -> {
+            if (file.getName().startsWith("InputMainConfig")) {
+                throw new IllegalAccessError("test");
+            }
+            return true;
+        }, ignored -> true, StandardCharsets.UTF_8.name(), FileTextReader.DEFAULT_READ_AHEAD);
+        try {
+            assertTrue("File is expected", reader.hasNext());
+            assertEquals("Invalid file", files.get(0), reader.next());
+            reader.hasNext();
+            fail("Error is expected");
+        }
+        catch (Error error) {
+            assertEquals("Invalid error message",
+                    "Error was thrown while processing " + files.get(1).getPath(),
+                    error.getMessage());
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testTextsOfRepeatedFile() throws Exception {
+        final File file = new File(getPath("InputMain.java"));
+        final FileText first = new FileText(file, Arrays.asList("first"));
+        final FileText second = new FileText(file, Arrays.asList("second"));
+        final FileTextReader reader = new FileTextReader(Arrays.asList(first, second),
+            ignored -> true);
+        try {
+            assertEquals("Invalid file", file, reader.next());
+            assertEquals("Invalid text", first, reader.read(file));
+            assertEquals("Invalid text", first, reader.read(file));
+            assertEquals("Invalid file", file, reader.next());
+            assertEquals("Invalid text", second, reader.read(file));
+            assertFalse("No more files are expected", reader.hasNext());
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testFileSystemReader() throws Exception {
+        final File file = new File(getPath("InputMain.java"));
+        final FileTextReader reader =
+                FileTextReader.createFileSystemReader(StandardCharsets.UTF_8.name());
+        try {
+            assertFalse("No files are expected", reader.hasNext());
+            assertEquals("Invalid text",
+                    new FileText(file, StandardCharsets.UTF_8.name()).getFullText().toString(),
+                    reader.read(file).getFullText().toString());
+        }
+        finally {
+            reader.close();
+        }
+    }
+}
@@ -43,8 +43,11 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -272,6 +275,19 @@ public class MainTest {
                 getPath("InputMain.java"));
     }
 
+    @Test
+    public void testExistingTargetFileInCheckerMultiThreadMode() throws Exception {
+
+        exit.checkAssertionAfterwards(() -> {
+            assertEquals("Unexpected ouput log", auditStartMessage.getMessage() + EOL
+                    + auditFinishMessage.getMessage() + EOL,
+                    systemOut.getLog());
+            assertEquals("Unexpected system error log", "", systemErr.getLog());
+        });
+        Main.main("-C", "2", "-c", getPath("InputMainConfig-classname.xml"),
+                getPath("InputMain.java"));
+    }
+
     @Test
     public void testExistingTargetFileXmlOutput() throws Exception {
 
@@ -620,7 +636,8 @@ public class MainTest {
     @Test
     @SuppressWarnings("unchecked")
     public void testListFilesNotFile() throws Exception {
-        final Method method = Main.class.getDeclaredMethod("listFiles", File.class, List.class);
+        final Method method = Main.class.getDeclaredMethod("listFiles", File.class, List.class,
+                int.class);
         method.setAccessible(true);
 
         final File fileMock = mock(File.class);
@@ -628,24 +645,82 @@ public class MainTest {
         when(fileMock.isDirectory()).thenReturn(false);
         when(fileMock.isFile()).thenReturn(false);
 
-        final List<File> result = (List<File>) method.invoke(null, fileMock, null);
+        final List<File> result = (List<File>) method.invoke(null, fileMock, null, 1);
         assertEquals("Invalid result size", 0, result.size());
     }
 
     @Test
     @SuppressWarnings("unchecked")
-    public void testListFilesDirectoryWithNull() throws Exception {
-        final Method method = Main.class.getDeclaredMethod("listFiles", File.class, List.class);
+    public void testListFilesDirectoryNotReadable() throws Exception {
+        final Method method = Main.class.getDeclaredMethod("listFiles", File.class, List.class,
+                int.class);
         method.setAccessible(true);
 
         final File fileMock = mock(File.class);
         when(fileMock.canRead()).thenReturn(true);
         when(fileMock.isDirectory()).thenReturn(true);
-        when(fileMock.listFiles()).thenReturn(null);
+        when(fileMock.toPath()).thenReturn(new File(temporaryFolder.getRoot(), "missing")
+                .toPath());
 
-        final List<File> result = (List<File>) method.invoke(null, fileMock,
-                new ArrayList<Pattern>());
-        assertEquals("Invalid result size", 0, result.size());
+        for (int threadsNumber = 1; threadsNumber <= 2; threadsNumber++) {
+            final List<File> result = (List<File>) method.invoke(null, fileMock,
+                    new ArrayList<Pattern>(), threadsNumber);
+            assertEquals("Invalid result size", 0, result.size());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testListFilesInParallel() throws Exception {
+        final Method listFiles = Main.class.getDeclaredMethod("listFiles", File.class,
+                List.class, int.class);
+        listFiles.setAccessible(true);
+        final Method getFilesToProcess = Main.class.getDeclaredMethod("getFilesToProcess",
+                List.class, int.class, String[].class);
+        getFilesToProcess.setAccessible(true);
+        final File directory = new File(getFilePath("")).getParentFile();
+        final List<Pattern> list = Collections.singletonList(Pattern.compile("[\\\\/]main$"));
+
+        final Iterator<File> files = (Iterator<File>) getFilesToProcess.invoke(null, list, 1,
+                new String[] {directory.getPath()});
+        final List<File> expected = new ArrayList<>();
+        files.forEachRemaining(expected::add);
+        final List<File> result = (List<File>) listFiles.invoke(null, directory, list, 4);
+        assertEquals("Parallel listing should find the same files in the same order",
+                expected, result);
+        assertTrue("Files should be found", result.size() > 1);
+        assertTrue("Excluded directory should be skipped", result.stream()
+                .noneMatch(file -> file.getParentFile().getName().equals("main")));
+        try {
+            files.next();
+            fail("Exception is expected");
+        }
+        catch (NoSuchElementException ignored) {
+            // expected
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testListFilesLazily() throws Exception {
+        final Method getFilesToProcess = Main.class.getDeclaredMethod("getFilesToProcess",
+                List.class, int.class, String[].class);
+        getFilesToProcess.setAccessible(true);
+        final File directory = temporaryFolder.newFolder();
+        final File subdirectory = new File(directory, "subdirectory");
+        assertTrue("Directory should be created", subdirectory.mkdir());
+        final File file = new File(subdirectory, "File.java");
+        assertTrue("File should be created", file.createNewFile());
+
+        final Iterator<File> files = (Iterator<File>) getFilesToProcess.invoke(null,
+                new ArrayList<Pattern>(), 1, new String[] {directory.getPath()});
+        final File laterFile = new File(directory, "LaterFile.java");
+        assertTrue("File should be created", laterFile.createNewFile());
+        final List<File> result = new ArrayList<>();
+        files.forEachRemaining(result::add);
+        assertTrue("Files should be listed while they are requested",
+                result.contains(laterFile));
+        assertTrue("File in subdirectory should be listed", result.contains(file));
     }
 
     @Test
@@ -873,13 +948,14 @@ public class MainTest {
     @Test
     @SuppressWarnings("unchecked")
     public void testExcludeDirectoryNotMatch() throws Exception {
-        final Method method = Main.class.getDeclaredMethod("listFiles", File.class, List.class);
+        final Method method = Main.class.getDeclaredMethod("listFiles", File.class, List.class,
+                int.class);
         method.setAccessible(true);
         final List<Pattern> list = new ArrayList<>();
         list.add(Pattern.compile("BAD_PATH"));
 
         final List<File> result = (List<File>) method.invoke(null, new File(getFilePath("")),
-                list);
+                list, 1);
         assertNotEquals("Invalid result size", 0, result.size());
     }
 
@@ -1054,15 +1130,25 @@ public class MainTest {
     public void testModuleNameInMultiThreadMode() throws Exception {
         TestRootModuleChecker.reset();
 
-        try {
-            Main.main("-C", "4", "-W", "4", "-c", getPath("InputMainConfig-multi-thread-mode.xml"),
-                getPath("InputMain.java"));
-            fail("An exception is expected");
-        }
-        catch (IllegalArgumentException ex) {
-            assertEquals("Invalid error message",
-                    "Multi thread mode for Checker module is not implemented",
-                ex.getMessage());
-        }
+        exit.checkAssertionAfterwards(() -> {
+            assertEquals("Unexpected ouput log", "", systemOut.getLog());
+            assertEquals("Unexpected system error log", "", systemErr.getLog());
+            assertTrue("Invalid checker state", TestRootModuleChecker.isProcessed());
+            final DefaultConfiguration config =
+                    (DefaultConfiguration) TestRootModuleChecker.getConfig();
+            final ThreadModeSettings multiThreadModeSettings =
+                config.getThreadModeSettings();
+            assertEquals("Invalid checker thread number",
+                    4, multiThreadModeSettings.getCheckerThreadsNumber());
+            assertEquals("Invalid checker thread number",
+                    4, multiThreadModeSettings.getTreeWalkerThreadsNumber());
+            final Configuration checkerConfiguration = config
+                .getChildren()[0];
+            assertEquals("Invalid checker name", "Checker", checkerConfiguration.getName());
+            final Configuration treeWalkerConfig = checkerConfiguration.getChildren()[0];
+            assertEquals("Invalid checker childs name", "TreeWalker", treeWalkerConfig.getName());
+        });
+        Main.main("-C", "4", "-W", "4", "-c", getPath("InputMainConfig-multi-thread-mode.xml"),
+            getPath("InputMain.java"));
     }
 }
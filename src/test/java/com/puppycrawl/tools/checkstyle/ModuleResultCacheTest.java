@@ -0,0 +1,167 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractFileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.FilterSet;
+
+public class ModuleResultCacheTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testCopyConfiguration() throws Exception {
+        final DefaultConfiguration config = new DefaultConfiguration("myName");
+        config.addAttribute("attribute", "value");
+        config.addMessage("key", "message");
+        final DefaultConfiguration copiedChild = new DefaultConfiguration("copied");
+        config.addChild(copiedChild);
+        config.addChild(new DefaultConfiguration("skipped"));
+
+        final DefaultConfiguration copy = (DefaultConfiguration) ModuleResultCache
+                .copyConfiguration(config, child -> child == copiedChild);
+
+        assertEquals("Invalid name", "myName", copy.getName());
+        assertEquals("Invalid attribute", "value", copy.getAttribute("attribute"));
+        assertEquals("Invalid messages", config.getMessages(), copy.getMessages());
+        assertEquals("Invalid children", Collections.singletonList(copiedChild),
+                Arrays.asList(copy.getChildren()));
+    }
+
+    @Test
+    public void testCopyNullConfiguration() {
+        assertNull("Copy of null should be null",
+                ModuleResultCache.copyConfiguration(null, child -> true));
+    }
+
+    @Test
+    public void testFileWithoutViolationsIsSkipped() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final File file = temporaryFolder.newFile("file.java");
+        final List<FileSetCheck> checks = Collections.singletonList(new CountingCheck());
+
+        final PropertyCacheFile cache = createCache(cacheFile);
+        final ModuleResultCache resultCache = createResultCache(cache, checks);
+        assertTrue("Changed file should be accepted", resultCache.accept(file));
+        assertFalse("Changed file should be read", resultCache.isCached(file));
+        assertTrue("No violations are expected",
+                resultCache.process(file, createReader(), checks).isEmpty());
+        resultCache.finish(file.getAbsolutePath());
+        cache.persist();
+
+        final ModuleResultCache newResultCache =
+                createResultCache(createCache(cacheFile), checks);
+        assertFalse("File without violations should not be accepted",
+                newResultCache.accept(file));
+        assertEquals("File should be checked once", 1, ((CountingCheck) checks.get(0)).count);
+    }
+
+    @Test
+    public void testRemovedFileIsCheckedAgain() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final File file = temporaryFolder.newFile("file.java");
+        final List<FileSetCheck> checks = Collections.singletonList(new CountingCheck());
+
+        final PropertyCacheFile cache = createCache(cacheFile);
+        final ModuleResultCache resultCache = createResultCache(cache, checks);
+        resultCache.accept(file);
+        resultCache.process(file, createReader(), checks);
+        resultCache.remove(file.getAbsolutePath());
+
+        assertFalse("File should not be processed", resultCache.isProcessed(
+                file.getAbsolutePath()));
+        assertTrue("Removed file should be accepted", resultCache.accept(file));
+    }
+
+    @Test
+    public void testViolationsAreRestoredFromStore() throws Exception {
+        final Path storeDirectory = temporaryFolder.newFolder().toPath();
+        final List<FileSetCheck> checks = Collections.singletonList(new CountingCheck());
+        for (String name : Arrays.asList("file.java", "file.java", "other.java")) {
+            final File basedir = temporaryFolder.newFolder();
+            final File file = new File(basedir, name);
+            Files.write(file.toPath(), "class A {}".getBytes(StandardCharsets.UTF_8));
+            final ModuleResultCache resultCache =
+                    createResultCache(createCache(temporaryFolder.newFile()), checks,
+                            new ModuleResultStore(storeDirectory, basedir.getPath()));
+
+            assertTrue("Changed file should be accepted", resultCache.accept(file));
+            assertTrue("No violations are expected",
+                    resultCache.process(file, createReader(), checks).isEmpty());
+        }
+        assertEquals("Same file in other checkout should not be checked again",
+                2, ((CountingCheck) checks.get(0)).count);
+    }
+
+    private static PropertyCacheFile createCache(File cacheFile) throws Exception {
+        final PropertyCacheFile cache =
+                new PropertyCacheFile(new DefaultConfiguration("myName"), cacheFile.getPath());
+        cache.load();
+        return cache;
+    }
+
+    private static ModuleResultCache createResultCache(PropertyCacheFile cache,
+            List<FileSetCheck> checks) {
+        return createResultCache(cache, checks, null);
+    }
+
+    private static ModuleResultCache createResultCache(PropertyCacheFile cache,
+            List<FileSetCheck> checks, ModuleResultStore store) {
+        final Map<FileSetCheck, Configuration> configurations = Collections.emptyMap();
+        return new ModuleResultCache(cache, null, checks, configurations, new FilterSet(),
+            (fileName, message) -> null, store);
+    }
+
+    private static FileTextReader createReader() {
+        return new FileTextReader(Collections.emptyIterator(), file -> true, file -> false,
+                StandardCharsets.UTF_8.name(), 0);
+    }
+
+    private static class CountingCheck extends AbstractFileSetCheck {
+        private int count;
+
+        @Override
+        protected void processFiltered(File file, FileText fileText) {
+            count++;
+        }
+    }
+}
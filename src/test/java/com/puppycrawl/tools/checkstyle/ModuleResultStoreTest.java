@@ -0,0 +1,135 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+
+public class ModuleResultStoreTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static SortedSet<LocalizedMessage> createViolations() {
+        final SortedSet<LocalizedMessage> violations = new TreeSet<>();
+        for (int i = 1; i <= 2; i++) {
+            violations.add(new LocalizedMessage(i, "messages", "key", new Object[] {i}, null,
+                    ModuleResultStoreTest.class, null));
+        }
+        return violations;
+    }
+
+    private static FileText createText(File basedir, String name) {
+        return new FileText(new File(basedir, name), Collections.singletonList("class A {}"));
+    }
+
+    private static List<Path> getEntries(Path directory) throws Exception {
+        try (Stream<Path> entries = Files.walk(directory)) {
+            return entries.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testStoredViolationsAreTheSame() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath().resolve("store");
+        final File basedir = temporaryFolder.newFolder();
+        final ModuleResultStore store = new ModuleResultStore(directory, basedir.getPath());
+        final String fileKey = store.getFileKey(new File(basedir, "A.java").getPath(),
+                createText(basedir, "A.java"));
+
+        assertNull("Missing entry should not be read", store.get(fileKey, "module"));
+        store.put(fileKey, "module", createViolations());
+        store.put(fileKey, "otherModule", new TreeSet<>());
+
+        assertEquals("Invalid stored violations", createViolations(),
+                store.get(fileKey, "module"));
+        assertEquals("Invalid stored empty violations", new TreeSet<>(),
+                store.get(fileKey, "otherModule"));
+        assertEquals("Invalid number of entries", 2, getEntries(directory).size());
+    }
+
+    @Test
+    public void testFileKeyIsRelativeToBasedir() throws Exception {
+        final File firstBasedir = temporaryFolder.newFolder();
+        final File secondBasedir = temporaryFolder.newFolder();
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final ModuleResultStore firstStore =
+                new ModuleResultStore(directory, firstBasedir.getPath());
+        final ModuleResultStore secondStore =
+                new ModuleResultStore(directory, secondBasedir.getPath());
+
+        assertEquals("Same file in other checkout should have the same key",
+                firstStore.getFileKey(new File(firstBasedir, "A.java").getPath(),
+                        createText(firstBasedir, "A.java")),
+                secondStore.getFileKey(new File(secondBasedir, "A.java").getPath(),
+                        createText(secondBasedir, "A.java")));
+        assertNotEquals("File with other name should have other key",
+                firstStore.getFileKey(new File(firstBasedir, "A.java").getPath(),
+                        createText(firstBasedir, "A.java")),
+                firstStore.getFileKey(new File(firstBasedir, "B.java").getPath(),
+                        createText(firstBasedir, "B.java")));
+    }
+
+    @Test
+    public void testBrokenEntryIsReplaced() throws Exception {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final ModuleResultStore store = new ModuleResultStore(directory, null);
+        final String fileKey = store.getFileKey("A.java", createText(null, "A.java"));
+        store.put(fileKey, "module", createViolations());
+        final Path entry = getEntries(directory).get(0);
+        final byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertNull("Broken entry should not be read", store.get(fileKey, "module"));
+        store.put(fileKey, "module", createViolations());
+        assertEquals("Invalid replaced violations", createViolations(),
+                store.get(fileKey, "module"));
+    }
+
+    @Test
+    public void testUnwritableDirectory() throws Exception {
+        final File notDirectory = temporaryFolder.newFile();
+        final ModuleResultStore store =
+                new ModuleResultStore(notDirectory.toPath().resolve("store"), null);
+        final String fileKey = store.getFileKey("A.java", createText(null, "A.java"));
+
+        store.put(fileKey, "module", createViolations());
+        assertNull("Violations should not be stored", store.get(fileKey, "module"));
+    }
+}
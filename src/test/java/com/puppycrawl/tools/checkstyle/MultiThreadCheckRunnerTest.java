@@ -0,0 +1,85 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class MultiThreadCheckRunnerTest {
+
+    @Test
+    public void testFirstGroupIsRunByCallingThread() throws Exception {
+        final AtomicReference<Thread> first = new AtomicReference<>();
+        final AtomicReference<Thread> second = new AtomicReference<>();
+        final MultiThreadCheckRunner runner = new MultiThreadCheckRunner(2);
+        try {
+            runner.run(Arrays.asList(() -> first.set(Thread.currentThread()),
+                () -> second.set(Thread.currentThread())));
+        }
+        finally {
+            runner.shutdown();
+        }
+
+        assertSame("Invalid thread of the first group", Thread.currentThread(), first.get());
+        assertNotSame("Invalid thread of the second group",
+                Thread.currentThread(), second.get());
+    }
+
+    @Test
+    public void testExceptionIsRethrown() throws Exception {
+        final MultiThreadCheckRunner runner = new MultiThreadCheckRunner(2);
+        try {
+            runner.run(Arrays.asList(() -> { }, () -> {
+                throw new IllegalStateException("Test exception");
+            }));
+            fail("Exception is expected");
+        }
+        catch (IllegalStateException ex) {
+            assertEquals("Invalid exception message", "Test exception", ex.getMessage());
+        }
+        finally {
+            runner.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrorIsRethrown() throws Exception {
+        final MultiThreadCheckRunner runner = new MultiThreadCheckRunner(3);
+        try {
+            runner.run(Arrays.asList(() -> { }, () -> { }, () -> {
+                throw new InternalError("Test error");
+            }));
+            fail("Error is expected");
+        }
+        catch (InternalError ex) {
+            assertEquals("Invalid error message", "Test error", ex.getMessage());
+        }
+        finally {
+            runner.shutdown();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+////////////////////////////////////////////////////////////////////////////////
+// checkstyle: Checks Java source code for adherence to a set of rules.
+// Copyright (C) 2001-2017 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+////////////////////////////////////////////////////////////////////////////////
+
+package com.puppycrawl.tools.checkstyle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.AutomaticBean;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import com.puppycrawl.tools.checkstyle.checks.NewlineAtEndOfFileCheck;
+import com.puppycrawl.tools.checkstyle.checks.SuppressWarningsHolder;
+import com.puppycrawl.tools.checkstyle.checks.coding.HiddenFieldCheck;
+import com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck;
+import com.puppycrawl.tools.checkstyle.checks.javadoc.JavadocPackageCheck;
+import com.puppycrawl.tools.checkstyle.checks.javadoc.JavadocStyleCheck;
+import com.puppycrawl.tools.checkstyle.checks.sizes.FileLengthCheck;
+import com.puppycrawl.tools.checkstyle.filters.SuppressWarningsFilter;
+
+public class MultiThreadFileProcessorTest extends AbstractModuleTestSupport {
+
+    @Override
+    protected String getPackageLocation() {
+        return "com/puppycrawl/tools/checkstyle/checks/coding";
+    }
+
+    private List<File> getFilesToProcess() throws IOException {
+        try (Stream<Path> paths = Files.walk(Paths.get(getPath("")))) {
+            return paths.filter(path -> path.toString().endsWith(".java"))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static DefaultConfiguration createConfig(int checkerThreadsNumber) {
+        final ThreadModeSettings threadModeSettings =
+                new ThreadModeSettings(checkerThreadsNumber, 1);
+        final DefaultConfiguration treeWalkerConfig =
+                new DefaultConfiguration(TreeWalker.class.getName(), threadModeSettings);
+        treeWalkerConfig.addChild(
+                new DefaultConfiguration(MagicNumberCheck.class.getName(), threadModeSettings));
+        treeWalkerConfig.addChild(
+                new DefaultConfiguration(HiddenFieldCheck.class.getName(), threadModeSettings));
+        treeWalkerConfig.addChild(
+                new DefaultConfiguration(JavadocStyleCheck.class.getName(), threadModeSettings));
+        treeWalkerConfig.addChild(new DefaultConfiguration(
+                SuppressWarningsHolder.class.getName(), threadModeSettings));
+
+        final DefaultConfiguration checkerConfig =
+                new DefaultConfiguration("checkstyle_checks", threadModeSettings);
+        checkerConfig.addAttribute("charset", StandardCharsets.UTF_8.name());
+        checkerConfig.addChild(treeWalkerConfig);
+        checkerConfig.addChild(new DefaultConfiguration(
+                NewlineAtEndOfFileCheck.class.getName(), threadModeSettings));
+        checkerConfig.addChild(
+                new DefaultConfiguration(FileLengthCheck.class.getName(), threadModeSettings));
+        checkerConfig.addChild(new DefaultConfiguration(
+                JavadocPackageCheck.class.getName(), threadModeSettings));
+        checkerConfig.addChild(new DefaultConfiguration(
+                SuppressWarningsFilter.class.getName(), threadModeSettings));
+        return checkerConfig;
+    }
+
+    private static Checker configureChecker(DefaultConfiguration config) throws Exception {
+        final Checker checker = new Checker();
+        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        checker.configure(config);
+        return checker;
+    }
+
+    private static String audit(DefaultConfiguration config, List<File> files)
+            throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Checker checker = configureChecker(config);
+        checker.addListener(new XMLLogger(out, AutomaticBean.OutputStreamOptions.CLOSE));
+        try {
+            checker.process(files);
+        }
+        finally {
+            checker.destroy();
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testOutputIsTheSameAsInSingleThreadMode() throws Exception {
+        final List<File> files = getFilesToProcess();
+        assertTrue("Not enough files to process", files.size() > 10);
+
+        final String expected = audit(createConfig(1), files);
+        final String actual = audit(createConfig(4), files);
+
+        assertEquals("Invalid output in multi-thread mode", expected, actual);
+    }
+
+    @Test
+    public void testErrorCount() throws Exception {
+        final List<File> files = getFilesToProcess();
+        final int expected = configureChecker(createConfig(1)).process(files);
+        final int actual = configureChecker(createConfig(3)).process(files);
+
+        assertEquals("Invalid error count in multi-thread mode", expected, actual);
+    }
+
+    @Test
+    public void testCheckerIsReusedByRuns() throws Exception {
+        final List<File> files = getFilesToProcess();
+        final String expected = audit(createConfig(1), files);
+        final int expectedErrors = configureChecker(createConfig(1)).process(files);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Checker checker = configureChecker(createConfig(3));
+        checker.addListener(new XMLLogger(out, AutomaticBean.OutputStreamOptions.NONE));
+        try {
+            for (int i = 0; i < 2; i++) {
+                assertEquals("Invalid error count of a run", expectedErrors,
+                        checker.process(files));
+            }
+        }
+        finally {
+            checker.destroy();
+        }
+
+        assertEquals("Invalid output of repeated runs", expected + expected,
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExceptionIsPropagated() throws Exception {
+        final ThreadModeSettings threadModeSettings = new ThreadModeSettings(2, 1);
+        final DefaultConfiguration treeWalkerConfig =
+                new DefaultConfiguration(TreeWalker.class.getName(), threadModeSettings);
+        treeWalkerConfig.addChild(new DefaultConfiguration(
+                ExceptionThrowingCheck.class.getName(), threadModeSettings));
+        final DefaultConfiguration checkerConfig =
+                new DefaultConfiguration("checkstyle_checks", threadModeSettings);
+        checkerConfig.addChild(treeWalkerConfig);
+
+        final List<File> files = getFilesToProcess();
+        final DebugAuditAdapter auditAdapter = new DebugAuditAdapter();
+        final Checker checker = configureChecker(checkerConfig);
+        checker.addListener(auditAdapter);
+        try {
+            checker.process(files);
+            fail("Exception is expected");
+        }
+        catch (CheckstyleException ex) {
+            assertEquals("Invalid exception message",
+                    "Exception was thrown while processing " + files.get(0).getPath(),
+                    ex.getMessage());
+            assertEquals("Invalid number of started files",
+                    1, auditAdapter.getNumFilesStarted());
+            assertEquals("Invalid number of finished files",
+                    0, auditAdapter.getNumFilesFinished());
+        }
+    }
+
+    static class ExceptionThrowingCheck extends AbstractCheck {
+        @Override
+        public int[] getDefaultTokens() {
+            return new int[] {TokenTypes.CLASS_DEF};
+        }
+
+        @Override
+        public int[] getAcceptableTokens() {
+            return getDefaultTokens();
+        }
+
+        @Override
+        public int[] getRequiredTokens() {
+            return getDefaultTokens();
+        }
+
+        @Override
+        public void visitToken(DetailAST ast) {
+            throw new IllegalStateException("Test exception");
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package com.puppycrawl.tools.checkstyle;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
@@ -34,7 +35,6 @@ import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -43,17 +43,23 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
-import java.util.Properties;
+import java.util.Map;
 import java.util.Set;
-
-import javax.xml.bind.DatatypeConverter;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -62,12 +68,15 @@ import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closeables;
 import com.google.common.io.Flushables;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
 import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
 
 @RunWith(PowerMockRunner.class)
@@ -111,6 +120,184 @@ public class PropertyCacheFileTest {
                 cache.isInCache("myFile1", 1));
     }
 
+    @Test
+    public void testInCacheByContent() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        cache.setContentMode(true, temporaryFolder.getRoot().getPath());
+        final File file = temporaryFolder.newFile("myFile");
+        Files.write(file.toPath(), "content".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse("Should return false when file is not in cache", cache.isInCache(file));
+        cache.put(file);
+        assertTrue("Should return true when file is in cache", cache.isInCache(file));
+        final String value = cache.get("myFile");
+        assertNotNull("Name of file should be relative to base directory", value);
+
+        assertTrue("Timestamp should be set", file.setLastModified(1000));
+        assertTrue("Should return true when only timestamp is changed", cache.isInCache(file));
+        assertNotEquals("Cached timestamp should be updated", value, cache.get("myFile"));
+        assertTrue("Should return true when timestamp is the same", cache.isInCache(file));
+
+        Files.write(file.toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+        assertTrue("Timestamp should be set", file.setLastModified(1000));
+        assertFalse("Should return false when content is changed", cache.isInCache(file));
+
+        cache.remove(file.getAbsolutePath());
+        assertNull("File should be removed", cache.get("myFile"));
+    }
+
+    @Test
+    public void testInCacheByContentNonExistingFile() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        cache.setContentMode(true, null);
+        final File file = temporaryFolder.newFile("myFile");
+        cache.put(file);
+        assertNotNull("Name of file should be absolute", cache.get(file.getAbsolutePath()));
+
+        assertTrue("File should be deleted", file.delete());
+        assertFalse("Should return false when file does not exist", cache.isInCache(file));
+        cache.put(file);
+        assertNull("Non existing file should not be put", cache.get(file.getAbsolutePath()));
+    }
+
+    @Test
+    public void testInCacheByTimestamp() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File file = temporaryFolder.newFile("myFile");
+        cache.put(file);
+
+        assertEquals("Timestamp should be cached by absolute name",
+                Long.toString(file.lastModified()), cache.get(file.getAbsolutePath()));
+        assertTrue("Should return true when file is in cache", cache.isInCache(file));
+        assertTrue("Timestamp should be set", file.setLastModified(1000));
+        assertFalse("Should return false when timestamp is changed", cache.isInCache(file));
+    }
+
+    @Test
+    public void testViolations() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File file = temporaryFolder.newFile("myFile");
+        final LocalizedMessage first = createMessage(1, "first");
+        final LocalizedMessage second = createMessage(2, 2);
+        cache.setModules(new HashSet<>(Arrays.asList("moduleA", "moduleB")));
+
+        cache.putViolations(file.getAbsolutePath(), createViolations(first, second));
+        assertNull("Violations of file, which is not in cache, should not be saved",
+                cache.get(PropertyCacheFile.VIOLATIONS_KEY_PREFIX + file.getAbsolutePath()));
+
+        cache.put(file);
+        assertTrue("File should have no violations",
+                cache.getViolations(file.getAbsolutePath()).isEmpty());
+        cache.putViolations(file.getAbsolutePath(), createViolations(second, second));
+        cache.putViolations(file.getAbsolutePath(), createViolations(first, second));
+        assertEquals("Invalid violations", createViolations(first, second),
+                cache.getViolations(file.getAbsolutePath()));
+
+        cache.put(file);
+        assertTrue("Violations should be removed when file is put again",
+                cache.getViolations(file.getAbsolutePath()).isEmpty());
+    }
+
+    @Test
+    public void testViolationsOfOtherModules() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File file = temporaryFolder.newFile("myFile");
+        final LocalizedMessage first = createMessage(1, "first");
+        final LocalizedMessage second = createMessage(2, "second");
+        cache.load();
+        cache.setModules(new HashSet<>(Arrays.asList("moduleA", "moduleB")));
+        cache.put(file);
+        cache.putViolations(file.getAbsolutePath(), createViolations(first, second));
+        cache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        newCache.setModules(new HashSet<>(Arrays.asList("moduleA", "moduleC")));
+        assertEquals("Violations of modules of previous run should be restored",
+                createViolations(first, second),
+                newCache.getViolations(file.getAbsolutePath()));
+        newCache.persist();
+        assertEquals("Invalid number of module sets", 2,
+                CacheTable.read(new File(filePath).toPath()).toMap().keySet().stream()
+                    .filter(key -> key.startsWith(PropertyCacheFile.MODULES_KEY_PREFIX))
+                    .count());
+    }
+
+    @Test
+    public void testViolationsWithoutModules() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File file = temporaryFolder.newFile("myFile");
+        cache.put(file);
+
+        cache.putViolations(file.getAbsolutePath(), createViolations(createMessage(1, "arg"),
+                createMessage(2, "arg")));
+        assertTrue("Violations should not be saved before modules are set",
+                cache.getViolations(file.getAbsolutePath()).isEmpty());
+
+        cache.setModules(new HashSet<>());
+        cache.putViolations(file.getAbsolutePath(), new HashMap<>());
+        assertTrue("File should have no violations of no modules",
+                cache.getViolations(file.getAbsolutePath()).isEmpty());
+        assertNotNull("Violations of no modules should be saved",
+                cache.get(PropertyCacheFile.VIOLATIONS_KEY_PREFIX + file.getAbsolutePath()));
+    }
+
+    @Test
+    public void testViolationsWhichCanNotBeSaved() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File file = temporaryFolder.newFile("myFile");
+        cache.setModules(new HashSet<>(Arrays.asList("moduleA", "moduleB")));
+        cache.put(file);
+
+        cache.putViolations(file.getAbsolutePath(),
+                createViolations(createMessage(1, new Object()), createMessage(2, "arg")));
+        assertFalse("File with violations, which can not be saved, should be removed",
+                cache.isInCache(file));
+    }
+
+    @Test
+    public void testBrokenViolations() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File file = temporaryFolder.newFile("myFile");
+        cache.setModules(new HashSet<>(Arrays.asList("moduleA", "moduleB")));
+        cache.put(file);
+        cache.putViolations(file.getAbsolutePath(),
+                createViolations(createMessage(1, "arg"), createMessage(2, "arg")));
+        final String key = PropertyCacheFile.VIOLATIONS_KEY_PREFIX + file.getAbsolutePath();
+        final CacheTable details = (CacheTable) Whitebox.getInternalState(cache, "details");
+        final String value = cache.get(key);
+        final int separator = value.indexOf(':');
+
+        details.put(key, value.substring(0, separator + 5));
+        assertNull("Broken violations should not be restored",
+                cache.getViolations(file.getAbsolutePath()));
+        details.put(key, value.substring(0, separator + 1) + "not base64");
+        assertNull("Broken violations should not be restored",
+                cache.getViolations(file.getAbsolutePath()));
+        details.put(key, value.substring(separator + 1));
+        assertNull("Violations without modules should not be restored",
+                cache.getViolations(file.getAbsolutePath()));
+        details.put(key, "unknown" + value.substring(separator));
+        assertNull("Violations of unknown modules should not be restored",
+                cache.getViolations(file.getAbsolutePath()));
+    }
+
     @Test
     public void testResetIfFileDoesNotExist() throws IOException {
         final Configuration config = new DefaultConfiguration("myName");
@@ -186,7 +373,7 @@ public class PropertyCacheFileTest {
     }
 
     @Test
-    public void testConfigHashRemainsOnResetExternalResources() throws IOException {
+    public void testConfigHashRemainsOnNewExternalResources() throws IOException {
         final Configuration config = new DefaultConfiguration("myName");
         final String filePath = temporaryFolder.newFile().getPath();
         final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
@@ -198,15 +385,17 @@ public class PropertyCacheFileTest {
         final String hash = cache.get(PropertyCacheFile.CONFIG_HASH_KEY);
         assertNotNull("Config hash key should not be null", hash);
 
-        // apply new external resource to clear cache
+        // new external resource does not clear cache
         final Set<String> resources = new HashSet<>();
         resources.add("dummy");
         cache.putExternalResources(resources);
 
         assertEquals("Invalid config hash key",
                 hash, cache.get(PropertyCacheFile.CONFIG_HASH_KEY));
-        assertFalse("Should return false in file is not in cache",
+        assertTrue("Should return true if file is in cache",
                 cache.isInCache("myFile", 1));
+        assertNotNull("External resource should be in cache",
+                cache.getExternalResourceHash("dummy"));
     }
 
     @Test
@@ -223,19 +412,65 @@ public class PropertyCacheFileTest {
         resources.add(pathToResource);
         cache.putExternalResources(resources);
 
-        final MessageDigest digest = MessageDigest.getInstance("SHA-1");
-        final URI uri = CommonUtils.getUriByFilename(pathToResource);
-        final byte[] input =
-                ByteStreams.toByteArray(new BufferedInputStream(uri.toURL().openStream()));
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
-            oos.writeObject(input);
-        }
-        digest.update(out.toByteArray());
-        final String expected = DatatypeConverter.printHexBinary(digest.digest());
+        final File file = new File(pathToResource);
+        final String expected = file.length() + ":" + file.lastModified() + ":"
+                + Hashing.murmur3_128().hashBytes(Files.readAllBytes(file.toPath()));
 
         assertEquals("Hashes are not equal", expected,
                 cache.get("module-resource*?:" + pathToResource));
+        assertEquals("Invalid hash of resource",
+                expected.substring(expected.lastIndexOf(':') + 1),
+                cache.getExternalResourceHash(pathToResource));
+    }
+
+    @Test
+    public void testUnchangedExternalResourceIsNotRead() throws Exception {
+        final File cacheFile = temporaryFolder.newFile();
+        final File resource = temporaryFolder.newFile("resource.xml");
+        final Set<String> resources = Collections.singleton(resource.getPath());
+        final String key = PropertyCacheFile.EXTERNAL_RESOURCE_KEY_PREFIX + resource.getPath();
+        Files.write(resource.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+        final PropertyCacheFile cache =
+                new PropertyCacheFile(new DefaultConfiguration("myName"), cacheFile.getPath());
+        cache.load();
+        cache.putExternalResources(resources);
+        final String value = cache.get(key);
+        final String stat = value.substring(0, value.lastIndexOf(':') + 1);
+
+        // a hash, which differs from the content, shows that the resource is not read again
+        Whitebox.<CacheTable>getInternalState(cache, "details").put(key, stat + "cachedHash");
+        cache.putExternalResources(resources);
+        assertEquals("Resource with the same size and timestamp should not be read",
+                "cachedHash", cache.getExternalResourceHash(resource.getPath()));
+
+        assertTrue("Timestamp should be changed",
+                resource.setLastModified(resource.lastModified() - 1000));
+        cache.putExternalResources(resources);
+        assertEquals("Touched resource should be hashed again",
+                value.substring(value.lastIndexOf(':') + 1),
+                cache.getExternalResourceHash(resource.getPath()));
+    }
+
+    @Test
+    public void testChangedExternalResourceIsUpdatedInCache() throws Exception {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        cache.load();
+        final File file = temporaryFolder.newFile("myFile");
+        cache.put(file);
+        final File resource = temporaryFolder.newFile("resource.xml");
+        final Set<String> resources = Collections.singleton(resource.getPath());
+
+        Files.write(resource.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+        cache.putExternalResources(resources);
+        final String firstHash = cache.getExternalResourceHash(resource.getPath());
+        Files.write(resource.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+        cache.putExternalResources(resources);
+
+        assertNotEquals("Hash of changed resource should be updated",
+                firstHash, cache.getExternalResourceHash(resource.getPath()));
+        assertTrue("Changed resource should not clear cache", cache.isInCache(file));
     }
 
     /**
@@ -263,13 +498,13 @@ public class PropertyCacheFileTest {
         when(ByteStreams.toByteArray(any(BufferedInputStream.class)))
                 .thenThrow(IOException.class);
 
-        // apply new external resource to clear cache
+        // new external resource does not clear cache
         final Set<String> resources = new HashSet<>();
         final String resource = "/com/puppycrawl/tools/checkstyle/java.header";
         resources.add(resource);
         cache.putExternalResources(resources);
 
-        assertFalse("Should return false in file is not in cache",
+        assertTrue("Should return true if file is in cache",
                 cache.isInCache(myFile, 1));
         assertFalse("Should return false in file is not in cache",
                 cache.isInCache(resource, 1));
@@ -320,6 +555,7 @@ public class PropertyCacheFileTest {
         cache.persist();
         assertTrue("Cache file does not exist", Files.exists(Paths.get(filePath)));
         Files.delete(Paths.get(filePath));
+        Files.delete(Paths.get(filePath + ".lock"));
     }
 
     @Test
@@ -389,8 +625,7 @@ public class PropertyCacheFileTest {
 
             cache.persist();
 
-            final Properties cacheDetails = new Properties();
-            cacheDetails.load(Files.newBufferedReader(cacheFile.toPath()));
+            final Map<String, String> cacheDetails = CacheTable.read(cacheFile.toPath()).toMap();
 
             final int expectedNumberOfObjectsInCacheFile = 2;
             assertEquals("Unexpected number of objects in cache",
@@ -445,8 +680,7 @@ public class PropertyCacheFileTest {
 
             cache.persist();
 
-            final Properties cacheDetails = new Properties();
-            cacheDetails.load(Files.newBufferedReader(cacheFile.toPath()));
+            final Map<String, String> cacheDetails = CacheTable.read(cacheFile.toPath()).toMap();
 
             final int expectedNumberOfObjectsInCacheFile = 2;
             assertEquals("Unexpected number of objects in cache",
@@ -473,8 +707,7 @@ public class PropertyCacheFileTest {
 
         cache.persist();
 
-        final Properties details = new Properties();
-        details.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> details = CacheTable.read(cacheFile.toPath()).toMap();
         assertEquals("Invalid details size", 1, details.size());
 
         // change in config
@@ -492,8 +725,324 @@ public class PropertyCacheFileTest {
 
         cacheAfterChangeInConfig.persist();
 
-        final Properties detailsAfterChangeInConfig = new Properties();
-        detailsAfterChangeInConfig.load(Files.newBufferedReader(cacheFile.toPath()));
+        final Map<String, String> detailsAfterChangeInConfig =
+                CacheTable.read(cacheFile.toPath()).toMap();
         assertEquals("Invalid cache size", 1, detailsAfterChangeInConfig.size());
     }
+
+    @Test
+    public void testMigrationFromProperties() throws Exception {
+        final Configuration config = new DefaultConfiguration("myName");
+        final File cacheFile = temporaryFolder.newFile();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, cacheFile.getPath());
+        cache.load();
+        final String configHash = cache.get(PropertyCacheFile.CONFIG_HASH_KEY);
+        Files.write(cacheFile.toPath(), Arrays.asList(
+                PropertyCacheFile.CONFIG_HASH_KEY + "=" + configHash, "/path/File.java=1"),
+                StandardCharsets.ISO_8859_1);
+
+        final PropertyCacheFile migratedCache =
+                new PropertyCacheFile(config, cacheFile.getPath());
+        migratedCache.load();
+        assertEquals("Invalid value from properties file",
+                "1", migratedCache.get("/path/File.java"));
+        migratedCache.persist();
+
+        final Map<String, String> details = CacheTable.read(cacheFile.toPath()).toMap();
+        assertEquals("Invalid migrated config hash",
+                configHash, details.get(PropertyCacheFile.CONFIG_HASH_KEY));
+        assertEquals("Invalid migrated value", "1", details.get("/path/File.java"));
+    }
+
+    @Test
+    public void testChangesAreAppended() throws Exception {
+        final Configuration config = new DefaultConfiguration("myName");
+        final File cacheFile = temporaryFolder.newFile();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, cacheFile.getPath());
+        cache.load();
+        for (int i = 0; i < 100; i++) {
+            cache.put("/path/File" + i + ".java", i);
+        }
+        cache.persist();
+        final byte[] table = Files.readAllBytes(cacheFile.toPath());
+
+        final PropertyCacheFile cacheWithChanges =
+                new PropertyCacheFile(config, cacheFile.getPath());
+        cacheWithChanges.load();
+        cacheWithChanges.put("/path/File0.java", 100);
+        cacheWithChanges.remove("/path/File1.java");
+        cacheWithChanges.persist();
+        final byte[] tableWithLog = Files.readAllBytes(cacheFile.toPath());
+
+        assertArrayEquals("Table should not be written again",
+                table, Arrays.copyOf(tableWithLog, table.length));
+        final PropertyCacheFile cacheAfterChanges =
+                new PropertyCacheFile(config, cacheFile.getPath());
+        cacheAfterChanges.load();
+        assertEquals("Invalid changed value", "100", cacheAfterChanges.get("/path/File0.java"));
+        assertNull("Invalid removed value", cacheAfterChanges.get("/path/File1.java"));
+        assertEquals("Invalid unchanged value", "2", cacheAfterChanges.get("/path/File2.java"));
+    }
+
+    @Test
+    public void testEvictUnusedFiles() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File usedFile = temporaryFolder.newFile("usedFile");
+        final File unusedFile = temporaryFolder.newFile("unusedFile");
+        final Map<String, SortedSet<LocalizedMessage>> violations =
+                createViolations(createMessage(1, "first"), createMessage(2, "second"));
+        cache.load();
+        cache.setModules(new HashSet<>(Arrays.asList("moduleA", "moduleB")));
+        for (File file : Arrays.asList(usedFile, unusedFile)) {
+            cache.put(file);
+            cache.putViolations(file.getAbsolutePath(), violations);
+        }
+        cache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        newCache.setModules(new HashSet<>(Arrays.asList("moduleA", "moduleB")));
+        assertTrue("Used file should be in cache", newCache.isInCache(usedFile));
+
+        assertEquals("Invalid number of evicted entries", 2, newCache.evict(0, 0));
+        assertTrue("Used file should be kept", newCache.isInCache(usedFile));
+        assertEquals("Violations of used file should be kept", violations,
+                newCache.getViolations(usedFile.getAbsolutePath()));
+        assertNull("Unused file should be evicted", newCache.get(unusedFile.getAbsolutePath()));
+        assertTrue("Violations of unused file should be evicted",
+                newCache.getViolations(unusedFile.getAbsolutePath()).isEmpty());
+        assertNotNull("Config hash should be kept",
+                newCache.get(PropertyCacheFile.CONFIG_HASH_KEY));
+    }
+
+    @Test
+    public void testEvictUnusedModulesAndResources() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File file = temporaryFolder.newFile("myFile");
+        cache.load();
+        cache.setModules(Collections.singleton("moduleA"));
+        cache.putExternalResources(
+                Collections.singleton(temporaryFolder.newFile("resource.xml").getPath()));
+        cache.put(file);
+        cache.putViolations(file.getAbsolutePath(), Collections.singletonMap("moduleA",
+                new TreeSet<>(Collections.singleton(createMessage(1, "arg")))));
+        cache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        newCache.setModules(Collections.singleton("moduleB"));
+        assertEquals("Invalid number of evicted entries", 4, newCache.evict(0, 0));
+        newCache.persist();
+        assertEquals("Invalid number of remaining entries", 2,
+                CacheTable.read(new File(filePath).toPath()).toMap().size());
+    }
+
+    @Test
+    public void testEvictUnusedFilesByAge() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File recentFile = temporaryFolder.newFile("recentFile");
+        final File oldFile = temporaryFolder.newFile("oldFile");
+        cache.load();
+        cache.put(recentFile);
+        cache.put(oldFile);
+        cache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        newCache.put(PropertyCacheFile.UNUSED_KEY_PREFIX + oldFile.getAbsolutePath(),
+                System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+        assertEquals("Old file and its time should be evicted", 2, newCache.evict(1, 0));
+        assertNotNull("Recent file should be kept",
+                newCache.get(recentFile.getAbsolutePath()));
+        assertNotNull("Time of recent file should be stored", newCache.get(
+                PropertyCacheFile.UNUSED_KEY_PREFIX + recentFile.getAbsolutePath()));
+        assertNull("Old file should be evicted", newCache.get(oldFile.getAbsolutePath()));
+
+        assertTrue("Recent file should be in cache", newCache.isInCache(recentFile));
+        assertEquals("Time of used file should be evicted", 1, newCache.evict(1, 0));
+    }
+
+    @Test
+    public void testEvictUnusedFilesBySize() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+        final File usedFile = temporaryFolder.newFile("usedFile");
+        final File recentFile = temporaryFolder.newFile("recentFile");
+        final File oldFile = temporaryFolder.newFile("oldFile");
+        cache.load();
+        cache.put(recentFile);
+        cache.put(oldFile);
+        cache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        newCache.put(usedFile);
+        newCache.put(PropertyCacheFile.UNUSED_KEY_PREFIX + oldFile.getAbsolutePath(),
+                System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        assertEquals("Oldest file and its time should be evicted", 2, newCache.evict(1, 2));
+        assertNotNull("Used file should be kept", newCache.get(usedFile.getAbsolutePath()));
+        assertNotNull("Recent file should be kept",
+                newCache.get(recentFile.getAbsolutePath()));
+        assertNull("Oldest file should be evicted", newCache.get(oldFile.getAbsolutePath()));
+
+        assertEquals("Recent file and its time should be evicted", 2, newCache.evict(1, 1));
+        assertNotNull("Used file should never be evicted",
+                newCache.get(usedFile.getAbsolutePath()));
+        assertEquals("Used files should not be evicted to fit the size", 0,
+                newCache.evict(1, 1));
+    }
+
+    @Test
+    public void testChangesOfOtherProcessesAreMerged() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final File firstFile = temporaryFolder.newFile("firstFile");
+        final File secondFile = temporaryFolder.newFile("secondFile");
+        final PropertyCacheFile firstCache = new PropertyCacheFile(config, filePath);
+        firstCache.load();
+        final PropertyCacheFile secondCache = new PropertyCacheFile(config, filePath);
+        secondCache.load();
+
+        firstCache.put(firstFile);
+        secondCache.put(secondFile);
+        firstCache.persist();
+        secondCache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        assertTrue("File of first cache should be kept", newCache.isInCache(firstFile));
+        assertTrue("File of second cache should be kept", newCache.isInCache(secondFile));
+        assertTrue("Lock file should be created", new File(filePath + ".lock").exists());
+    }
+
+    @Test
+    public void testChangesOfOtherProcessesAreDroppedAfterReset() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final File firstFile = temporaryFolder.newFile("firstFile");
+        final File secondFile = temporaryFolder.newFile("secondFile");
+        final PropertyCacheFile firstCache = new PropertyCacheFile(config, filePath);
+        firstCache.load();
+        final PropertyCacheFile secondCache = new PropertyCacheFile(config, filePath);
+        secondCache.load();
+
+        firstCache.reset();
+        firstCache.put(firstFile);
+        secondCache.put(secondFile);
+        secondCache.persist();
+        firstCache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        assertTrue("File of reset cache should be kept", newCache.isInCache(firstFile));
+        assertNull("File checked before reset should be dropped",
+                newCache.get(secondFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void testChangesAreNotAppendedToTableOfOtherConfiguration() throws IOException {
+        final String filePath = temporaryFolder.newFile().getPath();
+        final File firstFile = temporaryFolder.newFile("firstFile");
+        final File secondFile = temporaryFolder.newFile("secondFile");
+        final File thirdFile = temporaryFolder.newFile("thirdFile");
+        final Configuration firstConfig = new DefaultConfiguration("first");
+        final Configuration secondConfig = new DefaultConfiguration("second");
+        final PropertyCacheFile initialCache = new PropertyCacheFile(firstConfig, filePath);
+        initialCache.load();
+        initialCache.put(firstFile);
+        initialCache.persist();
+
+        final PropertyCacheFile firstCache = new PropertyCacheFile(firstConfig, filePath);
+        firstCache.load();
+        final PropertyCacheFile secondCache = new PropertyCacheFile(secondConfig, filePath);
+        secondCache.load();
+        secondCache.put(thirdFile);
+        secondCache.persist();
+        firstCache.put(secondFile);
+        firstCache.persist();
+
+        final PropertyCacheFile newSecondCache = new PropertyCacheFile(secondConfig, filePath);
+        newSecondCache.load();
+        assertNull("File of other configuration should not be cached",
+                newSecondCache.get(secondFile.getAbsolutePath()));
+        final PropertyCacheFile newFirstCache = new PropertyCacheFile(firstConfig, filePath);
+        newFirstCache.load();
+        assertTrue("File of first cache should be kept", newFirstCache.isInCache(firstFile));
+        assertTrue("File of first cache should be kept", newFirstCache.isInCache(secondFile));
+        assertNull("File of other configuration should be dropped",
+                newFirstCache.get(thirdFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void testChangesOfOtherConfigurationAreOverwritten() throws IOException {
+        final String filePath = temporaryFolder.newFile().getPath();
+        final File firstFile = temporaryFolder.newFile("firstFile");
+        final File secondFile = temporaryFolder.newFile("secondFile");
+        final PropertyCacheFile firstCache =
+                new PropertyCacheFile(new DefaultConfiguration("first"), filePath);
+        firstCache.load();
+        final Configuration config = new DefaultConfiguration("second");
+        final PropertyCacheFile secondCache = new PropertyCacheFile(config, filePath);
+        secondCache.load();
+
+        firstCache.put(firstFile);
+        secondCache.put(secondFile);
+        firstCache.persist();
+        secondCache.persist();
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        assertNull("File of other configuration should be overwritten",
+                newCache.get(firstFile.getAbsolutePath()));
+        assertTrue("File of second cache should be kept", newCache.isInCache(secondFile));
+    }
+
+    @Test
+    public void testParallelPersist() throws IOException {
+        final Configuration config = new DefaultConfiguration("myName");
+        final String filePath = temporaryFolder.newFile().getPath();
+        final List<PropertyCacheFile> caches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final PropertyCacheFile cache = new PropertyCacheFile(config, filePath);
+            cache.load();
+            cache.put("file" + i, i);
+            caches.add(cache);
+        }
+
+        caches.parallelStream().forEach(cache -> {
+            try {
+                cache.persist();
+            }
+            catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        final PropertyCacheFile newCache = new PropertyCacheFile(config, filePath);
+        newCache.load();
+        for (int i = 0; i < caches.size(); i++) {
+            assertTrue("File of cache " + i + " should be kept",
+                    newCache.isInCache("file" + i, i));
+        }
+    }
+
+    private static LocalizedMessage createMessage(int lineNo, Object arg) {
+        return new LocalizedMessage(lineNo, "messages", "key", new Object[] {arg}, null,
+                PropertyCacheFileTest.class, null);
+    }
+
+    private static Map<String, SortedSet<LocalizedMessage>> createViolations(
+            LocalizedMessage moduleA, LocalizedMessage moduleB) {
+        final Map<String, SortedSet<LocalizedMessage>> violations = new HashMap<>();
+        violations.put("moduleA", new TreeSet<>(Collections.singleton(moduleA)));
+        violations.put("moduleB", new TreeSet<>(Collections.singleton(moduleB)));
+        return violations;
+    }
 }
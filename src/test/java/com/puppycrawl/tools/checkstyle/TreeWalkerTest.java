@@ -19,6 +19,7 @@
 
 package com.puppycrawl.tools.checkstyle;
 
+import static com.puppycrawl.tools.checkstyle.checks.coding.PackageDeclarationCheck.MSG_KEY_MISMATCH;
 import static com.puppycrawl.tools.checkstyle.checks.naming.AbstractNameCheck.MSG_INVALID_PATTERN;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -30,11 +31,15 @@ import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -52,7 +57,10 @@ import com.puppycrawl.tools.checkstyle.api.Context;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.FileText;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import com.puppycrawl.tools.checkstyle.checks.TodoCommentCheck;
 import com.puppycrawl.tools.checkstyle.checks.coding.HiddenFieldCheck;
+import com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck;
+import com.puppycrawl.tools.checkstyle.checks.coding.PackageDeclarationCheck;
 import com.puppycrawl.tools.checkstyle.checks.indentation.CommentsIndentationCheck;
 import com.puppycrawl.tools.checkstyle.checks.javadoc.JavadocPackageCheck;
 import com.puppycrawl.tools.checkstyle.checks.javadoc.JavadocParagraphCheck;
@@ -428,6 +436,118 @@ public class TreeWalkerTest extends AbstractModuleTestSupport {
         }
     }
 
+    @Test
+    public void testOrdinaryAndCommentChecksOnSameFile() throws Exception {
+        final DefaultConfiguration typeNameConfig = createModuleConfig(TypeNameCheck.class);
+        typeNameConfig.addAttribute("format", "^[a-z]+$");
+        final DefaultConfiguration todoConfig = createModuleConfig(TodoCommentCheck.class);
+        todoConfig.addAttribute("format", "inline");
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addChild(typeNameConfig);
+        treeWalkerConfig.addChild(todoConfig);
+
+        final String[] expected = {
+            "10:14: " + getCheckMessage(TypeNameCheck.class, MSG_INVALID_PATTERN,
+                    "InputTreeWalkerHiddenComments", "^[a-z]+$"),
+            "13: " + getCheckMessage(TodoCommentCheck.class, TodoCommentCheck.MSG_KEY, "inline"),
+        };
+        verify(treeWalkerConfig, getPath("InputTreeWalkerHiddenComments.java"), expected);
+    }
+
+    @Test
+    public void testAstCache() throws Exception {
+        final File cacheDirectory = temporaryFolder.newFolder();
+        final DefaultConfiguration typeNameConfig = createModuleConfig(TypeNameCheck.class);
+        typeNameConfig.addAttribute("format", "^[a-z]+$");
+        final DefaultConfiguration todoConfig = createModuleConfig(TodoCommentCheck.class);
+        todoConfig.addAttribute("format", "inline");
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addAttribute("astCacheDirectory", cacheDirectory.getPath());
+        treeWalkerConfig.addChild(typeNameConfig);
+        treeWalkerConfig.addChild(todoConfig);
+
+        final String[] expected = {
+            "10:14: " + getCheckMessage(TypeNameCheck.class, MSG_INVALID_PATTERN,
+                    "InputTreeWalkerHiddenComments", "^[a-z]+$"),
+            "13: " + getCheckMessage(TodoCommentCheck.class, TodoCommentCheck.MSG_KEY, "inline"),
+        };
+        final String path = getPath("InputTreeWalkerHiddenComments.java");
+        verify(treeWalkerConfig, path, expected);
+        assertEquals("Invalid number of cached ASTs", 1, cacheDirectory.list().length);
+        verify(treeWalkerConfig, path, expected);
+    }
+
+    @Test
+    public void testSkipDuplicateFiles() throws Exception {
+        final DefaultConfiguration typeNameConfig = createModuleConfig(TypeNameCheck.class);
+        typeNameConfig.addAttribute("format", "^[a-z]+$");
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addAttribute("skipDuplicateFiles", "true");
+        treeWalkerConfig.addChild(typeNameConfig);
+        treeWalkerConfig.addChild(createModuleConfig(CountingCheck.class));
+        final File[] files = {
+            new File(temporaryFolder.newFolder(), "InputA.java"),
+            new File(temporaryFolder.newFolder(), "InputA.java"),
+            new File(temporaryFolder.newFolder(), "InputB.java"),
+        };
+        final Map<String, List<String>> expected = new HashMap<>();
+        for (File file : files) {
+            Files.write(file.toPath(), "class A {}".getBytes(StandardCharsets.UTF_8));
+            expected.put(file.getPath(), Collections.singletonList("1:7: " + getCheckMessage(
+                    TypeNameCheck.class, MSG_INVALID_PATTERN, "A", "^[a-z]+$")));
+        }
+        CountingCheck.count = 0;
+
+        verify(createChecker(treeWalkerConfig), files, expected);
+        assertEquals("Duplicate file should not be checked again", 2, CountingCheck.count);
+    }
+
+    @Test
+    public void testSkipDuplicateFilesInOtherDirectoriesWithPathDependentCheck()
+            throws Exception {
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addAttribute("skipDuplicateFiles", "true");
+        treeWalkerConfig.addChild(createModuleConfig(PackageDeclarationCheck.class));
+        final File root = temporaryFolder.newFolder();
+        final File[] files = {
+            new File(root, "a" + File.separator + "x" + File.separator + "Foo.java"),
+            new File(root, "b" + File.separator + "y" + File.separator + "Foo.java"),
+        };
+        for (File file : files) {
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), "package x; class Foo {}".getBytes(StandardCharsets.UTF_8));
+        }
+        final Map<String, List<String>> expected = new HashMap<>();
+        expected.put(files[0].getPath(), Collections.emptyList());
+        expected.put(files[1].getPath(), Collections.singletonList("1: " + getCheckMessage(
+                PackageDeclarationCheck.class, MSG_KEY_MISMATCH, "x")));
+
+        verify(createChecker(treeWalkerConfig), files, expected);
+    }
+
+    @Test
+    public void testSkipDuplicateFilesWithPathDependentFilter() throws Exception {
+        final DefaultConfiguration typeNameConfig = createModuleConfig(TypeNameCheck.class);
+        typeNameConfig.addAttribute("format", "^[a-z]+$");
+        final DefaultConfiguration treeWalkerConfig = createModuleConfig(TreeWalker.class);
+        treeWalkerConfig.addAttribute("skipDuplicateFiles", "true");
+        treeWalkerConfig.addChild(typeNameConfig);
+        treeWalkerConfig.addChild(createModuleConfig(SuppressedDirectoryFilter.class));
+        final File[] files = {
+            new File(temporaryFolder.newFolder(SuppressedDirectoryFilter.DIRECTORY), "InputA.java"),
+            new File(temporaryFolder.newFolder(), "InputA.java"),
+        };
+        for (File file : files) {
+            Files.write(file.toPath(), "class A {}".getBytes(StandardCharsets.UTF_8));
+        }
+        final Map<String, List<String>> expected = new HashMap<>();
+        expected.put(files[0].getPath(), Collections.emptyList());
+        expected.put(files[1].getPath(), Collections.singletonList("1:7: " + getCheckMessage(
+                TypeNameCheck.class, MSG_INVALID_PATTERN, "A", "^[a-z]+$")));
+
+        verify(createChecker(treeWalkerConfig), files, expected);
+    }
+
     @Test
     public void testBehaviourWithChecksAndFilters() throws Exception {
         final DefaultConfiguration checkerConfig =
@@ -545,6 +665,66 @@ public class TreeWalkerTest extends AbstractModuleTestSupport {
         assertTrue("Destroy was not called", VerifyDestroyCheck.isDestroyWasCalled());
     }
 
+    @Test
+    public void testMultiThreadMode() throws Exception {
+        final DefaultConfiguration treeWalkerConfig = createThreadModeConfig(4,
+                MagicNumberCheck.class, HiddenFieldCheck.class, MemberNameCheck.class,
+                JavadocParagraphCheck.class);
+        final String pattern = "^[a-z][a-zA-Z0-9]*$";
+        final String[] expected = {
+            "8:17: " + getCheckMessage(MemberNameCheck.class, MSG_INVALID_PATTERN,
+                    "Value", pattern),
+            "8:25: " + getCheckMessage(MagicNumberCheck.class,
+                    MagicNumberCheck.MSG_KEY, "42"),
+            "14: " + getCheckMessage(JavadocParagraphCheck.class,
+                    JavadocParagraphCheck.MSG_TAG_AFTER),
+            "17:30: " + getCheckMessage(HiddenFieldCheck.class,
+                    HiddenFieldCheck.MSG_KEY, "count"),
+            "18:30: " + getCheckMessage(MagicNumberCheck.class,
+                    MagicNumberCheck.MSG_KEY, "7"),
+            "22:13: " + getCheckMessage(HiddenFieldCheck.class,
+                    HiddenFieldCheck.MSG_KEY, "count"),
+            "23:25: " + getCheckMessage(MagicNumberCheck.class,
+                    MagicNumberCheck.MSG_KEY, "3"),
+            "27:21: " + getCheckMessage(MemberNameCheck.class, MSG_INVALID_PATTERN,
+                    "Other", pattern),
+            "27:29: " + getCheckMessage(MagicNumberCheck.class,
+                    MagicNumberCheck.MSG_KEY, "100"),
+        };
+        verify(createChecker(treeWalkerConfig, ModuleCreationOption.IN_CHECKER),
+                getPath("InputTreeWalkerMultiThread.java"), expected);
+    }
+
+    @Test
+    public void testExceptionInMultiThreadMode() throws Exception {
+        final DefaultConfiguration treeWalkerConfig = createThreadModeConfig(2,
+                MemberNameCheck.class, MultiThreadFileProcessorTest.ExceptionThrowingCheck.class);
+        final String path = getPath("InputTreeWalkerMultiThread.java");
+        final File file = new File(path);
+        try {
+            final String[] expected = CommonUtils.EMPTY_STRING_ARRAY;
+            verify(createChecker(treeWalkerConfig, ModuleCreationOption.IN_CHECKER),
+                    new File[] {file, file}, path, expected);
+            fail("Exception is expected");
+        }
+        catch (CheckstyleException ex) {
+            assertEquals("Invalid exception message",
+                    "Exception was thrown while processing " + path, ex.getMessage());
+            assertTrue("Invalid exception cause",
+                    ex.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private static DefaultConfiguration createThreadModeConfig(int threadsNumber,
+            Class<?>... checks) {
+        final DefaultConfiguration treeWalkerConfig = new DefaultConfiguration(
+                TreeWalker.class.getName(), new ThreadModeSettings(1, threadsNumber));
+        for (Class<?> check : checks) {
+            treeWalkerConfig.addChild(createModuleConfig(check));
+        }
+        return treeWalkerConfig;
+    }
+
     private static class BadJavaDocCheck extends AbstractCheck {
         @Override
         public int[] getDefaultTokens() {
@@ -591,6 +771,40 @@ public class TreeWalkerTest extends AbstractModuleTestSupport {
         }
     }
 
+    private static class CountingCheck extends AbstractCheck {
+        private static int count;
+
+        @Override
+        public int[] getDefaultTokens() {
+            return CommonUtils.EMPTY_INT_ARRAY;
+        }
+
+        @Override
+        public int[] getAcceptableTokens() {
+            return getDefaultTokens();
+        }
+
+        @Override
+        public int[] getRequiredTokens() {
+            return getDefaultTokens();
+        }
+
+        @Override
+        public void beginTree(DetailAST rootAST) {
+            count++;
+        }
+    }
+
+    private static class SuppressedDirectoryFilter implements TreeWalkerFilter {
+        private static final String DIRECTORY = "suppressed";
+
+        @Override
+        public boolean accept(TreeWalkerAuditEvent treeWalkerAuditEvent) {
+            return !new File(treeWalkerAuditEvent.getFileName()).getParentFile().getName()
+                    .equals(DIRECTORY);
+        }
+    }
+
     private static class VerifyDestroyCheck extends AbstractCheck {
         private static boolean destroyWasCalled;
 
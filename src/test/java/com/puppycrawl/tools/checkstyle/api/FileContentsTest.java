@@ -22,6 +22,7 @@ package com.puppycrawl.tools.checkstyle.api;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -54,6 +55,18 @@ public class FileContentsTest {
                 fileContents.getCComments().get(1).get(0).toString());
     }
 
+    @Test
+    public void testLinesAreNotCopied() {
+        final FileText text = FileText.fromText(new File("filename"), "first\nsecond\n");
+        final FileContents fileContents = new FileContents(text);
+
+        assertSame("Text should not be copied", text, fileContents.getText());
+        assertEquals("Invalid number of lines", 2, fileContents.getLineCount());
+        assertEquals("Invalid line view", "second",
+                fileContents.getLineView(1).toString());
+        assertEquals("Invalid line", "second", fileContents.getLine(1));
+    }
+
     @Test
     public void testSinglelineCommentNotIntersect() {
         // just to make UT coverage 100%
@@ -19,29 +19,30 @@
 
 package com.puppycrawl.tools.checkstyle.api;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
-import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.times;
-import static org.powermock.api.mockito.PowerMockito.doNothing;
-import static org.powermock.api.mockito.PowerMockito.mockStatic;
-import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.junit.Rule;
 import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.powermock.core.classloader.annotations.PrepareForTest;
-import org.powermock.modules.junit4.PowerMockRunner;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.internal.util.reflection.Whitebox;
 
-import com.google.common.io.Closeables;
-
-@RunWith(PowerMockRunner.class)
-@PrepareForTest(Closeables.class)
 public class FileTextTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testUnsupportedCharset() throws IOException {
         // just to make UT coverage 100%
@@ -58,19 +59,117 @@ public class FileTextTest {
     }
 
     @Test
-    public void testSupportedCharset() throws IOException {
-        //check if reader finally closed
-        mockStatic(Closeables.class);
-        doNothing().when(Closeables.class);
-        Closeables.closeQuietly(any(Reader.class));
+    public void testTextConstructor() {
+        final File file = new File("any name");
+        final FileText fileText = FileText.fromText(file, "first\r\nsecond\nthird");
+
+        assertEquals("Invalid file", file, fileText.getFile());
+        assertNull("Text should not have charset", fileText.getCharset());
+        assertEquals("Invalid full text", "first\r\nsecond\nthird",
+                fileText.getFullText().toString());
+        assertArrayEquals("Invalid lines", new String[] {"first", "second", "third"},
+                fileText.toLinesArray());
+        assertEquals("Invalid line number", 3, fileText.lineColumn(14).getLine());
+    }
+
+    @Test
+    public void testContentConstructor() {
+        final byte[] content = {'a', (byte) 0xE4, '\n', 'b'};
+
+        final FileText fileText = new FileText(new File("any name"), content, "ISO-8859-1");
+        assertEquals("Invalid charset name", "ISO-8859-1", fileText.getCharset().name());
+        assertArrayEquals("Invalid lines", new String[] {"a" + (char) 0xE4, "b"},
+                fileText.toLinesArray());
+        assertEquals("Malformed input should be replaced", "a" + (char) 0xFFFD,
+                new FileText(new File("any name"), content, "UTF-8").get(0));
+    }
+
+    @Test
+    public void testLineViews() {
+        final String[] expected = {"first", "", "", "second", "", "", "third"};
+        final FileText fileText =
+                FileText.fromText(new File("any name"), "first\r\n\r\n\rsecond\n\n\rthird");
 
+        assertEquals("Invalid number of lines", expected.length, fileText.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Invalid line", expected[i], fileText.get(i));
+            assertEquals("Invalid line view", expected[i],
+                    fileText.getLineView(i).toString());
+        }
+        assertArrayEquals("Invalid lines", expected, fileText.toLinesArray());
+        assertEquals("Invalid line after all lines are created", expected[3], fileText.get(3));
+        assertEquals("Invalid line view after all lines are created", expected[3],
+                fileText.getLineView(3).toString());
+        assertEquals("Invalid lines of copy", expected.length,
+                new FileText(fileText).toLinesArray().length);
+    }
+
+    @Test
+    public void testLinesOfText() {
+        assertEquals("Empty text should have no lines", 0,
+                FileText.fromText(new File("any name"), "").size());
+        assertEquals("Terminator should end line", 1,
+                FileText.fromText(new File("any name"), "line\n").size());
+        assertEquals("Last line should not need terminator", 2,
+                FileText.fromText(new File("any name"), "line\nline").size());
+    }
+
+    @Test
+    public void testLineViewOutOfText() {
+        final FileText fileText = FileText.fromText(new File("any name"), "line");
+        try {
+            fileText.getLineView(1);
+            fail("Exception is expected");
+        }
+        catch (IndexOutOfBoundsException ex) {
+            assertEquals("Invalid exception message", "2", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testLinesConstructor() {
+        final List<String> lines = Arrays.asList("first", "sec\rond");
+        final FileText fileText = new FileText(new File("any name"), lines);
+
+        assertEquals("Invalid number of lines", 2, fileText.size());
+        assertEquals("Invalid line", lines.get(1), fileText.get(1));
+        assertEquals("Invalid line view", lines.get(1), fileText.getLineView(1));
+        assertEquals("Invalid line number", 2, fileText.lineColumn(7).getLine());
+    }
+
+    @Test
+    public void testSupportedCharset() throws IOException {
         final String charsetName = "ISO-8859-1";
         final FileText fileText = new FileText(new File("src/test/resources/com/puppycrawl/tools/"
                  + "checkstyle/api/import-control_complete.xml"), charsetName);
         assertEquals("Invalid charset name", charsetName, fileText.getCharset().name());
+    }
 
-        verifyStatic(times(2));
-        Closeables.closeQuietly(any(Reader.class));
+    @Test
+    public void testSmallFileIsDecoded() throws IOException {
+        verifyDecodedFile(1);
+    }
+
+    @Test
+    public void testLargeFileIsDecoded() throws IOException {
+        verifyDecodedFile(1024 * 1024 / 8);
+    }
+
+    private void verifyDecodedFile(int repeats) throws IOException {
+        final byte[] part = {'l', 'i', 'n', 'e', (byte) 0xC3, (byte) 0xA4, (byte) 0xFF, '\n'};
+        final byte[] content = new byte[part.length * repeats];
+        for (int i = 0; i < repeats; i++) {
+            System.arraycopy(part, 0, content, i * part.length, part.length);
+        }
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content);
+
+        final FileText fileText = new FileText(file, StandardCharsets.UTF_8.name());
+        assertEquals("Invalid full text", new String(content, StandardCharsets.UTF_8),
+                fileText.getFullText().toString());
+        assertEquals("Invalid number of lines", repeats, fileText.size());
+        assertEquals("Invalid line", "line" + (char) 0xE4 + (char) 0xFFFD,
+                fileText.get(repeats - 1));
     }
 
     @Test
@@ -109,4 +208,22 @@ public class FileTextTest {
         assertEquals("Invalid line", 1, lineColumn.getLine());
         assertEquals("Invalid column", 0, lineColumn.getColumn());
     }
+
+    @Test
+    public void testGetDoesNotCreateAllLines() {
+        final FileText fileText = FileText.fromText(new File("any name"), "first\nsecond\r\n");
+        final FileContents fileContents = new FileContents(fileText);
+        final AtomicReference<?> lines =
+                (AtomicReference<?>) Whitebox.getInternalState(fileText, "lines");
+
+        assertEquals("Invalid line", "second", fileText.get(1));
+        assertEquals("Invalid line", "first", fileContents.getLine(0));
+        assertEquals("Invalid line", "second", fileContents.getLineView(1).toString());
+        assertNull("Lines should not be created", lines.get());
+
+        assertArrayEquals("Invalid lines", new String[] {"first", "second"},
+                fileText.toLinesArray());
+        assertNotNull("Lines should be created", lines.get());
+        assertEquals("Invalid line", "second", fileText.get(1));
+    }
 }
@@ -24,6 +24,7 @@ import static com.puppycrawl.tools.checkstyle.utils.CommonUtils.EMPTY_OBJECT_ARR
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.times;
@@ -234,6 +235,58 @@ public class LocalizedMessageTest {
         assertTrue("Invalid comparing result", message1.compareTo(message2) < 0);
     }
 
+    @Test
+    public void testCompareToDoesNotFormatMessagesWithSameContent() {
+        // the key is an invalid pattern, so the messages can not be formatted
+        final LocalizedMessage message1 = createMessageWithoutBundle("key {0", "1");
+        final LocalizedMessage message2 = createMessageWithoutBundle("key {0", "1");
+
+        assertEquals("Invalid comparing result", 0, message1.compareTo(message2));
+    }
+
+    @Test
+    public void testCompareToWithDifferentKeysOfSameText() {
+        final LocalizedMessage message1 = createMessageWithoutBundle("key {0}", "1");
+        final LocalizedMessage message2 = createMessageWithoutBundle("'key '{0}", "1");
+        final LocalizedMessage message3 = createMessageWithoutBundle("key {0}", "2");
+
+        assertEquals("Messages with the same text should be equal in order", 0,
+                message1.compareTo(message2));
+        assertTrue("Invalid comparing result", message2.compareTo(message3) < 0);
+        assertTrue("Invalid comparing result", message3.compareTo(message2) > 0);
+    }
+
+    @Test
+    public void testCompareToWithoutArguments() {
+        final LocalizedMessage messageNullArgs = new LocalizedMessage(0,
+                "com.puppycrawl.tools.checkstyle.checks.coding.messages",
+                "empty.statement", null, "module", LocalizedMessage.class, null);
+
+        assertEquals("Null arguments should be the same as no arguments", 0,
+                messageNullArgs.compareTo(createSampleLocalizedMessage()));
+    }
+
+    @Test
+    public void testCustomMessageIsNotFormattedOnCreation() {
+        // the pattern is valid, but the argument can not be formatted as a number
+        final LocalizedMessage message = new LocalizedMessage(0, "not.existing.bundle",
+                "key", new Object[] {"text"}, "module", LocalizedMessage.class, "{0,number}");
+
+        try {
+            message.getMessage();
+            fail("Exception is expected");
+        }
+        catch (IllegalArgumentException ex) {
+            assertEquals("Invalid exception message",
+                    "Cannot format given Object as a Number", ex.getMessage());
+        }
+    }
+
+    private static LocalizedMessage createMessageWithoutBundle(String key, String argument) {
+        return new LocalizedMessage(0, "not.existing.bundle", key,
+                new Object[] {argument}, "module", LocalizedMessage.class, null);
+    }
+
     private static LocalizedMessage createSampleLocalizedMessage() {
         return createSampleLocalizedMessageWithId("module");
     }
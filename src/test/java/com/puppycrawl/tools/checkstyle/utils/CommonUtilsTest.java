@@ -35,6 +35,8 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.regex.Pattern;
 
@@ -45,6 +47,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
 
 @RunWith(PowerMockRunner.class)
 public class CommonUtilsTest {
@@ -395,6 +398,14 @@ public class CommonUtilsTest {
             CommonUtils.isInt(null));
     }
 
+    @Test
+    public void testGetExternalResourceLocations() {
+        final ExternalResourceHolder holder = () -> Collections.singleton("location");
+
+        assertEquals("Invalid external resource locations", Collections.singleton("location"),
+                CommonUtils.getExternalResourceLocations(Arrays.asList(holder, "notHolder")));
+    }
+
     private static class TestCloseable implements Closeable {
         private boolean closed;
 
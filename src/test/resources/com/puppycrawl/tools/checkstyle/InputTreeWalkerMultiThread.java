@@ -0,0 +1,29 @@
+package com.puppycrawl.tools.checkstyle;
+
+/**
+ * Input for checks, which are run by several threads.
+ * Some javadoc.
+ */
+public class InputTreeWalkerMultiThread {
+    private int Value = 42;
+
+    private int count;
+
+    /**
+     * Sets the count.
+     *
+     * Paragraph without a tag.
+     */
+    public void setCount(int count) {
+        this.count = count * 7;
+    }
+
+    public void reset() {
+        int count = 0;
+        Value = count + 3;
+    }
+
+    class Inner {
+        private int Other = 100;
+    }
+}